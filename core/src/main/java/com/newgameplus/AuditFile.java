@@ -0,0 +1,81 @@
+package com.newgameplus;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.function.IntFunction;
+
+// Rolling text file the audit ring is drained into: audit.log, rolled to audit.1.log .. audit.N.log once it passes
+// MAX_BYTES. One line per record, tab separated: timestamp, kind, item id, item name, verb, family.
+// Only touched from the audit flush thread.
+final class AuditFile implements AuditLog.Sink {
+    private static final long MAX_BYTES = 512 * 1024;
+    private static final int KEEP = 3;
+    private static final int BATCH = 512;
+
+    private final Path dir;
+    private final IntFunction<String> itemNames;
+    private final IntFunction<String> familyNames;
+    private final StringBuilder batch = new StringBuilder();
+
+    AuditFile(Path dir, IntFunction<String> itemNames, IntFunction<String> familyNames) {
+        this.dir = dir;
+        this.itemNames = itemNames;
+        this.familyNames = familyNames;
+    }
+
+    // Drain everything recorded so far, appending it in batches. Returns the number of records written.
+    int flush(AuditLog audit) throws IOException {
+        int total = 0;
+        int drained;
+        while ((drained = audit.drain(this, BATCH)) > 0) {
+            append();
+            total += drained;
+        }
+        return total;
+    }
+
+    @Override
+    public void accept(long timestampMillis, AuditLog.Kind kind, int itemId, BlockedVerb verb, int familyRoot) {
+        batch.append(Instant.ofEpochMilli(timestampMillis)).append('\t')
+                .append(kind.getLabel()).append('\t')
+                .append(itemId).append('\t')
+                .append(itemNames.apply(itemId)).append('\t')
+                .append(verb != null ? verb.getKeyword() : "-").append('\t')
+                .append(familyRoot != ItemFamilyGraph.NO_FAMILY ? familyNames.apply(familyRoot) : "-")
+                .append('\n');
+    }
+
+    private void append() throws IOException {
+        if (batch.length() == 0) {
+            return;
+        }
+        Files.createDirectories(dir);
+        Path current = dir.resolve("audit.log");
+        if (Files.exists(current) && Files.size(current) >= MAX_BYTES) {
+            roll(current);
+        }
+        try (Writer w = Files.newBufferedWriter(current, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            w.append(batch);
+        } finally {
+            batch.setLength(0);
+        }
+    }
+
+    private void roll(Path current) throws IOException {
+        Files.deleteIfExists(dir.resolve("audit." + KEEP + ".log"));
+        for (int i = KEEP - 1; i >= 1; i--) {
+            Path from = dir.resolve("audit." + i + ".log");
+            if (Files.exists(from)) {
+                Files.move(from, dir.resolve("audit." + (i + 1) + ".log"), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(current, dir.resolve("audit.1.log"), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
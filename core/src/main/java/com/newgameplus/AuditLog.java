@@ -0,0 +1,124 @@
+package com.newgameplus;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Fixed-size, lock-free ring buffer of blocked and deprioritized interactions. Producers (the client thread, and
+// anything else that blocks an interaction) record primitives only, so the hot path never allocates; a single
+// consumer drains batches off-thread. If producers lap the consumer the oldest records are dropped and counted.
+//
+// Each slot holds two longs (timestamp, packed fields) and a sequence stamp. A producer clears the stamp, writes
+// the fields and then stamps the slot with its sequence; the consumer accepts a slot only if the stamp is the
+// expected sequence both before and after reading it.
+final class AuditLog {
+    enum Kind {
+        // A click on a blocked option that was consumed
+        BLOCKED_CLICK("blocked"),
+        // A blocked option shown greyed out at the bottom of an opened menu
+        DEPRIORITIZED("greyed"),
+        // A blocked option removed from an opened menu
+        HIDDEN("hidden");
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+
+        String getLabel() {
+            return label;
+        }
+    }
+
+    interface Sink {
+        void accept(long timestampMillis, Kind kind, int itemId, BlockedVerb verb, int familyRoot);
+    }
+
+    static final int CAPACITY = 4096;
+    private static final int MASK = CAPACITY - 1;
+    private static final Kind[] KINDS = Kind.values();
+    private static final long EMPTY = -1;
+
+    private final AtomicLongArray stamps = new AtomicLongArray(CAPACITY);
+    private final AtomicLongArray slots = new AtomicLongArray(CAPACITY * 2);
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong[] counts = new AtomicLong[KINDS.length];
+    private final AtomicLong dropped = new AtomicLong();
+    // Consumer only
+    private long tail;
+
+    AuditLog() {
+        for (int i = 0; i < CAPACITY; i++) {
+            stamps.set(i, EMPTY);
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new AtomicLong();
+        }
+    }
+
+    // Safe from any thread; allocation-free
+    void record(Kind kind, int itemId, BlockedVerb verb, int familyRoot) {
+        long seq = head.getAndIncrement();
+        int slot = (int) (seq & MASK);
+        stamps.set(slot, EMPTY);
+        slots.set(slot * 2, System.currentTimeMillis());
+        slots.set(slot * 2 + 1, pack(kind, itemId, verb, familyRoot));
+        stamps.set(slot, seq);
+        counts[kind.ordinal()].incrementAndGet();
+    }
+
+    long count(Kind kind) {
+        return counts[kind.ordinal()].get();
+    }
+
+    long total() {
+        long total = 0;
+        for (AtomicLong c : counts) {
+            total += c.get();
+        }
+        return total;
+    }
+
+    long dropped() {
+        return dropped.get();
+    }
+
+    // Hand up to max recorded entries to the sink, oldest first; single consumer only. Returns the number drained.
+    int drain(Sink sink, int max) {
+        long h = head.get();
+        if (h - tail > CAPACITY) {
+            // Lapped: everything older than one buffer is gone
+            dropped.addAndGet(h - tail - CAPACITY);
+            tail = h - CAPACITY;
+        }
+        int drained = 0;
+        while (tail < h && drained < max) {
+            int slot = (int) (tail & MASK);
+            long stamp = stamps.get(slot);
+            if (stamp < tail) {
+                // The producer that claimed this sequence hasn't finished writing yet
+                break;
+            }
+            long timestamp = slots.get(slot * 2);
+            long packed = slots.get(slot * 2 + 1);
+            if (stamp != tail || stamps.get(slot) != tail) {
+                // Overwritten by a newer record while we were behind
+                dropped.incrementAndGet();
+                tail++;
+                continue;
+            }
+            sink.accept(timestamp, KINDS[(int) (packed >>> 56) & 0xFF], (int) (packed & 0xFFFFFF),
+                    BlockedVerb.fromOrdinal((int) (packed >>> 48) & 0xFF), (int) ((packed >>> 24) & 0xFFFFFF) - 1);
+            tail++;
+            drained++;
+        }
+        return drained;
+    }
+
+    // kind (8 bits) | verb (8 bits) | family root + 1 (24 bits) | item id (24 bits)
+    private static long pack(Kind kind, int itemId, BlockedVerb verb, int familyRoot) {
+        long v = verb == null ? 0xFF : verb.ordinal();
+        return ((long) kind.ordinal() << 56) | (v << 48) | ((long) ((familyRoot + 1) & 0xFFFFFF) << 24)
+                | (itemId & 0xFFFFFF);
+    }
+}
@@ -0,0 +1,70 @@
+package com.newgameplus;
+
+// Menu verbs that are blocked on locked items. Matching ignores color tags and case without building a new string,
+// so it can run for every menu entry.
+enum BlockedVerb {
+    WEAR("wear", false),
+    WIELD("wield", false),
+    USE("use", false),
+    CHECK("check", false),
+    REVERT("revert", false),
+    // withdraw and all variants (withdraw-1, withdraw-5, withdraw-all, withdraw-all-but-1, ...)
+    WITHDRAW("withdraw", true);
+
+    private static final BlockedVerb[] VALUES = values();
+
+    private final String keyword;
+    private final boolean prefix;
+
+    BlockedVerb(String keyword, boolean prefix) {
+        this.keyword = keyword;
+        this.prefix = prefix;
+    }
+
+    String getKeyword() {
+        return keyword;
+    }
+
+    static BlockedVerb fromOrdinal(int ordinal) {
+        return ordinal >= 0 && ordinal < VALUES.length ? VALUES[ordinal] : null;
+    }
+
+    // The blocked verb an option text names, or null if the option is allowed
+    static BlockedVerb classify(String option) {
+        if (option == null) {
+            return null;
+        }
+        for (BlockedVerb verb : VALUES) {
+            if (verb.matches(option)) {
+                return verb;
+            }
+        }
+        return null;
+    }
+
+    // Equivalent to Text.removeTags(option).toLowerCase() equals (or starts with) the keyword
+    private boolean matches(String option) {
+        int k = 0;
+        int i = 0;
+        int n = option.length();
+        while (i < n) {
+            char c = option.charAt(i);
+            if (c == '<') {
+                int close = option.indexOf('>', i);
+                if (close >= 0) {
+                    i = close + 1;
+                    continue;
+                }
+            }
+            if (k == keyword.length()) {
+                return prefix;
+            }
+            if (Character.toLowerCase(c) != keyword.charAt(k)) {
+                return false;
+            }
+            k++;
+            i++;
+        }
+        return k == keyword.length();
+    }
+}
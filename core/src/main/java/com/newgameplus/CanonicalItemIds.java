@@ -0,0 +1,81 @@
+package com.newgameplus;
+
+// Item id -> canonical (base) item id, for the variants that share their base item's lock verdict and unlock record:
+// noted forms, bank placeholders, and charged, degraded or ornamented forms of a lockable item. Built by the plugin
+// from the item definitions once a lock table is published; immutable afterwards and readable from any thread. Ids
+// without a variant link map to themselves, so lookups are one array read either way.
+final class CanonicalItemIds {
+    static final CanonicalItemIds IDENTITY = new CanonicalItemIds(new int[0], 0);
+
+    // Variant chains are short (placeholder of a charged form -> charged form -> base); longer is a cycle
+    private static final int MAX_CHAIN = 8;
+
+    // Indexed by item id; identity where there is no link
+    private final int[] canonical;
+    private final int variants;
+
+    private CanonicalItemIds(int[] canonical, int variants) {
+        this.canonical = canonical;
+        this.variants = variants;
+    }
+
+    int of(int itemId) {
+        return itemId >= 0 && itemId < canonical.length ? canonical[itemId] : itemId;
+    }
+
+    boolean isVariant(int itemId) {
+        return of(itemId) != itemId;
+    }
+
+    // Number of ids that map to another id
+    int variantCount() {
+        return variants;
+    }
+
+    long footprintBytes() {
+        return MemoryFootprint.of(canonical);
+    }
+
+    // Single-use builder: link each variant to the item it is a form of, then build() follows the links to the end
+    static final class Builder {
+        private final int[] base;
+
+        Builder(int itemCount) {
+            base = new int[Math.max(0, itemCount)];
+            for (int i = 0; i < base.length; i++) {
+                base[i] = i;
+            }
+        }
+
+        // The first link recorded for a variant wins. Returns false if the ids are out of range or the variant
+        // already has a base.
+        boolean link(int variant, int baseId) {
+            if (variant <= 0 || baseId <= 0 || variant == baseId || variant >= base.length || baseId >= base.length
+                    || base[variant] != variant) {
+                return false;
+            }
+            base[variant] = baseId;
+            return true;
+        }
+
+        CanonicalItemIds build() {
+            int[] canonical = new int[base.length];
+            int variants = 0;
+            for (int id = 0; id < base.length; id++) {
+                int c = id;
+                for (int step = 0; step < MAX_CHAIN && base[c] != c; step++) {
+                    c = base[c];
+                }
+                // A cycle leaves the chain unresolved; keep such ids on their own
+                if (base[c] != c) {
+                    c = id;
+                }
+                canonical[id] = c;
+                if (c != id) {
+                    variants++;
+                }
+            }
+            return new CanonicalItemIds(canonical, variants);
+        }
+    }
+}
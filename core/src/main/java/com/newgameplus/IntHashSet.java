@@ -0,0 +1,153 @@
+package com.newgameplus;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Open-addressing set of ints (linear probing, backward-shift deletion), so lock state doesn't box every item id.
+// Integer.MIN_VALUE is reserved as the empty-slot marker. Not thread-safe.
+final class IntHashSet {
+    private static final int FREE = Integer.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private int mask;
+    private int size;
+
+    IntHashSet() {
+        this(8);
+    }
+
+    IntHashSet(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    boolean add(int key) {
+        checkKey(key);
+        int i = slot(key);
+        while (keys[i] != FREE) {
+            if (keys[i] == key) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        if (++size > keys.length * LOAD_FACTOR) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+
+    boolean remove(int key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return false;
+        }
+        keys[i] = FREE;
+        size--;
+        // Shift later members of the probe run back so lookups never stop early at the hole
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            int k = keys[j];
+            if (k == FREE) {
+                return true;
+            }
+            int ideal = slot(k);
+            boolean stays = i <= j ? (i < ideal && ideal <= j) : (i < ideal || ideal <= j);
+            if (!stays) {
+                keys[i] = k;
+                keys[j] = FREE;
+                i = j;
+            }
+        }
+    }
+
+    boolean contains(int key) {
+        return key != FREE && indexOf(key) >= 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        Arrays.fill(keys, FREE);
+        size = 0;
+    }
+
+    void forEach(IntConsumer action) {
+        for (int k : keys) {
+            if (k != FREE) {
+                action.accept(k);
+            }
+        }
+    }
+
+    // Members in ascending order
+    int[] toSortedArray() {
+        int[] out = new int[size];
+        int n = 0;
+        for (int k : keys) {
+            if (k != FREE) {
+                out[n++] = k;
+            }
+        }
+        Arrays.sort(out);
+        return out;
+    }
+
+    long footprintBytes() {
+        return MemoryFootprint.OBJECT_HEADER + 16 + MemoryFootprint.of(keys);
+    }
+
+    private int indexOf(int key) {
+        int i = slot(key);
+        while (keys[i] != FREE) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int slot(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        int[] old = keys;
+        allocate(capacity);
+        size = 0;
+        for (int k : old) {
+            if (k != FREE) {
+                add(k);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, FREE);
+        mask = capacity - 1;
+    }
+
+    static int capacityFor(int expectedSize) {
+        int capacity = 8;
+        while (capacity * LOAD_FACTOR < Math.max(1, expectedSize)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static void checkKey(int key) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("Integer.MIN_VALUE cannot be stored");
+        }
+    }
+}
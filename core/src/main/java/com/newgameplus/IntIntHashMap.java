@@ -0,0 +1,155 @@
+package com.newgameplus;
+
+import java.util.Arrays;
+
+// Open-addressing int -> int map (linear probing, backward-shift deletion); the map counterpart of IntHashSet.
+// Integer.MIN_VALUE is reserved as the empty-slot marker for keys. Not thread-safe.
+final class IntIntHashMap {
+    private static final int FREE = Integer.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    interface EntryConsumer {
+        void accept(int key, int value);
+    }
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    IntIntHashMap() {
+        this(8);
+    }
+
+    IntIntHashMap(int expectedSize) {
+        allocate(IntHashSet.capacityFor(expectedSize));
+    }
+
+    int get(int key, int defaultValue) {
+        int i = indexOf(key);
+        return i >= 0 ? values[i] : defaultValue;
+    }
+
+    boolean containsKey(int key) {
+        return key != FREE && indexOf(key) >= 0;
+    }
+
+    void put(int key, int value) {
+        int i = insertionIndex(key);
+        values[i] = value;
+    }
+
+    // Add delta to the value for key (starting from 0) and return the new value
+    int addTo(int key, int delta) {
+        int i = insertionIndex(key);
+        values[i] += delta;
+        return values[i];
+    }
+
+    boolean remove(int key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return false;
+        }
+        keys[i] = FREE;
+        size--;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            int k = keys[j];
+            if (k == FREE) {
+                return true;
+            }
+            int ideal = slot(k);
+            boolean stays = i <= j ? (i < ideal && ideal <= j) : (i < ideal || ideal <= j);
+            if (!stays) {
+                keys[i] = k;
+                values[i] = values[j];
+                keys[j] = FREE;
+                i = j;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        Arrays.fill(keys, FREE);
+        size = 0;
+    }
+
+    void forEach(EntryConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    long footprintBytes() {
+        return MemoryFootprint.OBJECT_HEADER + 16 + MemoryFootprint.of(keys) + MemoryFootprint.of(values);
+    }
+
+    // Slot holding key, inserting it with value 0 if absent
+    private int insertionIndex(int key) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("Integer.MIN_VALUE cannot be stored");
+        }
+        int i = slot(key);
+        while (keys[i] != FREE) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        if (size + 1 > keys.length * LOAD_FACTOR) {
+            rehash(keys.length << 1);
+            return insertionIndex(key);
+        }
+        keys[i] = key;
+        values[i] = 0;
+        size++;
+        return i;
+    }
+
+    private int indexOf(int key) {
+        int i = slot(key);
+        while (keys[i] != FREE) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int slot(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                values[insertionIndex(oldKeys[i])] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+        mask = capacity - 1;
+    }
+}
@@ -0,0 +1,51 @@
+package com.newgameplus;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// How locked items are treated inside one interface: which dim opacity the overlay uses and which verbs are blocked.
+// The policies themselves are plain values; InterfacePolicies binds them to game interface ids. Interfaces without
+// a policy (and menu entries without a widget, such as ground items) use DEFAULT, which blocks every verb.
+final class InterfacePolicy {
+    enum Dim {
+        // bankOpacity: item containers shown in a main window
+        BANK,
+        // inventoryOpacity: side panel inventories and worn equipment
+        INVENTORY
+    }
+
+    static final InterfacePolicy DEFAULT = new InterfacePolicy("default", Dim.INVENTORY,
+            EnumSet.allOf(BlockedVerb.class));
+
+    // Verbs that act on the item itself rather than moving it
+    static final Set<BlockedVerb> ITEM_VERBS = EnumSet.of(
+            BlockedVerb.WEAR, BlockedVerb.WIELD, BlockedVerb.USE, BlockedVerb.CHECK, BlockedVerb.REVERT);
+
+    private final String name;
+    private final Dim dim;
+    // Bit per BlockedVerb ordinal
+    private final int blockedVerbs;
+
+    InterfacePolicy(String name, Dim dim, Set<BlockedVerb> blocked) {
+        this.name = name;
+        this.dim = dim;
+        int mask = 0;
+        for (BlockedVerb verb : blocked) {
+            mask |= 1 << verb.ordinal();
+        }
+        this.blockedVerbs = mask;
+    }
+
+    boolean blocks(BlockedVerb verb) {
+        return verb != null && (blockedVerbs & (1 << verb.ordinal())) != 0;
+    }
+
+    Dim getDim() {
+        return dim;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
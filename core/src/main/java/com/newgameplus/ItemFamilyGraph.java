@@ -0,0 +1,180 @@
+package com.newgameplus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Explicit item family graph. Every lock list line is a node and each lockable item belongs to one node: an item
+// whose name matches several lines goes to the most specific of them and does not join them, so "Spirit shield"
+// doesn't pull every sigil shield into one family. Manual links join families whose names don't share tokens. The
+// union-find is only used while building; afterwards each lockable item id maps straight to its family root.
+final class ItemFamilyGraph {
+    static final int NO_FAMILY = -1;
+
+    static final ItemFamilyGraph EMPTY = new ItemFamilyGraph(new int[0], new int[0], new String[0]);
+
+    // Item id -> family root (NO_FAMILY if the item is not lockable)
+    private final int[] itemFamily;
+    // Family node (list line) -> family root
+    private final int[] nodeRoot;
+    // Family node -> list line name, for inspection
+    private final String[] nodeNames;
+
+    private ItemFamilyGraph(int[] itemFamily, int[] nodeRoot, String[] nodeNames) {
+        this.itemFamily = itemFamily;
+        this.nodeRoot = nodeRoot;
+        this.nodeNames = nodeNames;
+    }
+
+    // Rebuild a graph from arrays written by LockTableCache
+    static ItemFamilyGraph restore(int[] itemFamily, int[] nodeRoot, String[] nodeNames) {
+        return new ItemFamilyGraph(itemFamily, nodeRoot, nodeNames);
+    }
+
+    // Backing arrays, shared rather than copied; for LockTableCache only
+    int[] itemFamilies() {
+        return itemFamily;
+    }
+
+    int[] nodeRoots() {
+        return nodeRoot;
+    }
+
+    String[] nodeNames() {
+        return nodeNames;
+    }
+
+    // Number of family nodes; roots are node ids, so arrays indexed by root use this size
+    int nodeCount() {
+        return nodeRoot.length;
+    }
+
+    int familyOf(int itemId) {
+        if (itemId < 0 || itemId >= itemFamily.length) {
+            return NO_FAMILY;
+        }
+        return itemFamily[itemId];
+    }
+
+    int rootOfNode(int node) {
+        return nodeRoot[node];
+    }
+
+    boolean sameFamily(int itemA, int itemB) {
+        int a = familyOf(itemA);
+        return a != NO_FAMILY && a == familyOf(itemB);
+    }
+
+    // Names are shared with the lock families, so only the arrays are counted
+    long footprintBytes() {
+        return MemoryFootprint.of(itemFamily) + MemoryFootprint.of(nodeRoot)
+                + MemoryFootprint.referenceArray(nodeNames.length);
+    }
+
+    // List line names that make up the family with the given root
+    List<String> familyMembers(int root) {
+        List<String> out = new ArrayList<>();
+        for (int n = 0; n < nodeRoot.length; n++) {
+            if (nodeRoot[n] == root) {
+                out.add(nodeNames[n]);
+            }
+        }
+        return out;
+    }
+
+    // Display name for a family root: the name of its root list line
+    String familyName(int root) {
+        return root >= 0 && root < nodeNames.length ? nodeNames[root] : null;
+    }
+
+    static final class Builder {
+        private final List<LockFamily> families;
+        private final int[] parent;
+        private final int[] rank;
+        private final String[] nodeNames;
+        private final int[] itemNode;
+
+        Builder(List<LockFamily> families, int itemCount) {
+            this.families = families;
+            int n = families.size();
+            parent = new int[n];
+            rank = new int[n];
+            nodeNames = new String[n];
+            for (int i = 0; i < n; i++) {
+                parent[i] = i;
+                nodeNames[i] = families.get(i).getName();
+            }
+            itemNode = new int[Math.max(0, itemCount)];
+            Arrays.fill(itemNode, NO_FAMILY);
+        }
+
+        // Record that an item matched a family node; of several matches the item keeps the most specific node
+        void addMatch(int itemId, int node) {
+            int prev = itemNode[itemId];
+            if (prev == NO_FAMILY || LockFamily.moreSpecific(families.get(node), families.get(prev))) {
+                itemNode[itemId] = node;
+            }
+        }
+
+        void union(int a, int b) {
+            int ra = find(a);
+            int rb = find(b);
+            if (ra == rb) {
+                return;
+            }
+            if (rank[ra] < rank[rb]) {
+                parent[ra] = rb;
+            } else if (rank[ra] > rank[rb]) {
+                parent[rb] = ra;
+            } else {
+                parent[rb] = ra;
+                rank[ra]++;
+            }
+        }
+
+        // Join the nodes named in each group (normalized list line names); names without a line are skipped
+        void link(List<String[]> groups) {
+            Map<String, Integer> nodeByName = new HashMap<>();
+            for (int n = 0; n < nodeNames.length; n++) {
+                nodeByName.putIfAbsent(nodeNames[n], n);
+            }
+            for (String[] group : groups) {
+                Integer first = null;
+                for (String name : group) {
+                    Integer node = nodeByName.get(name);
+                    if (node == null) {
+                        continue;
+                    }
+                    if (first == null) {
+                        first = node;
+                    } else {
+                        union(first, node);
+                    }
+                }
+            }
+        }
+
+        private int find(int x) {
+            while (parent[x] != x) {
+                parent[x] = parent[parent[x]];
+                x = parent[x];
+            }
+            return x;
+        }
+
+        ItemFamilyGraph build() {
+            int[] nodeRoot = new int[parent.length];
+            for (int i = 0; i < parent.length; i++) {
+                nodeRoot[i] = find(i);
+            }
+            int[] itemFamily = new int[itemNode.length];
+            for (int id = 0; id < itemNode.length; id++) {
+                int node = itemNode[id];
+                itemFamily[id] = node == NO_FAMILY ? NO_FAMILY : nodeRoot[node];
+            }
+            return new ItemFamilyGraph(itemFamily, nodeRoot, nodeNames);
+        }
+    }
+}
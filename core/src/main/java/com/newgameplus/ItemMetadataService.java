@@ -0,0 +1,108 @@
+package com.newgameplus;
+
+import java.util.BitSet;
+
+// Read-only snapshot of the item metadata the plugin needs for lockable items: display names and the
+// noted/placeholder links between item ids. Built on the client thread once the lock table exists, then
+// published as an immutable snapshot so Swing, executors and offline tools can query it from any thread.
+final class ItemMetadataService {
+    static final int NONE = -1;
+
+    static final class ItemMetadata {
+        final int id;
+        final String name;
+        // For an unnoted item: its noted id; for a noted item: its unnoted id (NONE if it has no note form)
+        final int linkedNoteId;
+        final boolean noted;
+        // For a real item: its placeholder id; for a placeholder: the real item id (NONE if it has none)
+        final int placeholderId;
+        final boolean placeholder;
+
+        ItemMetadata(int id, String name, int linkedNoteId, boolean noted, int placeholderId, boolean placeholder) {
+            this.id = id;
+            this.name = name;
+            this.linkedNoteId = linkedNoteId;
+            this.noted = noted;
+            this.placeholderId = placeholderId;
+            this.placeholder = placeholder;
+        }
+    }
+
+    private static final class Snapshot {
+        final ItemMetadata[] byId;
+        final BitSet ids;
+
+        Snapshot(ItemMetadata[] byId, BitSet ids) {
+            this.byId = byId;
+            this.ids = ids;
+        }
+    }
+
+    private static final Snapshot EMPTY = new Snapshot(new ItemMetadata[0], new BitSet());
+
+    private volatile Snapshot snapshot = EMPTY;
+
+    boolean isReady() {
+        return snapshot != EMPTY;
+    }
+
+    ItemMetadata get(int itemId) {
+        ItemMetadata[] byId = snapshot.byId;
+        return itemId >= 0 && itemId < byId.length ? byId[itemId] : null;
+    }
+
+    String getName(int itemId) {
+        ItemMetadata m = get(itemId);
+        return m != null ? m.name : null;
+    }
+
+    boolean contains(int itemId) {
+        return get(itemId) != null;
+    }
+
+    int size() {
+        return snapshot.ids.cardinality();
+    }
+
+    // The id-indexed array, the id bitset and each metadata record (names are shared with the name cache)
+    long footprintBytes() {
+        Snapshot s = snapshot;
+        long record = MemoryFootprint.align(MemoryFootprint.OBJECT_HEADER + 4 + MemoryFootprint.REFERENCE + 4 + 1 + 4 + 1);
+        return MemoryFootprint.referenceArray(s.byId.length) + MemoryFootprint.of(s.ids) + record * s.ids.cardinality();
+    }
+
+    // Copy of the ids covered by the snapshot
+    BitSet itemIds() {
+        return (BitSet) snapshot.ids.clone();
+    }
+
+    void publish(Builder builder) {
+        snapshot = new Snapshot(builder.byId, builder.ids);
+    }
+
+    void clear() {
+        snapshot = EMPTY;
+    }
+
+    // Single-use builder; fill on the client thread, then hand to publish()
+    static final class Builder {
+        private final ItemMetadata[] byId;
+        private final BitSet ids = new BitSet();
+
+        Builder(int itemCount) {
+            byId = new ItemMetadata[Math.max(0, itemCount)];
+        }
+
+        boolean contains(int itemId) {
+            return itemId >= 0 && itemId < byId.length && byId[itemId] != null;
+        }
+
+        void add(ItemMetadata m) {
+            if (m.id < 0 || m.id >= byId.length) {
+                return;
+            }
+            byId[m.id] = m;
+            ids.set(m.id);
+        }
+    }
+}
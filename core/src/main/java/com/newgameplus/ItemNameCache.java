@@ -0,0 +1,156 @@
+package com.newgameplus;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+// Item names indexed by item id: the display name, the normalized name and its token ids.
+// Entries are written on the client thread (where item definitions can be read) and can be read from any thread.
+// The whole cache is dropped when the item names' fingerprint changes (a game update); names the sampled fingerprint
+// misses are caught by the full name pass that follows (see namesHash).
+final class ItemNameCache {
+    static final class Entry {
+        final String displayName;
+        final String normalizedName;
+        final int[] tokenIds;
+
+        Entry(String displayName, String normalizedName, int[] tokenIds) {
+            this.displayName = displayName;
+            this.normalizedName = normalizedName;
+            this.tokenIds = tokenIds;
+        }
+    }
+
+    // Item names read for a fingerprint; spread evenly over the id space
+    private static final int FINGERPRINT_SAMPLES = 1024;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final TokenDictionary tokens;
+    private volatile AtomicReferenceArray<Entry> entries = new AtomicReferenceArray<>(0);
+    private volatile long fingerprint;
+    private volatile boolean validated;
+
+    ItemNameCache(TokenDictionary tokens) {
+        this.tokens = tokens;
+    }
+
+    // Size the cache for the item count and drop it if the item names changed (see fingerprint).
+    // Returns true if previously cached names were discarded.
+    boolean validate(long fingerprint, int itemCount) {
+        boolean invalidated = false;
+        if (!validated || this.fingerprint != fingerprint) {
+            invalidated = validated;
+            this.fingerprint = fingerprint;
+            validated = true;
+            entries = new AtomicReferenceArray<>(Math.max(0, itemCount));
+        } else if (itemCount > entries.length()) {
+            grow(itemCount);
+        }
+        return invalidated;
+    }
+
+    // Fingerprint of the game's item names: the client revision, the item count and the names of a fixed sample of
+    // item ids (names reads the item definition; null if it can't). The client revision alone stays the same across
+    // game cache updates, and hashing every name would cost the full snapshot this is meant to let us skip, so a
+    // spread-out sample stands in for the whole name list. It only picks the cached table to try: a rename outside
+    // the sample keeps the fingerprint, so the table is checked against namesHash once every name has been read.
+    static long fingerprint(int revision, int itemCount, IntFunction<String> names) {
+        long hash = mix(mix(FNV_OFFSET, revision), itemCount);
+        int samples = Math.min(FINGERPRINT_SAMPLES, itemCount);
+        for (int i = 0; i < samples; i++) {
+            // Even spread, always ending on the newest item
+            int itemId = samples == 1 ? itemCount - 1 : (int) ((long) i * (itemCount - 1) / (samples - 1));
+            hash = mixName(hash, names.apply(itemId));
+        }
+        return hash;
+    }
+
+    // Hash of every item name in id order: what a lock table was built from. The snapshot computes it a slice at a
+    // time with namesHashStart and mixName.
+    static long namesHash(int itemCount, IntFunction<String> names) {
+        long hash = namesHashStart(itemCount);
+        for (int itemId = 0; itemId < itemCount; itemId++) {
+            hash = mixName(hash, names.apply(itemId));
+        }
+        return hash;
+    }
+
+    static long namesHashStart(int itemCount) {
+        return mix(FNV_OFFSET, itemCount);
+    }
+
+    // Fold the next item's name (null if it can't be read) into a hash
+    static long mixName(long hash, String name) {
+        if (name == null) {
+            return mix(hash, -1);
+        }
+        hash = mix(hash, name.length());
+        for (int c = 0; c < name.length(); c++) {
+            hash = mix(hash, name.charAt(c));
+        }
+        return hash;
+    }
+
+    // Cached entry for the item, or null if it hasn't been resolved yet
+    Entry get(int itemId) {
+        AtomicReferenceArray<Entry> arr = entries;
+        if (itemId < 0 || itemId >= arr.length()) {
+            return null;
+        }
+        return arr.get(itemId);
+    }
+
+    // Store a resolved name; client thread only
+    Entry put(int itemId, String displayName, String normalizedName) {
+        Entry e = new Entry(displayName, normalizedName, tokens.tokenize(normalizedName));
+        if (itemId < 0) {
+            return e;
+        }
+        if (itemId >= entries.length()) {
+            grow(Math.max(itemId + 1, entries.length() * 2));
+        }
+        entries.set(itemId, e);
+        return e;
+    }
+
+    void clear() {
+        validated = false;
+        entries = new AtomicReferenceArray<>(0);
+    }
+
+    int capacity() {
+        return entries.length();
+    }
+
+    // Retained size of the id-indexed array and every cached entry
+    long footprintBytes() {
+        AtomicReferenceArray<Entry> arr = entries;
+        long bytes = MemoryFootprint.referenceArray(arr.length());
+        for (int i = 0; i < arr.length(); i++) {
+            Entry e = arr.get(i);
+            if (e == null) {
+                continue;
+            }
+            bytes += MemoryFootprint.align(MemoryFootprint.OBJECT_HEADER + 3 * MemoryFootprint.REFERENCE)
+                    + MemoryFootprint.of(e.displayName) + MemoryFootprint.of(e.tokenIds);
+            // normalizedName is usually a distinct string unless the name had no tags or capitals
+            if (e.normalizedName != e.displayName) {
+                bytes += MemoryFootprint.of(e.normalizedName);
+            }
+        }
+        return bytes;
+    }
+
+    private static long mix(long hash, int value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
+
+    private void grow(int size) {
+        AtomicReferenceArray<Entry> old = entries;
+        AtomicReferenceArray<Entry> arr = new AtomicReferenceArray<>(size);
+        for (int i = 0; i < old.length(); i++) {
+            arr.set(i, old.get(i));
+        }
+        entries = arr;
+    }
+}
@@ -0,0 +1,37 @@
+package com.newgameplus;
+
+// Lock list categories; each one is backed by its own default-locks resource and can be toggled in config
+enum LockCategory {
+    BOSSES("Bosses", "/default-locks/bosses.txt"),
+    RAIDS("Raids", "/default-locks/raids.txt"),
+    SLAYER("Slayer", "/default-locks/slayer.txt");
+
+    private final String displayName;
+    private final String resourcePath;
+
+    LockCategory(String displayName, String resourcePath) {
+        this.displayName = displayName;
+        this.resourcePath = resourcePath;
+    }
+
+    String getDisplayName() {
+        return displayName;
+    }
+
+    String getResourcePath() {
+        return resourcePath;
+    }
+
+    // Resolve a bank search term (e.g. "raids" or "slayer") to a category, or null if it is not one
+    static LockCategory fromSearchTerm(String term) {
+        if (term == null) {
+            return null;
+        }
+        for (LockCategory c : values()) {
+            if (c.displayName.equalsIgnoreCase(term)) {
+                return c;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,154 @@
+package com.newgameplus;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+// The lock verdict for any item id, from the published lock table, the enabled categories and the unlock state.
+// Verdicts are two bitset reads; the table and the enabled set are swapped atomically by whoever owns them (the
+// plugin on the client thread). Category and lockability queries can be asked from any thread, but lock verdicts
+// read the unlock state and must be asked on the thread that owns it. Variants are judged by their canonical id, so
+// a noted, placeholder or charged form always has its base item's verdict. Until a table is published, verdicts come
+// from the provisional name matcher, and an item it cannot judge counts as locked.
+final class LockEngine {
+    private final UnlockState unlocks;
+
+    private volatile LockTable table;
+    // Items locked by the enabled categories, ignoring unlocks; null while there is no (current) table
+    private volatile BitSet enabledLockedItems;
+    private volatile Set<LockCategory> enabledCategories = EnumSet.noneOf(LockCategory.class);
+    private volatile ProvisionalLocks provisional;
+    private volatile CanonicalItemIds canonical = CanonicalItemIds.IDENTITY;
+
+    LockEngine(UnlockState unlocks) {
+        this.unlocks = unlocks;
+    }
+
+    // Swap in a finished lock table; unlocks follow its item families from now on
+    void publish(LockTable table, Collection<LockCategory> enabled) {
+        this.table = table;
+        unlocks.setFamilyGraph(table.getFamilyGraph());
+        enable(enabled);
+    }
+
+    // Recompute the enabled lock set from the table's precomputed category bitsets
+    void enable(Collection<LockCategory> enabled) {
+        Set<LockCategory> categories = enabled.isEmpty() ? EnumSet.noneOf(LockCategory.class) : EnumSet.copyOf(enabled);
+        enabledCategories = categories;
+        LockTable t = table;
+        enabledLockedItems = t != null ? t.lockedItems(categories) : null;
+    }
+
+    // Verdicts to give until a table is published; null for none (nothing is locked then)
+    void setProvisional(ProvisionalLocks provisional) {
+        this.provisional = provisional;
+    }
+
+    // The table is stale (e.g. a new game cache revision); verdicts come from names until a new table is published
+    void invalidate() {
+        table = null;
+        enabledLockedItems = null;
+    }
+
+    // True once verdicts come from a published table
+    boolean isReady() {
+        return enabledLockedItems != null;
+    }
+
+    // Swap in the variant -> base id table for the published table. Returns true if unlocked variant ids were moved
+    // onto their base ids.
+    boolean setCanonicalIds(CanonicalItemIds canonical) {
+        this.canonical = canonical;
+        return unlocks.setCanonicalIds(canonical);
+    }
+
+    void reset() {
+        table = null;
+        enabledLockedItems = null;
+        provisional = null;
+        canonical = CanonicalItemIds.IDENTITY;
+        unlocks.setCanonicalIds(CanonicalItemIds.IDENTITY);
+        unlocks.setFamilyGraph(ItemFamilyGraph.EMPTY);
+    }
+
+    // The base item id a variant shares its verdict and unlock record with; the id itself if it is no variant
+    int canonicalId(int itemId) {
+        return canonical.of(itemId);
+    }
+
+    CanonicalItemIds getCanonicalIds() {
+        return canonical;
+    }
+
+    // Null until a table has been published
+    LockTable getTable() {
+        return table;
+    }
+
+    ItemFamilyGraph getFamilyGraph() {
+        LockTable t = table;
+        return t != null ? t.getFamilyGraph() : ItemFamilyGraph.EMPTY;
+    }
+
+    // Locked by an enabled category and not unlocked, directly or through another member of its item family. Fails
+    // closed: before a table is published, an item whose name can't be read on this thread counts as locked.
+    boolean isLocked(int itemId) {
+        return verdict(itemId) != ProvisionalLocks.Verdict.NOT_LOCKED;
+    }
+
+    // Locked for certain, so obtaining the item unlocks it. Unlike isLocked, an item that can't be judged yet is not;
+    // unlock detection must not record items no list locks.
+    boolean wouldUnlock(int itemId) {
+        return verdict(itemId) == ProvisionalLocks.Verdict.LOCKED;
+    }
+
+    // Locked by an enabled category, whether or not it has been unlocked since
+    boolean isLockable(int itemId) {
+        int id = canonical.of(itemId);
+        BitSet locked = enabledLockedItems;
+        if (locked != null) {
+            return id > 0 && locked.get(id);
+        }
+        ProvisionalLocks p = provisional;
+        return p != null && p.isLockable(id, enabledCategories);
+    }
+
+    // Category whose list locks this item, or null if it is not lockable (or its name can't be read yet)
+    LockCategory categoryOf(int itemId) {
+        int id = canonical.of(itemId);
+        LockTable t = table;
+        if (t != null) {
+            return t.categoryOf(id);
+        }
+        ProvisionalLocks p = provisional;
+        return p != null ? p.categoryOf(id) : null;
+    }
+
+    // The verb that makes this option blocked under the given policy, or null if it is allowed. Blacklist approach:
+    // only the policy's BlockedVerb verbs are disallowed on locked items; everything else (take, examine, cancel,
+    // deposit, ...) is allowed.
+    BlockedVerb blockedVerb(int itemId, String option, InterfacePolicy policy) {
+        if (!isLocked(itemId)) {
+            return null;
+        }
+        BlockedVerb verb = BlockedVerb.classify(option);
+        return policy.blocks(verb) ? verb : null;
+    }
+
+    long enabledFootprintBytes() {
+        BitSet locked = enabledLockedItems;
+        return locked != null ? MemoryFootprint.of(locked) : 0;
+    }
+
+    private ProvisionalLocks.Verdict verdict(int itemId) {
+        int id = canonical.of(itemId);
+        BitSet locked = enabledLockedItems;
+        if (locked != null) {
+            return id > 0 && locked.get(id) && !unlocks.isUnlocked(id)
+                    ? ProvisionalLocks.Verdict.LOCKED : ProvisionalLocks.Verdict.NOT_LOCKED;
+        }
+        ProvisionalLocks p = provisional;
+        return p != null ? p.verdict(id, enabledCategories, unlocks) : ProvisionalLocks.Verdict.NOT_LOCKED;
+    }
+}
@@ -0,0 +1,203 @@
+package com.newgameplus;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// A single family from a default-locks list, remembering which category (list) it came from.
+// Plain (v1) entries match any name containing the family's tokens in order, allowing extra words/prefixes/suffixes.
+// v2 entries can instead match exact names (plus aliases and variant suffixes), list item ids, and exclude
+// names or ids; see LockListParser for the list syntax.
+final class LockFamily {
+    enum MatchMode {
+        // Name (or an alias) tokens appear in order within the item name
+        TOKENS,
+        // Item name equals the name or an alias, optionally followed by one of the variant suffixes
+        EXACT,
+        // Only the listed item ids; the name is just a label
+        IDS
+    }
+
+    private static final int[] NO_IDS = new int[0];
+
+    private final int id;
+    private final String name;
+    // Tokens in the name; an item matching several lines belongs to the line with the most (see moreSpecific)
+    private final int nameTokenCount;
+    private final LockCategory category;
+    // Boss (or raid) group from "#!group" / group=, as written in the list; null if untagged
+    private final String group;
+    private final MatchMode mode;
+    // TOKENS: one token pattern per name/alias, and the token id of each pattern's longest token (used to index
+    // families so only plausible candidates are checked)
+    private final int[][] patterns;
+    private final int[] anchorTokenIds;
+    // EXACT: every accepted normalized name (name/aliases x suffixes)
+    private final String[] exactNames;
+    // Item ids locked regardless of their names (any mode); sorted
+    private final int[] itemIds;
+    // Names containing any of these token patterns, or these ids, never match
+    private final int[][] excludePatterns;
+    private final int[] excludeIds;
+
+    // Plain v1 entry
+    LockFamily(int id, String name, LockCategory category, String group, TokenDictionary tokens) {
+        this(id, name, category, group, MatchMode.TOKENS, NO_IDS, Arrays.<String>asList(), Arrays.<String>asList(),
+                Arrays.<String>asList(), NO_IDS, tokens);
+    }
+
+    // Names, aliases, suffixes and exclusions must already be normalized
+    LockFamily(int id, String name, LockCategory category, String group, MatchMode mode, int[] itemIds,
+               List<String> aliases, List<String> suffixes, List<String> excludeNames, int[] excludeIds,
+               TokenDictionary tokens) {
+        this.id = id;
+        this.name = name;
+        this.nameTokenCount = tokens.tokenize(name).length;
+        this.category = category;
+        this.group = group;
+        this.mode = mode;
+        this.itemIds = sorted(itemIds);
+        this.excludeIds = sorted(excludeIds);
+
+        Set<String> names = new LinkedHashSet<>();
+        names.add(name);
+        names.addAll(aliases);
+
+        if (mode == MatchMode.TOKENS) {
+            patterns = new int[names.size()][];
+            anchorTokenIds = new int[names.size()];
+            int p = 0;
+            for (String n : names) {
+                patterns[p] = tokens.tokenize(n);
+                anchorTokenIds[p] = anchorToken(n, patterns[p]);
+                p++;
+            }
+        } else {
+            patterns = new int[0][];
+            anchorTokenIds = NO_IDS;
+        }
+
+        if (mode == MatchMode.EXACT) {
+            Set<String> exact = new LinkedHashSet<>(names);
+            for (String n : names) {
+                for (String suffix : suffixes) {
+                    exact.add(n + " " + suffix);
+                }
+            }
+            exactNames = exact.toArray(new String[0]);
+        } else {
+            exactNames = new String[0];
+        }
+
+        excludePatterns = new int[excludeNames.size()][];
+        for (int i = 0; i < excludePatterns.length; i++) {
+            excludePatterns[i] = tokens.tokenize(excludeNames.get(i));
+        }
+    }
+
+    int getId() {
+        return id;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    LockCategory getCategory() {
+        return category;
+    }
+
+    String getGroup() {
+        return group;
+    }
+
+    MatchMode getMode() {
+        return mode;
+    }
+
+    // Anchor token per pattern; empty unless the family matches by tokens
+    int[] getAnchorTokenIds() {
+        return anchorTokenIds;
+    }
+
+    String[] getExactNames() {
+        return exactNames;
+    }
+
+    int[] getItemIds() {
+        return itemIds;
+    }
+
+    boolean excludesId(int itemId) {
+        return excludeIds.length > 0 && Arrays.binarySearch(excludeIds, itemId) >= 0;
+    }
+
+    // True if the name tokens hit an exclusion pattern
+    boolean excludesName(int[] nameTokenIds) {
+        for (int[] pattern : excludePatterns) {
+            if (containsInOrder(nameTokenIds, pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // True if an item matched by both lines belongs to a rather than b: the line with more name tokens ("Arcane spirit
+    // shield" over "Spirit shield"), else the earlier line
+    static boolean moreSpecific(LockFamily a, LockFamily b) {
+        if (a.nameTokenCount != b.nameTokenCount) {
+            return a.nameTokenCount > b.nameTokenCount;
+        }
+        return a.id < b.id;
+    }
+
+    // TOKENS: true if the tokens of the name or an alias appear in order within the name tokens
+    boolean matches(int[] nameTokenIds) {
+        for (int[] pattern : patterns) {
+            if (containsInOrder(nameTokenIds, pattern)) {
+                return !excludesName(nameTokenIds);
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsInOrder(int[] nameTokenIds, int[] pattern) {
+        if (pattern.length == 0) {
+            return false;
+        }
+        int t = 0;
+        for (int i = 0; i < nameTokenIds.length && t < pattern.length; i++) {
+            if (nameTokenIds[i] == pattern[t]) {
+                t++;
+            }
+        }
+        return t == pattern.length;
+    }
+
+    private static int anchorToken(String normalizedName, int[] tokenIds) {
+        String[] parts = normalizedName.split("[^a-z0-9]+");
+        int anchor = -1;
+        int longest = -1;
+        for (int i = 0, t = 0; i < parts.length; i++) {
+            if (parts[i].isEmpty()) {
+                continue;
+            }
+            if (parts[i].length() > longest) {
+                longest = parts[i].length();
+                anchor = tokenIds[t];
+            }
+            t++;
+        }
+        return anchor;
+    }
+
+    private static int[] sorted(int[] ids) {
+        if (ids.length == 0) {
+            return NO_IDS;
+        }
+        int[] copy = ids.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+}
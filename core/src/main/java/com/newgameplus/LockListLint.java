@@ -0,0 +1,303 @@
+package com.newgameplus;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+// Offline check of the bundled lock lists against every item name in the game, for list authors:
+//
+//   ./gradlew :core:lintLockLists -PitemNames=<dump> [-PmaxMatches=25] [-Plimit=40] [-PallUnmatched]
+//
+// The dump has one "id<TAB>name" (or "id,name") line per item; ::ngpnames in the client writes one to
+// new-game-plus/item-names.tsv. Families are evaluated with the same fork/join matcher as the lock table build, then
+// the report lists families that match suspiciously many items (a single word like "crystal" locks everything that
+// contains it), families that match nothing, pairs of families that lock the same items, and unmatched items that
+// contain a family's main word (near misses).
+final class LockListLint {
+    private static final int DEFAULT_MAX_MATCHES = 25;
+    private static final int DEFAULT_LIMIT = 40;
+    // Example item names printed per family or pair
+    private static final int SAMPLES = 3;
+
+    private final List<LockFamily> families;
+    private final ItemNameCache names;
+    private final int itemCount;
+
+    // Item id -> matched family ids (null if none), listed ids included
+    private int[][] matches;
+    private int[] familyMatches;
+    // Distinct names per family; noted and placeholder forms share their item's name, so this is the count that
+    // says whether a family is too broad
+    private final List<Set<String>> familyNames = new ArrayList<>();
+    private final List<int[]> familySamples = new ArrayList<>();
+    // Family pair (lower id in the high half) -> item count and a sample item id
+    private final Map<Long, int[]> overlaps = new HashMap<>();
+
+    private LockListLint(List<LockFamily> families, ItemNameCache names, int itemCount) {
+        this.families = families;
+        this.names = names;
+        this.itemCount = itemCount;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path dump = null;
+        int maxMatches = DEFAULT_MAX_MATCHES;
+        int limit = DEFAULT_LIMIT;
+        boolean allUnmatched = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--max-matches":
+                        maxMatches = Integer.parseInt(args[++i]);
+                        break;
+                    case "--limit":
+                        limit = Integer.parseInt(args[++i]);
+                        break;
+                    case "--all-unmatched":
+                        allUnmatched = true;
+                        break;
+                    default:
+                        dump = Paths.get(args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            dump = null;
+        }
+        if (dump == null) {
+            System.err.println("usage: LockListLint <item names file> [--max-matches N] [--limit N]"
+                    + " [--all-unmatched]");
+            System.exit(2);
+        }
+
+        long started = System.nanoTime();
+        TokenDictionary tokens = new TokenDictionary();
+        ItemNameCache names = new ItemNameCache(tokens);
+        int itemCount = readNames(dump, names);
+        LockLists lists = LockLists.load(tokens);
+        LockListLint lint = new LockListLint(lists.families, names, itemCount);
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            lint.evaluate(pool);
+        } finally {
+            pool.shutdown();
+        }
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        PrintStream out = System.out;
+        out.println(itemCount + " item ids, " + lists.families.size() + " families, evaluated in " + elapsedMs + " ms");
+        lint.reportOverMatching(out, maxMatches, limit);
+        lint.reportDead(out);
+        lint.reportOverlaps(out, limit);
+        lint.reportUnmatched(out, limit, allUnmatched);
+    }
+
+    // Fill the cache from the dump; returns the item id bound (highest id + 1). Lines that don't start with an id are
+    // skipped (headers, comments).
+    private static int readNames(Path dump, ItemNameCache names) throws IOException {
+        List<String> lines = new ArrayList<>();
+        int maxId = -1;
+        try (BufferedReader br = Files.newBufferedReader(dump, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                int sep = separator(line);
+                int id = sep > 0 ? parseId(line.substring(0, sep)) : -1;
+                if (id >= 0) {
+                    maxId = Math.max(maxId, id);
+                    lines.add(line);
+                }
+            }
+        }
+        names.validate(0, maxId + 1);
+        for (String line : lines) {
+            int sep = separator(line);
+            String name = line.substring(sep + 1).trim();
+            names.put(parseId(line.substring(0, sep)), name, LockLists.normalizeName(name));
+        }
+        return maxId + 1;
+    }
+
+    private static int separator(String line) {
+        int tab = line.indexOf('\t');
+        return tab >= 0 ? tab : line.indexOf(',');
+    }
+
+    private static int parseId(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void evaluate(ForkJoinPool pool) {
+        matches = LockTable.match(families, itemCount, names::get, pool);
+        for (LockFamily f : families) {
+            for (int id : f.getItemIds()) {
+                if (id >= 0 && id < itemCount && !f.excludesId(id)) {
+                    matches[id] = add(matches[id], f.getId());
+                }
+            }
+        }
+
+        familyMatches = new int[families.size()];
+        for (int i = 0; i < families.size(); i++) {
+            familySamples.add(new int[0]);
+            familyNames.add(new HashSet<>());
+        }
+        for (int id = 0; id < itemCount; id++) {
+            int[] matched = matches[id];
+            if (matched == null) {
+                continue;
+            }
+            ItemNameCache.Entry name = names.get(id);
+            String normalized = name != null ? name.normalizedName : "#" + id;
+            final int itemId = id;
+            for (int i = 0; i < matched.length; i++) {
+                int f = matched[i];
+                familyMatches[f]++;
+                if (familyNames.get(f).add(normalized) && familySamples.get(f).length < SAMPLES) {
+                    familySamples.set(f, add(familySamples.get(f), id));
+                }
+                for (int j = i + 1; j < matched.length; j++) {
+                    int a = Math.min(f, matched[j]);
+                    int b = Math.max(f, matched[j]);
+                    int[] overlap = overlaps.computeIfAbsent(((long) a << 32) | b, k -> new int[]{0, itemId});
+                    overlap[0]++;
+                }
+            }
+        }
+    }
+
+    private void reportOverMatching(PrintStream out, int maxMatches, int limit) {
+        List<LockFamily> over = new ArrayList<>();
+        for (LockFamily f : families) {
+            if (familyNames.get(f.getId()).size() > maxMatches) {
+                over.add(f);
+            }
+        }
+        over.sort(Comparator.comparingInt((LockFamily f) -> familyNames.get(f.getId()).size()).reversed());
+        out.println();
+        out.println("Families matching more than " + maxMatches + " item names: " + over.size());
+        for (LockFamily f : over.subList(0, Math.min(limit, over.size()))) {
+            out.println("  " + label(f) + ": " + familyNames.get(f.getId()).size() + " names ("
+                    + familyMatches[f.getId()] + " ids), e.g. " + names(familySamples.get(f.getId())));
+        }
+    }
+
+    private void reportDead(PrintStream out) {
+        List<LockFamily> dead = new ArrayList<>();
+        for (LockFamily f : families) {
+            if (familyMatches[f.getId()] == 0) {
+                dead.add(f);
+            }
+        }
+        out.println();
+        out.println("Families matching no item: " + dead.size());
+        for (LockFamily f : dead) {
+            out.println("  " + label(f));
+        }
+    }
+
+    // Overlaps between families of different categories first: they make an item's category depend on list order
+    private void reportOverlaps(PrintStream out, int limit) {
+        List<Map.Entry<Long, int[]>> pairs = new ArrayList<>(overlaps.entrySet());
+        pairs.sort(Comparator.comparing((Map.Entry<Long, int[]> e) -> sameCategory(e.getKey()))
+                .thenComparing(e -> -e.getValue()[0]));
+        out.println();
+        out.println("Family pairs locking the same items: " + pairs.size());
+        for (Map.Entry<Long, int[]> e : pairs.subList(0, Math.min(limit, pairs.size()))) {
+            LockFamily a = families.get((int) (e.getKey() >>> 32));
+            LockFamily b = families.get((int) (long) e.getKey());
+            out.println("  " + label(a) + " & " + label(b) + ": " + e.getValue()[0] + " items, e.g. "
+                    + names(new int[]{e.getValue()[1]}));
+        }
+    }
+
+    // Unmatched items that contain a family's anchor (longest) word, e.g. a variant whose name the family misses
+    private void reportUnmatched(PrintStream out, int limit, boolean all) {
+        Map<Integer, LockFamily> byAnchor = new HashMap<>();
+        for (LockFamily f : families) {
+            for (int anchor : f.getAnchorTokenIds()) {
+                byAnchor.putIfAbsent(anchor, f);
+            }
+        }
+        int unmatched = 0;
+        List<String> nearMisses = new ArrayList<>();
+        List<String> rest = new ArrayList<>();
+        for (int id = 0; id < itemCount; id++) {
+            ItemNameCache.Entry name = names.get(id);
+            if (matches[id] != null || name == null || name.normalizedName.isEmpty()
+                    || name.normalizedName.equals("null")) {
+                continue;
+            }
+            unmatched++;
+            LockFamily near = null;
+            for (int token : name.tokenIds) {
+                near = byAnchor.get(token);
+                if (near != null) {
+                    break;
+                }
+            }
+            if (near != null) {
+                nearMisses.add(name.displayName + " (" + id + ") ~ " + label(near));
+            } else if (all) {
+                rest.add(name.displayName + " (" + id + ")");
+            }
+        }
+        out.println();
+        out.println("Unmatched items: " + unmatched + ", of which sharing a word with a family: " + nearMisses.size());
+        for (String line : nearMisses.subList(0, all ? nearMisses.size() : Math.min(limit, nearMisses.size()))) {
+            out.println("  " + line);
+        }
+        for (String line : rest) {
+            out.println("  " + line);
+        }
+    }
+
+    private boolean sameCategory(long pair) {
+        return families.get((int) (pair >>> 32)).getCategory() == families.get((int) pair).getCategory();
+    }
+
+    private String names(int[] ids) {
+        StringBuilder sb = new StringBuilder();
+        for (int id : ids) {
+            ItemNameCache.Entry e = names.get(id);
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(e != null ? e.displayName : "?").append(" (").append(id).append(')');
+        }
+        return sb.toString();
+    }
+
+    private static String label(LockFamily f) {
+        return f.getCategory().getDisplayName() + "/" + f.getName();
+    }
+
+    private static int[] add(int[] ids, int id) {
+        if (ids == null) {
+            return new int[]{id};
+        }
+        for (int existing : ids) {
+            if (existing == id) {
+                return ids;
+            }
+        }
+        int[] out = Arrays.copyOf(ids, ids.length + 1);
+        out[ids.length] = id;
+        return out;
+    }
+}
@@ -0,0 +1,229 @@
+package com.newgameplus;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+// Reads a default-locks list into lock families.
+//
+// Plain (v1) lists are one item name per line, matched by tokens. A list whose first directive is "#!format 2"
+// may add options to a line, separated by '|':
+//
+//   Black boots | match=exact
+//   Dragon boots | exclude=ornament kit
+//   Abyssal whip | alias=Frozen abyssal whip | suffix=(or)
+//   Twisted bow | ids=20997 | match=ids
+//
+// Options:
+//   match=tokens|exact|ids   tokens (default): the name's words appear in order in the item name;
+//                            exact: the item name equals the name or an alias, optionally plus a suffix;
+//                            ids: only the listed ids
+//   ids=<id>,...             item ids locked regardless of their names (in any mode)
+//   alias=<name>,...         other names for the same family
+//   suffix=<suffix>,...      variant suffixes accepted by exact matching, e.g. (or),(t)
+//   exclude=<name|id>,...    item names containing these words in order, or these ids, are never matched
+//   group=<boss>             boss (or raid) group for the progress counters and the boss: bank search
+//
+// "#!match exact" (or tokens) changes the default match mode for the lines that follow it, and "#!group <boss>"
+// their group (a bare "#!group" clears it). Both directives work in v1 lists too.
+@Slf4j
+final class LockListParser {
+    private static final String FORMAT_DIRECTIVE = "#!format";
+    private static final String MATCH_DIRECTIVE = "#!match";
+    private static final String GROUP_DIRECTIVE = "#!group";
+
+    private final LockCategory category;
+    private final TokenDictionary tokens;
+    private final UnaryOperator<String> normalizer;
+    private final String source;
+
+    private int format = 1;
+    private LockFamily.MatchMode defaultMode = LockFamily.MatchMode.TOKENS;
+    private String defaultGroup;
+
+    private LockListParser(LockCategory category, TokenDictionary tokens, UnaryOperator<String> normalizer,
+                           String source) {
+        this.category = category;
+        this.tokens = tokens;
+        this.normalizer = normalizer;
+        this.source = source;
+    }
+
+    // Append the families of one list to out; family ids continue from out.size()
+    static void read(BufferedReader br, String source, LockCategory category, TokenDictionary tokens,
+                     UnaryOperator<String> normalizer, List<LockFamily> out) throws IOException {
+        new LockListParser(category, tokens, normalizer, source).readAll(br, out);
+    }
+
+    private void readAll(BufferedReader br, List<LockFamily> out) throws IOException {
+        String line;
+        int lineNumber = 0;
+        while ((line = br.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.startsWith("#!")) {
+                directive(trimmed, lineNumber);
+                continue;
+            }
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            LockFamily family = format >= 2 ? parseV2(trimmed, out.size(), lineNumber) : plain(trimmed, out.size());
+            if (family != null) {
+                out.add(family);
+            }
+        }
+    }
+
+    private void directive(String line, int lineNumber) {
+        String[] parts = line.split("\\s+", 2);
+        String value = parts.length > 1 ? parts[1].trim() : "";
+        if (FORMAT_DIRECTIVE.equals(parts[0])) {
+            try {
+                format = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                log.warn("{}:{}: bad format directive '{}'", source, lineNumber, line);
+            }
+        } else if (MATCH_DIRECTIVE.equals(parts[0])) {
+            LockFamily.MatchMode mode = parseMode(value);
+            if (mode != null) {
+                defaultMode = mode;
+            } else {
+                log.warn("{}:{}: bad match directive '{}'", source, lineNumber, line);
+            }
+        } else if (GROUP_DIRECTIVE.equals(parts[0])) {
+            defaultGroup = value.isEmpty() ? null : value;
+        } else {
+            log.warn("{}:{}: unknown directive '{}'", source, lineNumber, line);
+        }
+    }
+
+    private LockFamily plain(String line, int id) {
+        return new LockFamily(id, normalizer.apply(line), category, defaultGroup, tokens);
+    }
+
+    private LockFamily parseV2(String line, int id, int lineNumber) {
+        String[] fields = line.split("\\|");
+        String name = normalizer.apply(fields[0]);
+        if (name.isEmpty()) {
+            log.warn("{}:{}: entry has no name", source, lineNumber);
+            return null;
+        }
+        if (fields.length == 1 && defaultMode == LockFamily.MatchMode.TOKENS) {
+            return plain(fields[0], id);
+        }
+
+        LockFamily.MatchMode mode = defaultMode;
+        String group = defaultGroup;
+        List<Integer> ids = new ArrayList<>();
+        List<String> aliases = new ArrayList<>();
+        List<String> suffixes = new ArrayList<>();
+        List<String> excludeNames = new ArrayList<>();
+        List<Integer> excludeIds = new ArrayList<>();
+        for (int i = 1; i < fields.length; i++) {
+            String field = fields[i].trim();
+            int eq = field.indexOf('=');
+            if (eq <= 0) {
+                log.warn("{}:{}: ignoring option '{}'", source, lineNumber, field);
+                continue;
+            }
+            String key = field.substring(0, eq).trim().toLowerCase();
+            String value = field.substring(eq + 1).trim();
+            switch (key) {
+                case "match":
+                    LockFamily.MatchMode parsed = parseMode(value);
+                    if (parsed == null) {
+                        log.warn("{}:{}: unknown match mode '{}'", source, lineNumber, value);
+                    } else {
+                        mode = parsed;
+                    }
+                    break;
+                case "ids":
+                    for (String v : splitValues(value)) {
+                        Integer itemId = parseId(v);
+                        if (itemId == null) {
+                            log.warn("{}:{}: bad item id '{}'", source, lineNumber, v);
+                        } else {
+                            ids.add(itemId);
+                        }
+                    }
+                    break;
+                case "alias":
+                    for (String v : splitValues(value)) {
+                        aliases.add(normalizer.apply(v));
+                    }
+                    break;
+                case "suffix":
+                    for (String v : splitValues(value)) {
+                        suffixes.add(normalizer.apply(v));
+                    }
+                    break;
+                case "exclude":
+                    for (String v : splitValues(value)) {
+                        Integer itemId = parseId(v);
+                        if (itemId != null) {
+                            excludeIds.add(itemId);
+                        } else {
+                            excludeNames.add(normalizer.apply(v));
+                        }
+                    }
+                    break;
+                case "group":
+                    group = value.isEmpty() ? null : value;
+                    break;
+                default:
+                    log.warn("{}:{}: unknown option '{}'", source, lineNumber, key);
+            }
+        }
+        if (mode == LockFamily.MatchMode.IDS && ids.isEmpty()) {
+            log.warn("{}:{}: match=ids without any ids", source, lineNumber);
+        }
+        return new LockFamily(id, name, category, group, mode, toArray(ids), aliases, suffixes, excludeNames,
+                toArray(excludeIds), tokens);
+    }
+
+    private static LockFamily.MatchMode parseMode(String value) {
+        switch (value.trim().toLowerCase()) {
+            case "tokens":
+                return LockFamily.MatchMode.TOKENS;
+            case "exact":
+                return LockFamily.MatchMode.EXACT;
+            case "ids":
+                return LockFamily.MatchMode.IDS;
+            default:
+                return null;
+        }
+    }
+
+    private static List<String> splitValues(String value) {
+        List<String> out = new ArrayList<>();
+        for (String v : value.split(",")) {
+            String trimmed = v.trim();
+            if (!trimmed.isEmpty()) {
+                out.add(trimmed);
+            }
+        }
+        return out;
+    }
+
+    private static Integer parseId(String value) {
+        try {
+            int id = Integer.parseInt(value);
+            return id >= 0 ? id : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int[] toArray(List<Integer> ids) {
+        int[] out = new int[ids.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = ids.get(i);
+        }
+        return out;
+    }
+}
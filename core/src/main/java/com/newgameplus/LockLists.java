@@ -0,0 +1,136 @@
+package com.newgameplus;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+// The bundled default-locks lists, parsed: one list per category plus the family links, and a hash over the raw
+// resources that keys the on-disk lock table cache. Families are indexed by id (their position in the list).
+@Slf4j
+final class LockLists {
+    static final String FAMILY_LINKS_RESOURCE = "/default-locks/family-links.txt";
+
+    static final LockLists EMPTY = new LockLists(new ArrayList<>(), new ArrayList<>(), 0);
+
+    // Markup tags in item names, e.g. <col=ff9040>
+    private static final Pattern TAG = Pattern.compile("<[^>]*>");
+
+    final List<LockFamily> families;
+    // Normalized list names that belong to the same item family
+    final List<String[]> links;
+    final long hash;
+
+    private LockLists(List<LockFamily> families, List<String[]> links, long hash) {
+        this.families = Collections.unmodifiableList(families);
+        this.links = Collections.unmodifiableList(links);
+        this.hash = hash;
+    }
+
+    // Load default-locked name families for every category; callers pick which categories apply
+    static LockLists load(TokenDictionary tokens) {
+        List<LockFamily> families = new ArrayList<>();
+        List<String> resources = new ArrayList<>();
+        for (LockCategory category : LockCategory.values()) {
+            readDefaultNamesResource(category, tokens, families);
+            resources.add(category.getResourcePath());
+        }
+        List<String[]> links = readFamilyLinksResource(FAMILY_LINKS_RESOURCE);
+        resources.add(FAMILY_LINKS_RESOURCE);
+        return new LockLists(families, links, hashResources(resources));
+    }
+
+    boolean isEmpty() {
+        return families.isEmpty();
+    }
+
+    // Item and list names are compared without markup, in lower case
+    static String normalizeName(String name) {
+        if (name == null) {
+            return "";
+        }
+        return TAG.matcher(name).replaceAll("").toLowerCase().trim();
+    }
+
+    // First 8 bytes of a SHA-256 over the resources' raw bytes (missing resources hash as empty)
+    private static long hashResources(List<String> resourcePaths) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String path : resourcePaths) {
+                digest.update(path.getBytes(StandardCharsets.UTF_8));
+                try (InputStream is = LockLists.class.getResourceAsStream(path)) {
+                    if (is != null) {
+                        byte[] buf = new byte[8192];
+                        int read;
+                        while ((read = is.read(buf)) > 0) {
+                            digest.update(buf, 0, read);
+                        }
+                    }
+                }
+            }
+            return ByteBuffer.wrap(digest.digest()).getLong();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            log.warn("NG+: failed hashing lock lists; the lock table cache will not be used", e);
+            // Never matches a saved cache key by chance
+            return ThreadLocalRandom.current().nextLong();
+        }
+    }
+
+    // Each line joins list names that belong to the same item family, separated by '='
+    // (e.g. charged and uncharged forms whose names share no tokens)
+    private static List<String[]> readFamilyLinksResource(String resourcePath) {
+        List<String[]> links = new ArrayList<>();
+        try (InputStream is = LockLists.class.getResourceAsStream(resourcePath)) {
+            if (is == null) {
+                log.debug("Family link resource not found: {}", resourcePath);
+                return links;
+            }
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    String trimmed = line.trim();
+                    if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                        continue;
+                    }
+                    String[] names = trimmed.split("=");
+                    for (int i = 0; i < names.length; i++) {
+                        names[i] = normalizeName(names[i]);
+                    }
+                    if (names.length > 1) {
+                        links.add(names);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed reading family link resource {}", resourcePath, e);
+        }
+        return links;
+    }
+
+    private static void readDefaultNamesResource(LockCategory category, TokenDictionary tokens,
+                                                 List<LockFamily> out) {
+        final String resourcePath = category.getResourcePath();
+        try (InputStream is = LockLists.class.getResourceAsStream(resourcePath)) {
+            if (is == null) {
+                log.debug("Default lock resource not found: {}", resourcePath);
+                return;
+            }
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+                LockListParser.read(br, resourcePath, category, tokens, LockLists::normalizeName, out);
+            }
+        } catch (Exception e) {
+            log.warn("Failed reading default lock resource {}", resourcePath, e);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.newgameplus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Matches one item name against the lock families: token families through an index on their anchor tokens, exact
+// families through every name they accept. Listed item ids are not matched here. Immutable once built and shared
+// between threads; each thread brings its own Scratch.
+final class LockMatcher {
+    static final class Scratch {
+        // Family id -> stamp of the last match that checked it, so a repeated token doesn't check a family twice
+        private final int[] checked;
+        private int stamp;
+        private int[] found = new int[8];
+
+        private Scratch(int familyCount) {
+            checked = new int[familyCount];
+        }
+    }
+
+    private final LockFamily[][] byAnchor;
+    private final Map<String, List<LockFamily>> byExactName = new HashMap<>();
+    private final int familyCount;
+
+    LockMatcher(List<LockFamily> families) {
+        byAnchor = indexByAnchor(families);
+        for (LockFamily f : families) {
+            for (String exact : f.getExactNames()) {
+                byExactName.computeIfAbsent(exact, k -> new ArrayList<>()).add(f);
+            }
+        }
+        familyCount = families.size();
+    }
+
+    Scratch newScratch() {
+        return new Scratch(familyCount);
+    }
+
+    // Ids of the families whose names match the item, or null if none (or the item has no real name)
+    int[] match(int itemId, ItemNameCache.Entry name, Scratch scratch) {
+        if (name == null || name.normalizedName.isEmpty() || name.normalizedName.equals("null")) {
+            return null;
+        }
+        int stamp = ++scratch.stamp;
+        int n = 0;
+        List<LockFamily> exact = byExactName.get(name.normalizedName);
+        if (exact != null) {
+            for (LockFamily f : exact) {
+                if (scratch.checked[f.getId()] == stamp) {
+                    continue;
+                }
+                scratch.checked[f.getId()] = stamp;
+                if (!f.excludesId(itemId) && !f.excludesName(name.tokenIds)) {
+                    n = add(scratch, n, f.getId());
+                }
+            }
+        }
+        for (int token : name.tokenIds) {
+            LockFamily[] candidates = token < byAnchor.length ? byAnchor[token] : null;
+            if (candidates == null) {
+                continue;
+            }
+            for (LockFamily f : candidates) {
+                if (scratch.checked[f.getId()] == stamp) {
+                    continue;
+                }
+                scratch.checked[f.getId()] = stamp;
+                if (!f.excludesId(itemId) && f.matches(name.tokenIds)) {
+                    n = add(scratch, n, f.getId());
+                }
+            }
+        }
+        return n > 0 ? Arrays.copyOf(scratch.found, n) : null;
+    }
+
+    private static int add(Scratch scratch, int n, int familyId) {
+        if (n == scratch.found.length) {
+            scratch.found = Arrays.copyOf(scratch.found, n * 2);
+        }
+        scratch.found[n] = familyId;
+        return n + 1;
+    }
+
+    // Token id -> token families anchored on it (null if none). Token ids are dense, so a plain array replaces a
+    // boxed map.
+    private static LockFamily[][] indexByAnchor(List<LockFamily> families) {
+        int maxAnchor = -1;
+        for (LockFamily f : families) {
+            for (int anchor : f.getAnchorTokenIds()) {
+                maxAnchor = Math.max(maxAnchor, anchor);
+            }
+        }
+        int[] counts = new int[maxAnchor + 1];
+        for (LockFamily f : families) {
+            int[] anchors = f.getAnchorTokenIds();
+            for (int i = 0; i < anchors.length; i++) {
+                if (anchors[i] >= 0 && firstOccurrence(anchors, i)) {
+                    counts[anchors[i]]++;
+                }
+            }
+        }
+        LockFamily[][] byAnchor = new LockFamily[maxAnchor + 1][];
+        for (int t = 0; t <= maxAnchor; t++) {
+            if (counts[t] > 0) {
+                byAnchor[t] = new LockFamily[counts[t]];
+                counts[t] = 0;
+            }
+        }
+        for (LockFamily f : families) {
+            int[] anchors = f.getAnchorTokenIds();
+            for (int i = 0; i < anchors.length; i++) {
+                if (anchors[i] >= 0 && firstOccurrence(anchors, i)) {
+                    byAnchor[anchors[i]][counts[anchors[i]]++] = f;
+                }
+            }
+        }
+        return byAnchor;
+    }
+
+    private static boolean firstOccurrence(int[] values, int index) {
+        for (int i = 0; i < index; i++) {
+            if (values[i] == values[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,152 @@
+package com.newgameplus;
+
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+
+// Precomputed item bitsets per lock category plus the item family graph. Built once from the item corpus;
+// immutable afterwards, so toggling a category is just an OR of the enabled bitsets.
+final class LockTable {
+    // Item ids per fork/join leaf when matching the corpus
+    private static final int MATCH_CHUNK = 1024;
+
+    private final Map<LockCategory, BitSet> categoryItems;
+    private final ItemFamilyGraph familyGraph;
+
+    private LockTable(Map<LockCategory, BitSet> categoryItems, ItemFamilyGraph familyGraph) {
+        this.categoryItems = categoryItems;
+        this.familyGraph = familyGraph;
+    }
+
+    // Rebuild a table read back by LockTableCache
+    static LockTable restore(Map<LockCategory, BitSet> categoryItems, ItemFamilyGraph familyGraph) {
+        return new LockTable(categoryItems, familyGraph);
+    }
+
+    // Scan item ids [0, itemCount) and record which categories lock each one and which family it belongs to.
+    // links are groups of family names that should be joined even though their names differ.
+    // names returns the cached item name, or null if the item cannot be resolved; it is called from the pool's
+    // threads. Matching runs in parallel on the pool; the (small) merge into bitsets and the graph is sequential.
+    // Listed item ids go straight into the bitsets; only token families need the per-name subsequence check.
+    static LockTable build(List<LockFamily> families, List<String[]> links, int itemCount,
+                           IntFunction<ItemNameCache.Entry> names, ForkJoinPool pool) {
+        final int[][] matches = match(families, itemCount, names, pool);
+
+        Map<LockCategory, BitSet> items = new EnumMap<>(LockCategory.class);
+        for (LockCategory c : LockCategory.values()) {
+            items.put(c, new BitSet(itemCount));
+        }
+        ItemFamilyGraph.Builder graph = new ItemFamilyGraph.Builder(families, itemCount);
+        for (int id = 0; id < itemCount; id++) {
+            int[] matched = matches[id];
+            if (matched == null) {
+                continue;
+            }
+            for (int familyId : matched) {
+                items.get(families.get(familyId).getCategory()).set(id);
+                graph.addMatch(id, familyId);
+            }
+        }
+        for (LockFamily f : families) {
+            for (int id : f.getItemIds()) {
+                if (id >= 0 && id < itemCount && !f.excludesId(id)) {
+                    items.get(f.getCategory()).set(id);
+                    graph.addMatch(id, f.getId());
+                }
+            }
+        }
+
+        graph.link(links);
+        return new LockTable(items, graph.build());
+    }
+
+    // Item id -> ids of the families whose names match it (null if none), for item ids [0, itemCount). Listed item
+    // ids are not included. Also used by LockListLint.
+    static int[][] match(List<LockFamily> families, int itemCount, IntFunction<ItemNameCache.Entry> names,
+                         ForkJoinPool pool) {
+        // Each leaf writes its own range
+        int[][] matches = new int[itemCount][];
+        pool.invoke(new MatchTask(new LockMatcher(families), names, matches, 0, itemCount));
+        return matches;
+    }
+
+    private static final class MatchTask extends RecursiveAction {
+        private final LockMatcher matcher;
+        private final IntFunction<ItemNameCache.Entry> names;
+        private final int[][] out;
+        private final int from;
+        private final int to;
+
+        MatchTask(LockMatcher matcher, IntFunction<ItemNameCache.Entry> names, int[][] out, int from, int to) {
+            this.matcher = matcher;
+            this.names = names;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > MATCH_CHUNK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new MatchTask(matcher, names, out, from, mid), new MatchTask(matcher, names, out, mid, to));
+                return;
+            }
+            LockMatcher.Scratch scratch = matcher.newScratch();
+            for (int id = from; id < to; id++) {
+                out[id] = matcher.match(id, names.apply(id), scratch);
+            }
+        }
+    }
+
+    ItemFamilyGraph getFamilyGraph() {
+        return familyGraph;
+    }
+
+    // The category's bitset itself, not a copy; for LockTableCache only
+    BitSet categoryItems(LockCategory category) {
+        return categoryItems.get(category);
+    }
+
+    // OR together the bitsets of the enabled categories
+    BitSet lockedItems(Iterable<LockCategory> enabled) {
+        BitSet out = new BitSet();
+        for (LockCategory c : enabled) {
+            out.or(categoryItems.get(c));
+        }
+        return out;
+    }
+
+    boolean isLockable(int itemId) {
+        return categoryOf(itemId) != null;
+    }
+
+    // First category (in declaration order) whose list locks this item, or null
+    LockCategory categoryOf(int itemId) {
+        if (itemId < 0) {
+            return null;
+        }
+        for (Map.Entry<LockCategory, BitSet> e : categoryItems.entrySet()) {
+            if (e.getValue().get(itemId)) {
+                return e.getKey();
+            }
+        }
+        return null;
+    }
+
+    int count(LockCategory category) {
+        return categoryItems.get(category).cardinality();
+    }
+
+    long categoryFootprintBytes() {
+        long bytes = 0;
+        for (BitSet bits : categoryItems.values()) {
+            bytes += MemoryFootprint.of(bits);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,258 @@
+package com.newgameplus;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.zip.CRC32;
+
+// Compiled lock table persisted under new-game-plus/cache so a warm start skips the item name snapshot and the
+// matching pass. The file is keyed by the item count, a fingerprint of the game's item names (see
+// ItemNameCache.fingerprint) and a hash of the lock lists; any mismatch (or a damaged file) is a miss and the caller
+// rebuilds in the background and saves over it. The fingerprint only samples the names, so the file also records
+// the hash of every name the table was built from; the caller checks it against a full name pass after a hit.
+//
+// Layout (little endian), each section a length-prefixed run of ints or longs:
+//   header      magic, version, item count, name fingerprint (long), names hash (long), lock list hash (long),
+//               payload CRC32
+//   families    item id -> family root, then family node -> root, then node names
+//   categories  per LockCategory (declaration order): the bitset words
+//   names       lockable item id, display name, normalized name; token ids are session-local so the names are
+//               re-tokenized on load
+@Slf4j
+final class LockTableCache {
+    private static final int MAGIC = 0x4E47504C; // "NGPL"
+    // Bumped whenever the meaning of the stored table changes, so older files read as misses
+    private static final int VERSION = 4;
+    private static final int HEADER_BYTES = 40;
+    private static final String FILE_NAME = "locktable.bin";
+
+    // A table read back from disk, plus the names of its lockable items
+    static final class Entry {
+        final LockTable table;
+        final int[] nameIds;
+        final String[] displayNames;
+        final String[] normalizedNames;
+        // ItemNameCache.namesHash of the names the table was built from
+        final long namesHash;
+
+        Entry(LockTable table, int[] nameIds, String[] displayNames, String[] normalizedNames, long namesHash) {
+            this.table = table;
+            this.nameIds = nameIds;
+            this.displayNames = displayNames;
+            this.normalizedNames = normalizedNames;
+            this.namesHash = namesHash;
+        }
+    }
+
+    private final Path dir;
+
+    LockTableCache(Path dir) {
+        this.dir = dir;
+    }
+
+    // The cached table if it was built for this name fingerprint, item count and lock lists; null otherwise
+    Entry load(long nameFingerprint, int itemCount, long listHash) {
+        Path file = dir.resolve(FILE_NAME);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() < HEADER_BYTES || ch.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+                return null;
+            }
+            if (buf.getInt() != itemCount || buf.getLong() != nameFingerprint) {
+                log.debug("NG+: lock table cache is for other item names");
+                return null;
+            }
+            long namesHash = buf.getLong();
+            if (buf.getLong() != listHash) {
+                log.debug("NG+: lock table cache is for other lock lists");
+                return null;
+            }
+            int crc = buf.getInt();
+            buf.position(HEADER_BYTES);
+            if (crc != crc(buf.slice())) {
+                log.warn("NG+: lock table cache is damaged, rebuilding");
+                return null;
+            }
+
+            int[] itemFamily = readInts(buf);
+            int[] nodeRoot = readInts(buf);
+            String[] nodeNames = new String[nodeRoot.length];
+            for (int i = 0; i < nodeNames.length; i++) {
+                nodeNames[i] = readString(buf);
+            }
+            Map<LockCategory, BitSet> categories = new EnumMap<>(LockCategory.class);
+            for (LockCategory c : LockCategory.values()) {
+                categories.put(c, BitSet.valueOf(readLongs(buf)));
+            }
+            int[] nameIds = readInts(buf);
+            String[] displayNames = new String[nameIds.length];
+            String[] normalizedNames = new String[nameIds.length];
+            for (int i = 0; i < nameIds.length; i++) {
+                displayNames[i] = readString(buf);
+                normalizedNames[i] = readString(buf);
+            }
+            if (itemFamily.length != itemCount) {
+                return null;
+            }
+            LockTable table = LockTable.restore(categories, ItemFamilyGraph.restore(itemFamily, nodeRoot, nodeNames));
+            return new Entry(table, nameIds, displayNames, normalizedNames, namesHash);
+        } catch (IOException | RuntimeException e) {
+            // Truncated or otherwise unreadable: treat as a miss
+            log.warn("NG+: failed reading lock table cache, rebuilding", e);
+            return null;
+        }
+    }
+
+    // Write the table atomically (temp file then rename); namesHash covers the names the table was built from, names
+    // returns the cached name entry for an item id
+    void save(long nameFingerprint, long namesHash, int itemCount, long listHash, LockTable table,
+              IntFunction<ItemNameCache.Entry> names) {
+        ItemFamilyGraph graph = table.getFamilyGraph();
+        BitSet lockable = new BitSet();
+        for (LockCategory c : LockCategory.values()) {
+            lockable.or(table.categoryItems(c));
+        }
+        int[] nameIds = new int[lockable.cardinality()];
+        byte[][] display = new byte[nameIds.length][];
+        byte[][] normalized = new byte[nameIds.length][];
+        int n = 0;
+        for (int id = lockable.nextSetBit(0); id >= 0; id = lockable.nextSetBit(id + 1)) {
+            ItemNameCache.Entry e = names.apply(id);
+            if (e == null) {
+                continue;
+            }
+            nameIds[n] = id;
+            display[n] = e.displayName.getBytes(StandardCharsets.UTF_8);
+            normalized[n] = e.normalizedName.getBytes(StandardCharsets.UTF_8);
+            n++;
+        }
+
+        int[] itemFamily = graph.itemFamilies();
+        int[] nodeRoot = graph.nodeRoots();
+        String[] nodeNameStrings = graph.nodeNames();
+        byte[][] nodeNames = new byte[nodeNameStrings.length][];
+        long size = HEADER_BYTES + 4 + 4L * itemFamily.length + 4 + 4L * nodeRoot.length + 4 + 4L * n;
+        for (int i = 0; i < nodeNames.length; i++) {
+            String name = nodeNameStrings[i] == null ? "" : nodeNameStrings[i];
+            nodeNames[i] = name.getBytes(StandardCharsets.UTF_8);
+            size += 4 + nodeNames[i].length;
+        }
+        long[][] words = new long[LockCategory.values().length][];
+        for (LockCategory c : LockCategory.values()) {
+            words[c.ordinal()] = table.categoryItems(c).toLongArray();
+            size += 4 + 8L * words[c.ordinal()].length;
+        }
+        for (int i = 0; i < n; i++) {
+            size += 8 + display[i].length + normalized[i].length;
+        }
+        if (size > Integer.MAX_VALUE) {
+            return;
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        buf.position(HEADER_BYTES);
+        writeInts(buf, itemFamily, itemFamily.length);
+        writeInts(buf, nodeRoot, nodeRoot.length);
+        for (byte[] name : nodeNames) {
+            writeBytes(buf, name);
+        }
+        for (long[] w : words) {
+            buf.putInt(w.length);
+            buf.asLongBuffer().put(w);
+            buf.position(buf.position() + 8 * w.length);
+        }
+        writeInts(buf, nameIds, n);
+        for (int i = 0; i < n; i++) {
+            writeBytes(buf, display[i]);
+            writeBytes(buf, normalized[i]);
+        }
+        buf.flip();
+        buf.position(HEADER_BYTES);
+        int crc = crc(buf.slice());
+        buf.position(0);
+        buf.putInt(MAGIC).putInt(VERSION).putInt(itemCount).putLong(nameFingerprint).putLong(namesHash)
+                .putLong(listHash).putInt(crc);
+        buf.position(0);
+
+        try {
+            Files.createDirectories(dir);
+            Path tmp = dir.resolve(FILE_NAME + ".tmp");
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buf.hasRemaining()) {
+                    ch.write(buf);
+                }
+            }
+            Files.move(tmp, dir.resolve(FILE_NAME), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            log.debug("NG+: saved lock table cache ({} bytes, {} items)", size, itemCount);
+        } catch (IOException e) {
+            log.warn("NG+: failed writing lock table cache", e);
+        }
+    }
+
+    private static int crc(ByteBuffer payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static int[] readInts(ByteBuffer buf) {
+        int[] out = new int[readLength(buf, 4)];
+        buf.asIntBuffer().get(out);
+        buf.position(buf.position() + 4 * out.length);
+        return out;
+    }
+
+    private static long[] readLongs(ByteBuffer buf) {
+        long[] out = new long[readLength(buf, 8)];
+        buf.asLongBuffer().get(out);
+        buf.position(buf.position() + 8 * out.length);
+        return out;
+    }
+
+    private static String readString(ByteBuffer buf) {
+        byte[] bytes = new byte[readLength(buf, 1)];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readLength(ByteBuffer buf, int elementBytes) {
+        int length = buf.getInt();
+        if (length < 0 || (long) length * elementBytes > buf.remaining()) {
+            throw new IllegalStateException("bad section length " + length);
+        }
+        return length;
+    }
+
+    private static void writeInts(ByteBuffer buf, int[] values, int count) {
+        buf.putInt(count);
+        buf.asIntBuffer().put(values, 0, count);
+        buf.position(buf.position() + 4 * count);
+    }
+
+    private static void writeBytes(ByteBuffer buf, byte[] bytes) {
+        buf.putInt(bytes.length);
+        buf.put(bytes);
+    }
+}
@@ -0,0 +1,76 @@
+package com.newgameplus;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+// Rough retained-size estimates for the plugin's lock state (64-bit JVM, compressed oops, compact strings),
+// reported in the debug output so memory can be watched on machines running several clients
+final class MemoryFootprint {
+    static final long OBJECT_HEADER = 12;
+    static final long ARRAY_HEADER = 16;
+    static final long REFERENCE = 4;
+
+    private final List<String> names = new ArrayList<>();
+    private final List<Long> bytes = new ArrayList<>();
+
+    MemoryFootprint add(String name, long size) {
+        names.add(name);
+        bytes.add(size);
+        return this;
+    }
+
+    long total() {
+        long total = 0;
+        for (long b : bytes) {
+            total += b;
+        }
+        return total;
+    }
+
+    // One "name=size" pair per structure plus the total
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("footprint ");
+        for (int i = 0; i < names.size(); i++) {
+            sb.append(names.get(i)).append('=').append(format(bytes.get(i))).append(", ");
+        }
+        return sb.append("total=").append(format(total())).toString();
+    }
+
+    static long of(int[] array) {
+        return array == null ? 0 : align(ARRAY_HEADER + 4L * array.length);
+    }
+
+    static long of(long[] array) {
+        return array == null ? 0 : align(ARRAY_HEADER + 8L * array.length);
+    }
+
+    static long of(BitSet bits) {
+        // BitSet object + its long[] words
+        return bits == null ? 0 : align(OBJECT_HEADER + REFERENCE + 8) + align(ARRAY_HEADER + bits.size() / 8);
+    }
+
+    static long of(String s) {
+        // String object + latin-1 byte[] value
+        return s == null ? 0 : align(OBJECT_HEADER + REFERENCE + 8) + align(ARRAY_HEADER + s.length());
+    }
+
+    static long referenceArray(int length) {
+        return align(ARRAY_HEADER + REFERENCE * length);
+    }
+
+    static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    static String format(long size) {
+        if (size < 1024) {
+            return size + " B";
+        }
+        if (size < 1024 * 1024) {
+            return String.format("%.1f KiB", size / 1024.0);
+        }
+        return String.format("%.2f MiB", size / (1024.0 * 1024.0));
+    }
+}
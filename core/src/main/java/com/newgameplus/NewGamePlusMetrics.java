@@ -0,0 +1,116 @@
+package com.newgameplus;
+
+import java.util.concurrent.TimeUnit;
+
+// Plugin metrics, written by the client thread and background workers and readable from any thread
+final class NewGamePlusMetrics {
+    enum PrecomputePhase {
+        IDLE,
+        // Reading the compiled table from the on-disk cache
+        LOADING,
+        // Resolving item names on the client thread in time-boxed slices
+        SNAPSHOT,
+        // Matching every item against the lock lists on the background pool
+        EVALUATING,
+        DONE,
+        FAILED
+    }
+
+    private volatile PrecomputePhase precomputePhase = PrecomputePhase.IDLE;
+    private volatile int precomputeItemCount;
+    private volatile int precomputeNamesResolved;
+    private volatile int precomputeSlices;
+    private volatile long precomputeStartNanos;
+    private volatile long snapshotNanos;
+    private volatile long evaluateNanos;
+    private volatile long precomputeTotalNanos;
+    private volatile boolean loadedFromCache;
+
+    void precomputeStarted(int itemCount) {
+        precomputeItemCount = itemCount;
+        precomputeNamesResolved = 0;
+        precomputeSlices = 0;
+        snapshotNanos = 0;
+        evaluateNanos = 0;
+        precomputeTotalNanos = 0;
+        precomputeStartNanos = System.nanoTime();
+        loadedFromCache = false;
+        precomputePhase = PrecomputePhase.LOADING;
+    }
+
+    void cacheHit() {
+        loadedFromCache = true;
+        precomputeNamesResolved = precomputeItemCount;
+    }
+
+    void cacheMissed() {
+        precomputePhase = PrecomputePhase.SNAPSHOT;
+    }
+
+    void snapshotSlice(int namesResolved) {
+        precomputeNamesResolved = namesResolved;
+        precomputeSlices++;
+    }
+
+    void snapshotFinished() {
+        snapshotNanos = System.nanoTime() - precomputeStartNanos;
+        precomputePhase = PrecomputePhase.EVALUATING;
+    }
+
+    void evaluationFinished() {
+        evaluateNanos = System.nanoTime() - precomputeStartNanos - snapshotNanos;
+    }
+
+    void precomputePublished() {
+        precomputeTotalNanos = System.nanoTime() - precomputeStartNanos;
+        precomputePhase = PrecomputePhase.DONE;
+    }
+
+    void precomputeFailed() {
+        precomputePhase = PrecomputePhase.FAILED;
+    }
+
+    PrecomputePhase getPrecomputePhase() {
+        return precomputePhase;
+    }
+
+    // 0..1; the name snapshot dominates the cost, so progress tracks it until the table is published
+    double getPrecomputeProgress() {
+        PrecomputePhase phase = precomputePhase;
+        if (phase == PrecomputePhase.DONE) {
+            return 1.0;
+        }
+        int total = precomputeItemCount;
+        return total <= 0 ? 0.0 : Math.min(1.0, (double) precomputeNamesResolved / total);
+    }
+
+    // Elapsed time of the current precompute, or its total once published
+    long getPrecomputeElapsedMillis() {
+        long start = precomputeStartNanos;
+        if (start == 0) {
+            return 0;
+        }
+        long total = precomputeTotalNanos;
+        return TimeUnit.NANOSECONDS.toMillis(total > 0 ? total : System.nanoTime() - start);
+    }
+
+    long getSnapshotMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(snapshotNanos);
+    }
+
+    long getEvaluateMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(evaluateNanos);
+    }
+
+    int getPrecomputeSlices() {
+        return precomputeSlices;
+    }
+
+    String summary() {
+        return String.format("precompute %s %.0f%% (%d items, %s, %d slices, snapshot %d ms, evaluate %d ms, "
+                        + "total %d ms)",
+                precomputePhase, getPrecomputeProgress() * 100.0, precomputeItemCount,
+                loadedFromCache ? "cached" : "built", precomputeSlices, getSnapshotMillis(), getEvaluateMillis(),
+                getPrecomputeElapsedMillis());
+    }
+}
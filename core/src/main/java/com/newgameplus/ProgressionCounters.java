@@ -0,0 +1,235 @@
+package com.newgameplus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Unlock progress per lock category and boss group. Totals are laid out once per lock table; after that every unlocked
+// or removed item id is an O(1) update driven by the unlock change stream. A family counts as unlocked once any of its
+// items is, matching UnlockState.isUnlocked, so progress is in families ("12/40 raids uniques"). Groups are counted
+// per category too, so both only count the lock lists that are enabled.
+final class ProgressionCounters implements UnlockChange.Listener {
+    static final class Progress {
+        final String name;
+        final int unlocked;
+        final int total;
+
+        Progress(String name, int unlocked, int total) {
+            this.name = name;
+            this.unlocked = unlocked;
+            this.total = total;
+        }
+    }
+
+    private static final int CATEGORIES = LockCategory.values().length;
+
+    // Everything derived from one lock table; immutable
+    private static final class Layout {
+        final ItemFamilyGraph graph;
+        // Family root -> LockCategory ordinal / group index (-1 if none, or not a non-empty family)
+        final int[] rootCategory;
+        final int[] rootGroup;
+        final String[] groupNames;
+        final Map<String, Integer> groupByKey;
+        final int[] categoryTotal;
+        // Families per group and category, at group * CATEGORIES + category
+        final int[] groupTotal;
+
+        Layout(ItemFamilyGraph graph, int[] rootCategory, int[] rootGroup, String[] groupNames,
+               Map<String, Integer> groupByKey, int[] categoryTotal, int[] groupTotal) {
+            this.graph = graph;
+            this.rootCategory = rootCategory;
+            this.rootGroup = rootGroup;
+            this.groupNames = groupNames;
+            this.groupByKey = groupByKey;
+            this.categoryTotal = categoryTotal;
+            this.groupTotal = groupTotal;
+        }
+    }
+
+    private static final Layout EMPTY = new Layout(ItemFamilyGraph.EMPTY, new int[0], new int[0], new String[0],
+            new HashMap<>(), new int[CATEGORIES], new int[0]);
+
+    private volatile Layout layout = EMPTY;
+
+    // Guarded by this
+    private final IntHashSet counted = new IntHashSet();
+    // Family root -> unlocked items in the family; the family counts as unlocked while this is above 0
+    private int[] familyUnlocked = new int[0];
+    private int[] categoryUnlocked = new int[CATEGORIES];
+    // Laid out like Layout.groupTotal
+    private int[] groupUnlocked = new int[0];
+
+    // Search key for a group name: lower case, words joined by '-' (e.g. "kalphite-queen")
+    static String groupKey(String group) {
+        return group.toLowerCase().replaceAll("[^a-z0-9]+", "-").replaceAll("^-|-$", "");
+    }
+
+    // Lay out the totals for a (re)built lock table and recount the current unlocks; families are indexed by node id
+    synchronized void rebuild(ItemFamilyGraph graph, List<LockFamily> families, int[] unlockedIds) {
+        int nodes = graph.nodeCount();
+        // Family root -> lockable items in the family (0 for non-roots and lines that matched nothing)
+        int[] familyTotal = new int[nodes];
+        int[] itemFamily = graph.itemFamilies();
+        for (int root : itemFamily) {
+            if (root != ItemFamilyGraph.NO_FAMILY) {
+                familyTotal[root]++;
+            }
+        }
+
+        // A family takes the category of its root line and the first group tagged on any of its lines
+        int[] rootCategory = new int[nodes];
+        int[] rootGroup = new int[nodes];
+        Arrays.fill(rootCategory, -1);
+        Arrays.fill(rootGroup, -1);
+        List<String> groupNames = new ArrayList<>();
+        Map<String, Integer> groupByKey = new HashMap<>();
+        for (int node = 0; node < nodes && node < families.size(); node++) {
+            int root = graph.rootOfNode(node);
+            if (node == root) {
+                rootCategory[root] = families.get(node).getCategory().ordinal();
+            }
+            String group = families.get(node).getGroup();
+            if (group == null || rootGroup[root] != -1) {
+                continue;
+            }
+            String key = groupKey(group);
+            Integer index = groupByKey.get(key);
+            if (index == null) {
+                index = groupNames.size();
+                groupNames.add(group);
+                groupByKey.put(key, index);
+            }
+            rootGroup[root] = index;
+        }
+
+        // Only families with lockable items count; a group is counted in its family's category
+        int[] categoryTotal = new int[CATEGORIES];
+        int[] groupTotal = new int[groupNames.size() * CATEGORIES];
+        for (int root = 0; root < nodes; root++) {
+            if (familyTotal[root] == 0 || rootCategory[root] < 0) {
+                rootCategory[root] = -1;
+                rootGroup[root] = -1;
+                continue;
+            }
+            categoryTotal[rootCategory[root]]++;
+            if (rootGroup[root] >= 0) {
+                groupTotal[rootGroup[root] * CATEGORIES + rootCategory[root]]++;
+            }
+        }
+
+        layout = new Layout(graph, rootCategory, rootGroup, groupNames.toArray(new String[0]), groupByKey,
+                categoryTotal, groupTotal);
+        resetCounts();
+        for (int id : unlockedIds) {
+            add(id);
+        }
+    }
+
+    @Override
+    public synchronized void onUnlockChange(UnlockChange change) {
+        if (change.isCleared()) {
+            resetCounts();
+        }
+        for (int id : change.getRemoved()) {
+            remove(id);
+        }
+        for (int id : change.getAdded()) {
+            add(id);
+        }
+    }
+
+    // True if the item belongs to a family tagged with the group whose key is given (see groupKey)
+    boolean inGroup(int itemId, String key) {
+        Layout l = layout;
+        Integer index = l.groupByKey.get(key);
+        if (index == null) {
+            return false;
+        }
+        int root = l.graph.familyOf(itemId);
+        return root != ItemFamilyGraph.NO_FAMILY && l.rootGroup[root] == index;
+    }
+
+    // Enabled, non-empty categories in declaration order
+    synchronized List<Progress> categories(Collection<LockCategory> enabled) {
+        Layout l = layout;
+        List<Progress> out = new ArrayList<>();
+        for (LockCategory c : LockCategory.values()) {
+            int total = l.categoryTotal[c.ordinal()];
+            if (total > 0 && enabled.contains(c)) {
+                out.add(new Progress(c.getDisplayName(), categoryUnlocked[c.ordinal()], total));
+            }
+        }
+        return out;
+    }
+
+    // Groups by name, counting only their families in enabled categories; groups left empty are omitted
+    synchronized List<Progress> groups(Collection<LockCategory> enabled) {
+        Layout l = layout;
+        List<Progress> out = new ArrayList<>();
+        for (int g = 0; g < l.groupNames.length; g++) {
+            int unlocked = 0;
+            int total = 0;
+            for (LockCategory c : enabled) {
+                unlocked += groupUnlocked[g * CATEGORIES + c.ordinal()];
+                total += l.groupTotal[g * CATEGORIES + c.ordinal()];
+            }
+            if (total > 0) {
+                out.add(new Progress(l.groupNames[g], unlocked, total));
+            }
+        }
+        out.sort(Comparator.comparing(p -> p.name.toLowerCase()));
+        return out;
+    }
+
+    long footprintBytes() {
+        Layout l = layout;
+        return counted.footprintBytes() + MemoryFootprint.of(familyUnlocked) + MemoryFootprint.of(l.rootCategory)
+                + MemoryFootprint.of(l.rootGroup) + MemoryFootprint.of(l.groupTotal);
+    }
+
+    private void resetCounts() {
+        Layout l = layout;
+        counted.clear();
+        familyUnlocked = new int[l.rootCategory.length];
+        categoryUnlocked = new int[l.categoryTotal.length];
+        groupUnlocked = new int[l.groupTotal.length];
+    }
+
+    private void add(int itemId) {
+        Layout l = layout;
+        int root = l.graph.familyOf(itemId);
+        if (root == ItemFamilyGraph.NO_FAMILY || !counted.add(itemId)) {
+            return;
+        }
+        if (familyUnlocked[root]++ == 0) {
+            bumpFamily(l, root, 1);
+        }
+    }
+
+    private void remove(int itemId) {
+        Layout l = layout;
+        int root = l.graph.familyOf(itemId);
+        if (root == ItemFamilyGraph.NO_FAMILY || !counted.remove(itemId)) {
+            return;
+        }
+        if (--familyUnlocked[root] == 0) {
+            bumpFamily(l, root, -1);
+        }
+    }
+
+    private void bumpFamily(Layout l, int root, int delta) {
+        int category = l.rootCategory[root];
+        if (category < 0) {
+            return;
+        }
+        categoryUnlocked[category] += delta;
+        if (l.rootGroup[root] >= 0) {
+            groupUnlocked[l.rootGroup[root] * CATEGORIES + category] += delta;
+        }
+    }
+}
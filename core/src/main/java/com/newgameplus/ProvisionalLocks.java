@@ -0,0 +1,171 @@
+package com.newgameplus;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+// Lock verdicts straight from item names, for the time before a lock table is published: building the table takes
+// a snapshot of every item name over many client frames first, and items must not read as unlocked meanwhile. Each
+// query resolves the item's name and runs the table build's matcher on it, so verdicts agree with the table once it
+// arrives. As in the table, an item matching several lines belongs to the most specific one and families are the
+// list lines joined by family links. Synchronized; only used for the first seconds after login, so nothing is cached
+// beyond the families of the unlocked items.
+final class ProvisionalLocks {
+    enum Verdict {
+        LOCKED,
+        NOT_LOCKED,
+        // The item's name could not be read on this thread
+        UNKNOWN
+    }
+
+    private static final int[] NO_MATCH = new int[0];
+
+    private final List<LockFamily> families;
+    private final LockMatcher matcher;
+    private final LockMatcher.Scratch scratch;
+    // Node graph only: no item has been matched into it
+    private final ItemFamilyGraph nodes;
+    // Listed item id -> families that list it
+    private final Map<Integer, int[]> listed = new HashMap<>();
+    private final IntFunction<ItemNameCache.Entry> names;
+
+    // Family roots with an unlocked member, for the unlock state version they were computed from
+    private boolean[] unlockedRoots;
+    private int unlockedVersion = -1;
+
+    // names returns the item's name, or null if it cannot be resolved on the calling thread
+    ProvisionalLocks(List<LockFamily> families, List<String[]> links, IntFunction<ItemNameCache.Entry> names) {
+        this.families = families;
+        this.names = names;
+        matcher = new LockMatcher(families);
+        scratch = matcher.newScratch();
+        ItemFamilyGraph.Builder graph = new ItemFamilyGraph.Builder(families, 0);
+        for (LockFamily f : families) {
+            for (int id : f.getItemIds()) {
+                if (!f.excludesId(id)) {
+                    listed.put(id, add(listed.get(id), f.getId()));
+                }
+            }
+        }
+        graph.link(links);
+        nodes = graph.build();
+    }
+
+    synchronized Verdict verdict(int itemId, Collection<LockCategory> enabled, UnlockState unlocks) {
+        int[] matched = match(itemId);
+        if (matched == null) {
+            return Verdict.UNKNOWN;
+        }
+        if (!inEnabled(matched, enabled)) {
+            return Verdict.NOT_LOCKED;
+        }
+        return isUnlocked(itemId, matched, unlocks) ? Verdict.NOT_LOCKED : Verdict.LOCKED;
+    }
+
+    // Locked by an enabled category; false if the name cannot be read
+    synchronized boolean isLockable(int itemId, Collection<LockCategory> enabled) {
+        int[] matched = match(itemId);
+        return matched != null && inEnabled(matched, enabled);
+    }
+
+    // First category (in declaration order) whose list locks the item, or null
+    synchronized LockCategory categoryOf(int itemId) {
+        int[] matched = match(itemId);
+        LockCategory first = null;
+        for (int f : matched != null ? matched : NO_MATCH) {
+            LockCategory c = families.get(f).getCategory();
+            if (first == null || c.ordinal() < first.ordinal()) {
+                first = c;
+            }
+        }
+        return first;
+    }
+
+    // Families that lock the item (empty if none), or null if its name cannot be read
+    private int[] match(int itemId) {
+        if (itemId <= 0) {
+            return NO_MATCH;
+        }
+        ItemNameCache.Entry name = names.apply(itemId);
+        if (name == null) {
+            return null;
+        }
+        int[] byId = listed.get(itemId);
+        int[] byName = matcher.match(itemId, name, scratch);
+        if (byId == null) {
+            return byName != null ? byName : NO_MATCH;
+        }
+        int[] out = byId;
+        for (int f : byName != null ? byName : NO_MATCH) {
+            out = add(out, f);
+        }
+        return out;
+    }
+
+    private boolean inEnabled(int[] matched, Collection<LockCategory> enabled) {
+        for (int f : matched) {
+            if (enabled.contains(families.get(f).getCategory())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isUnlocked(int itemId, int[] matched, UnlockState unlocks) {
+        if (unlocks.contains(itemId)) {
+            return true;
+        }
+        return unlockedRoots(unlocks)[nodes.rootOfNode(familyOf(matched))];
+    }
+
+    // The line the item belongs to among the lines that lock it (non-empty)
+    private int familyOf(int[] matched) {
+        int node = matched[0];
+        for (int f : matched) {
+            if (LockFamily.moreSpecific(families.get(f), families.get(node))) {
+                node = f;
+            }
+        }
+        return node;
+    }
+
+    // Kept until the unlocks change; not kept while some unlocked item's name could not be read
+    private boolean[] unlockedRoots(UnlockState unlocks) {
+        int version = unlocks.version();
+        if (unlockedRoots != null && unlockedVersion == version) {
+            return unlockedRoots;
+        }
+        boolean[] roots = new boolean[families.size()];
+        boolean complete = true;
+        for (int id : unlocks.itemIds()) {
+            int[] matched = match(id);
+            if (matched == null) {
+                complete = false;
+            } else if (matched.length > 0) {
+                roots[nodes.rootOfNode(familyOf(matched))] = true;
+            }
+        }
+        if (complete) {
+            unlockedRoots = roots;
+            unlockedVersion = version;
+        }
+        return roots;
+    }
+
+    private static int[] add(int[] ids, int id) {
+        if (ids == null) {
+            return new int[]{id};
+        }
+        for (int existing : ids) {
+            if (existing == id) {
+                return ids;
+            }
+        }
+        int[] out = Arrays.copyOf(ids, ids.length + 1);
+        out[ids.length] = id;
+        return out;
+    }
+}
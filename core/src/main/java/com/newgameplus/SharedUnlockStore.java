@@ -0,0 +1,339 @@
+package com.newgameplus;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// Unlock set shared by every client on this machine that joins the same group, so a group NG+ ruleset converges
+// without a network. Two files per group:
+//
+//   <group>.dat  memory-mapped, fixed layout: a 64 byte header followed by an unlock bitmap of CAPACITY bits
+//   <group>.log  append-only 16 byte records (writer, op, item id, check) describing each change
+//
+// Writers hold an exclusive lock on the log file while they update the bitmap, append records and bump the header
+// sequence; readers take a shared lock. Each client polls the mapped sequence (a single long read) and, when it moved,
+// applies only the log records written by other clients since its last offset. When the log grows past
+// MAX_LOG_BYTES a writer truncates it and bumps the log generation; readers that see a new generation resync once
+// from the bitmap instead.
+@Slf4j
+final class SharedUnlockStore implements Closeable {
+    // Item ids covered by the bitmap; comfortably above the current item count
+    static final int CAPACITY = 1 << 17;
+
+    private static final int MAGIC = 0x4E475031; // "NGP1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int OFF_MAGIC = 0;
+    private static final int OFF_VERSION = 4;
+    private static final int OFF_CAPACITY = 8;
+    private static final int OFF_GENERATION = 12;
+    private static final int OFF_SEQUENCE = 16;
+
+    private static final int RECORD_BYTES = 16;
+    private static final int OP_ADD = 1;
+    private static final int OP_REMOVE = 2;
+    private static final int OP_CLEAR = 3;
+    private static final int CHECK_SALT = 0x5F3759DF;
+    private static final long MAX_LOG_BYTES = 1 << 20;
+
+    // Changes written by other clients since the last poll
+    static final class Delta {
+        final IntHashSet added = new IntHashSet();
+        final IntHashSet removed = new IntHashSet();
+        boolean cleared;
+
+        boolean isEmpty() {
+            return !cleared && added.isEmpty() && removed.isEmpty();
+        }
+
+        private void add(int itemId) {
+            removed.remove(itemId);
+            added.add(itemId);
+        }
+
+        private void remove(int itemId) {
+            added.remove(itemId);
+            removed.add(itemId);
+        }
+
+        private void clear() {
+            added.clear();
+            removed.clear();
+            cleared = true;
+        }
+    }
+
+    private final String group;
+    private final FileChannel dataChannel;
+    private final FileChannel logChannel;
+    private final MappedByteBuffer data;
+    // Distinguishes our own records in the log; fresh per session
+    private final int writerId = ThreadLocalRandom.current().nextInt() | 1;
+
+    private long lastSequence = -1;
+    private int lastGeneration;
+    private long logOffset;
+
+    private SharedUnlockStore(String group, FileChannel dataChannel, FileChannel logChannel, MappedByteBuffer data) {
+        this.group = group;
+        this.dataChannel = dataChannel;
+        this.logChannel = logChannel;
+        this.data = data;
+    }
+
+    // Open (creating if needed) the store for a group under dir
+    static SharedUnlockStore open(Path dir, String group) throws IOException {
+        Files.createDirectories(dir);
+        FileChannel dataChannel = FileChannel.open(dir.resolve(group + ".dat"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel logChannel = null;
+        try {
+            logChannel = FileChannel.open(dir.resolve(group + ".log"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer data;
+            try (FileLock ignored = logChannel.lock()) {
+                data = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + CAPACITY / 8);
+                data.order(ByteOrder.LITTLE_ENDIAN);
+                if (data.getInt(OFF_MAGIC) != MAGIC) {
+                    // New (zero-filled) file
+                    data.putInt(OFF_MAGIC, MAGIC);
+                    data.putInt(OFF_VERSION, VERSION);
+                    data.putInt(OFF_CAPACITY, CAPACITY);
+                    data.putInt(OFF_GENERATION, 0);
+                    data.putLong(OFF_SEQUENCE, 0);
+                } else if (data.getInt(OFF_VERSION) != VERSION || data.getInt(OFF_CAPACITY) != CAPACITY) {
+                    throw new IOException("Unsupported shared unlock store layout in " + group + ".dat");
+                }
+            }
+            return new SharedUnlockStore(group, dataChannel, logChannel, data);
+        } catch (IOException | RuntimeException e) {
+            dataChannel.close();
+            if (logChannel != null) {
+                logChannel.close();
+            }
+            throw e;
+        }
+    }
+
+    String getGroup() {
+        return group;
+    }
+
+    // Join the group: add our unlocks to the shared bitmap, then return the full shared set as a delta against
+    // localIds and start following the log from its current end
+    synchronized Delta join(int[] localIds) throws IOException {
+        try (FileLock ignored = logChannel.lock()) {
+            IntHashSet added = new IntHashSet();
+            for (int id : localIds) {
+                if (setBit(id, true)) {
+                    added.add(id);
+                }
+            }
+            if (!added.isEmpty()) {
+                appendLocked(OP_ADD, added.toSortedArray());
+            }
+            lastGeneration = data.getInt(OFF_GENERATION);
+            lastSequence = data.getLong(OFF_SEQUENCE);
+            logOffset = logChannel.size();
+            return diffAgainstBitmap(localIds);
+        }
+    }
+
+    // Write a change made in this client
+    synchronized void write(UnlockChange change) throws IOException {
+        try (FileLock ignored = logChannel.lock()) {
+            if (change.isCleared()) {
+                for (int i = HEADER_BYTES; i < data.capacity(); i += 8) {
+                    data.putLong(i, 0L);
+                }
+                appendLocked(OP_CLEAR, new int[]{0});
+            }
+            int[] removed = change.getRemoved();
+            for (int id : removed) {
+                setBit(id, false);
+            }
+            appendLocked(OP_REMOVE, removed);
+            int[] added = change.getAdded();
+            for (int id : added) {
+                setBit(id, true);
+            }
+            appendLocked(OP_ADD, added);
+        }
+    }
+
+    // Changes from other clients since the last poll, or null if nothing changed. localIds is only read when the
+    // log was compacted and a resync from the bitmap is needed.
+    synchronized Delta poll(Supplier<int[]> localIds) throws IOException {
+        long sequence = data.getLong(OFF_SEQUENCE);
+        if (sequence == lastSequence) {
+            return null;
+        }
+        try (FileLock ignored = logChannel.lock(0, Long.MAX_VALUE, true)) {
+            sequence = data.getLong(OFF_SEQUENCE);
+            int generation = data.getInt(OFF_GENERATION);
+            Delta delta;
+            if (generation != lastGeneration || logChannel.size() < logOffset) {
+                delta = diffAgainstBitmap(localIds.get());
+                lastGeneration = generation;
+                logOffset = logChannel.size();
+            } else {
+                delta = readLog();
+            }
+            lastSequence = sequence;
+            return delta.isEmpty() ? null : delta;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            logChannel.close();
+        } catch (IOException ignored) {
+        }
+        try {
+            dataChannel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private Delta readLog() throws IOException {
+        Delta delta = new Delta();
+        long end = logChannel.size();
+        end -= (end - logOffset) % RECORD_BYTES;
+        if (end <= logOffset) {
+            return delta;
+        }
+        ByteBuffer buf = ByteBuffer.allocate((int) Math.min(end - logOffset, MAX_LOG_BYTES + RECORD_BYTES))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        while (logOffset < end) {
+            buf.clear();
+            buf.limit((int) Math.min(buf.capacity(), end - logOffset));
+            while (buf.hasRemaining()) {
+                if (logChannel.read(buf, logOffset + buf.position()) < 0) {
+                    break;
+                }
+            }
+            buf.flip();
+            while (buf.remaining() >= RECORD_BYTES) {
+                int writer = buf.getInt();
+                int op = buf.getInt();
+                int itemId = buf.getInt();
+                int check = buf.getInt();
+                logOffset += RECORD_BYTES;
+                if (check != (writer ^ op ^ itemId ^ CHECK_SALT)) {
+                    log.warn("NG+: skipping corrupt shared unlock record in {}.log", group);
+                    continue;
+                }
+                if (writer == writerId) {
+                    continue;
+                }
+                switch (op) {
+                    case OP_ADD:
+                        delta.add(itemId);
+                        break;
+                    case OP_REMOVE:
+                        delta.remove(itemId);
+                        break;
+                    case OP_CLEAR:
+                        delta.clear();
+                        break;
+                    default:
+                        break;
+                }
+            }
+            if (buf.position() == 0) {
+                break;
+            }
+        }
+        return delta;
+    }
+
+    // The bitmap as a delta against the given unlocks: ids to add and ids no longer shared
+    private Delta diffAgainstBitmap(int[] localIds) {
+        Delta delta = new Delta();
+        IntHashSet local = new IntHashSet(localIds.length);
+        for (int id : localIds) {
+            local.add(id);
+            if (id >= 0 && id < CAPACITY && !getBit(id)) {
+                delta.removed.add(id);
+            }
+        }
+        for (int word = 0; word < CAPACITY / 64; word++) {
+            long bits = data.getLong(HEADER_BYTES + word * 8);
+            while (bits != 0) {
+                int id = word * 64 + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (!local.contains(id)) {
+                    delta.added.add(id);
+                }
+            }
+        }
+        return delta;
+    }
+
+    // Append records for ids and bump the sequence; caller holds the exclusive lock
+    private void appendLocked(int op, int[] ids) throws IOException {
+        if (ids.length == 0) {
+            return;
+        }
+        if (logChannel.size() + (long) ids.length * RECORD_BYTES > MAX_LOG_BYTES) {
+            // Everything in the log is already reflected in the bitmap. Records other clients wrote since our last
+            // poll go with it, so unless we had read them all, keep our old generation: the next poll then resyncs
+            // from the bitmap like any other reader's.
+            boolean caughtUp = lastSequence == data.getLong(OFF_SEQUENCE) && logOffset == logChannel.size();
+            logChannel.truncate(0);
+            data.putInt(OFF_GENERATION, data.getInt(OFF_GENERATION) + 1);
+            if (caughtUp) {
+                lastGeneration = data.getInt(OFF_GENERATION);
+                logOffset = 0;
+            }
+        }
+        ByteBuffer buf = ByteBuffer.allocate(ids.length * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int id : ids) {
+            buf.putInt(writerId).putInt(op).putInt(id).putInt(writerId ^ op ^ id ^ CHECK_SALT);
+        }
+        buf.flip();
+        long position = logChannel.size();
+        while (buf.hasRemaining()) {
+            position += logChannel.write(buf, position);
+        }
+        long sequence = data.getLong(OFF_SEQUENCE) + 1;
+        data.putLong(OFF_SEQUENCE, sequence);
+        // Our own records need not be read back; skip them if nobody else wrote since our last poll
+        if (lastSequence == sequence - 1) {
+            lastSequence = sequence;
+            logOffset = position;
+        }
+    }
+
+    private boolean getBit(int id) {
+        int index = HEADER_BYTES + (id >>> 3);
+        return (data.get(index) & (1 << (id & 7))) != 0;
+    }
+
+    // Returns true if the bit changed
+    private boolean setBit(int id, boolean value) {
+        if (id < 0 || id >= CAPACITY) {
+            return false;
+        }
+        int index = HEADER_BYTES + (id >>> 3);
+        byte b = data.get(index);
+        byte updated = (byte) (value ? b | (1 << (id & 7)) : b & ~(1 << (id & 7)));
+        if (updated == b) {
+            return false;
+        }
+        data.put(index, updated);
+        return true;
+    }
+}
@@ -0,0 +1,44 @@
+package com.newgameplus;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Interns name tokens to small ints so item names and lock families can be compared without strings or regexes.
+// Safe to use from any thread.
+final class TokenDictionary {
+    private static final int[] NO_TOKENS = new int[0];
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    // Split a normalized name the same way lock families are split, and intern every token
+    int[] tokenize(String normalizedName) {
+        if (normalizedName == null || normalizedName.isEmpty()) {
+            return NO_TOKENS;
+        }
+        String[] parts = normalizedName.split("[^a-z0-9]+");
+        int[] out = new int[parts.length];
+        int n = 0;
+        for (String part : parts) {
+            if (part.isEmpty()) {
+                continue;
+            }
+            out[n++] = ids.computeIfAbsent(part, k -> nextId.getAndIncrement());
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    int size() {
+        return ids.size();
+    }
+
+    // Estimate: each mapping is a hash node, a token string and a boxed id, plus the table slot
+    long footprintBytes() {
+        long bytes = 0;
+        for (String token : ids.keySet()) {
+            bytes += MemoryFootprint.of(token) + 32 + 16 + MemoryFootprint.REFERENCE * 2;
+        }
+        return bytes;
+    }
+}
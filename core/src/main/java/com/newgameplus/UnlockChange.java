@@ -0,0 +1,80 @@
+package com.newgameplus;
+
+// One change to the unlocked item set: ids added, ids removed, or the whole set cleared.
+// Published after UnlockState has been updated, so listeners can read the in-memory state instead of the config.
+final class UnlockChange {
+    private static final int[] NONE = new int[0];
+
+    interface Listener {
+        // Called on the client thread, which makes every change
+        void onUnlockChange(UnlockChange change);
+    }
+
+    // Where a change came from, so sinks don't write a change back to its own source
+    enum Origin {
+        // Made by this client (loot, inventory, the panel)
+        LOCAL,
+        // Applied from an unlockedItemIds config change we didn't write
+        CONFIG,
+        // Applied from the shared group store (another client on this machine)
+        SHARED
+    }
+
+    private final int[] added;
+    private final int[] removed;
+    private final boolean cleared;
+    private final Origin origin;
+
+    private UnlockChange(int[] added, int[] removed, boolean cleared) {
+        this(added, removed, cleared, Origin.LOCAL);
+    }
+
+    private UnlockChange(int[] added, int[] removed, boolean cleared, Origin origin) {
+        this.added = added;
+        this.removed = removed;
+        this.cleared = cleared;
+        this.origin = origin;
+    }
+
+    // Same change tagged with a different origin
+    UnlockChange from(Origin origin) {
+        return new UnlockChange(added, removed, cleared, origin);
+    }
+
+    Origin getOrigin() {
+        return origin;
+    }
+
+    static UnlockChange added(int... ids) {
+        return new UnlockChange(ids, NONE, false);
+    }
+
+    static UnlockChange removed(int... ids) {
+        return new UnlockChange(NONE, ids, false);
+    }
+
+    static UnlockChange cleared() {
+        return new UnlockChange(NONE, NONE, true);
+    }
+
+    static UnlockChange of(int[] added, int[] removed) {
+        return new UnlockChange(added, removed, false);
+    }
+
+    int[] getAdded() {
+        return added;
+    }
+
+    int[] getRemoved() {
+        return removed;
+    }
+
+    // True if every unlock was removed; added/removed are empty in that case
+    boolean isCleared() {
+        return cleared;
+    }
+
+    boolean isEmpty() {
+        return !cleared && added.length == 0 && removed.length == 0;
+    }
+}
@@ -0,0 +1,37 @@
+package com.newgameplus;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Fan-out of unlock changes to interested components (the panel, and anything else tracking unlock deltas)
+@Slf4j
+final class UnlockChangeStream {
+    private final List<UnlockChange.Listener> listeners = new CopyOnWriteArrayList<>();
+
+    void subscribe(UnlockChange.Listener listener) {
+        listeners.add(listener);
+    }
+
+    void unsubscribe(UnlockChange.Listener listener) {
+        listeners.remove(listener);
+    }
+
+    void publish(UnlockChange change) {
+        if (change.isEmpty()) {
+            return;
+        }
+        for (UnlockChange.Listener listener : listeners) {
+            try {
+                listener.onUnlockChange(change);
+            } catch (Exception e) {
+                log.warn("Unlock change listener failed", e);
+            }
+        }
+    }
+
+    void clear() {
+        listeners.clear();
+    }
+}
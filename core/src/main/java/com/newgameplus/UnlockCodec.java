@@ -0,0 +1,245 @@
+package com.newgameplus;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+// The persisted form of the unlock set: item ids in ascending order, comma separated. Sorted so the same set always
+// serializes to the same string, which is how the plugin recognises the echo of its own config writes.
+//
+// The portable form ("unlock code") for sharing and backups is binary, big endian:
+//   magic "NGPU", version, encoding, lock list hash (8 bytes), id count (varint), ids, CRC-32 of everything before
+// Ids are either varint deltas (the first id, then the gap to each next id; about two bytes per id) or a bitmap
+// (first id and byte length as varints, then one bit per id from the first), whichever is smaller. Varints are
+// unsigned LEB128. As text it is TEXT_PREFIX followed by the bytes in base64.
+final class UnlockCodec {
+    static final String TEXT_PREFIX = "NGP:";
+
+    private static final int MAGIC = 0x4E475055; // "NGPU"
+    private static final int VERSION = 1;
+    private static final int DELTAS = 0;
+    private static final int BITMAP = 1;
+    // Bounds for decoding untrusted input; item ids are well below both
+    private static final int MAX_IDS = 1 << 20;
+    private static final int MAX_BITMAP_BYTES = 1 << 20;
+
+    // An unlock code read back: its ids and the lock list hash it was exported with
+    static final class Decoded {
+        final IntHashSet ids;
+        final long listHash;
+
+        Decoded(IntHashSet ids, long listHash) {
+            this.ids = ids;
+            this.listHash = listHash;
+        }
+    }
+
+    private UnlockCodec() {
+    }
+
+    static String encode(int[] sortedIds) {
+        StringBuilder sb = new StringBuilder(sortedIds.length * 6);
+        for (int id : sortedIds) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(id);
+        }
+        return sb.toString();
+    }
+
+    // Unparseable and non-positive ids are skipped
+    static IntHashSet decode(String csv) {
+        IntHashSet ids = new IntHashSet();
+        if (csv == null || csv.isEmpty()) {
+            return ids;
+        }
+        String[] parts = csv.split(",");
+        for (String p : parts) {
+            try {
+                int id = Integer.parseInt(p.trim());
+                if (id > 0) {
+                    ids.add(id);
+                }
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return ids;
+    }
+
+    static String normalize(String csv) {
+        return csv == null ? "" : csv;
+    }
+
+    static String exportText(int[] sortedIds, long listHash) {
+        return TEXT_PREFIX + Base64.getEncoder().encodeToString(export(sortedIds, listHash));
+    }
+
+    static byte[] export(int[] sortedIds, long listHash) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + sortedIds.length * 2);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            boolean bitmap = bitmapSize(sortedIds) < deltaSize(sortedIds);
+            out.writeByte(bitmap ? BITMAP : DELTAS);
+            out.writeLong(listHash);
+            writeVarint(out, sortedIds.length);
+            if (bitmap) {
+                int first = sortedIds[0];
+                byte[] bits = new byte[(sortedIds[sortedIds.length - 1] - first) / 8 + 1];
+                for (int id : sortedIds) {
+                    bits[(id - first) >>> 3] |= 1 << ((id - first) & 7);
+                }
+                writeVarint(out, first);
+                writeVarint(out, bits.length);
+                out.write(bits);
+            } else {
+                int previous = 0;
+                for (int id : sortedIds) {
+                    writeVarint(out, id - previous);
+                    previous = id;
+                }
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+        } catch (IOException e) {
+            // A ByteArrayOutputStream does not throw
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Decode a pasted unlock code; whitespace and line breaks in the base64 are ignored
+    static Decoded decodeText(String text) throws IOException {
+        String trimmed = text == null ? "" : text.trim();
+        if (!trimmed.startsWith(TEXT_PREFIX)) {
+            throw new IOException("not an unlock code (it should start with " + TEXT_PREFIX + ")");
+        }
+        byte[] ascii = trimmed.substring(TEXT_PREFIX.length()).getBytes(StandardCharsets.US_ASCII);
+        try {
+            return decode(Base64.getMimeDecoder().wrap(new ByteArrayInputStream(ascii)));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("the unlock code is damaged: " + e.getMessage());
+        }
+    }
+
+    // Read one unlock code from the stream, validating it as it goes. Throws IOException if it is truncated,
+    // corrupted (checksum) or from an unknown version.
+    static Decoded decode(InputStream in) throws IOException {
+        CRC32 crc = new CRC32();
+        DataInputStream data = new DataInputStream(new CheckedInputStream(new BufferedInputStream(in), crc));
+        try {
+            if (data.readInt() != MAGIC) {
+                throw new IOException("not an unlock code");
+            }
+            int version = data.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("unlock code version " + version + " is not supported");
+            }
+            int encoding = data.readUnsignedByte();
+            long listHash = data.readLong();
+            int count = readVarint(data);
+            if (count > MAX_IDS) {
+                throw new IOException("the unlock code is damaged");
+            }
+            IntHashSet ids = new IntHashSet(Math.min(count, 4096));
+            if (encoding == DELTAS) {
+                long id = 0;
+                for (int i = 0; i < count; i++) {
+                    int delta = readVarint(data);
+                    id += delta;
+                    if ((delta <= 0 && i > 0) || id <= 0 || id > Integer.MAX_VALUE) {
+                        throw new IOException("the unlock code is damaged");
+                    }
+                    ids.add((int) id);
+                }
+            } else if (encoding == BITMAP) {
+                int first = readVarint(data);
+                int length = readVarint(data);
+                if (first <= 0 || length > MAX_BITMAP_BYTES || (long) first + length * 8L > Integer.MAX_VALUE) {
+                    throw new IOException("the unlock code is damaged");
+                }
+                for (int i = 0; i < length; i++) {
+                    int bits = data.readUnsignedByte();
+                    for (int b = 0; bits != 0 && b < 8; b++, bits >>>= 1) {
+                        if ((bits & 1) != 0) {
+                            ids.add(first + i * 8 + b);
+                        }
+                    }
+                }
+                if (ids.size() != count) {
+                    throw new IOException("the unlock code is damaged");
+                }
+            } else {
+                throw new IOException("unlock code encoding " + encoding + " is not supported");
+            }
+            int expected = (int) crc.getValue();
+            if (data.readInt() != expected) {
+                throw new IOException("the unlock code is damaged (checksum mismatch)");
+            }
+            return new Decoded(ids, listHash);
+        } catch (EOFException e) {
+            throw new IOException("the unlock code is incomplete");
+        }
+    }
+
+    private static int deltaSize(int[] sortedIds) {
+        int size = 0;
+        int previous = 0;
+        for (int id : sortedIds) {
+            size += varintSize(id - previous);
+            previous = id;
+        }
+        return size;
+    }
+
+    private static int bitmapSize(int[] sortedIds) {
+        if (sortedIds.length == 0) {
+            return Integer.MAX_VALUE;
+        }
+        int first = sortedIds[0];
+        int length = (sortedIds[sortedIds.length - 1] - first) / 8 + 1;
+        return varintSize(first) + varintSize(length) + length;
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new IOException("the unlock code is damaged");
+    }
+}
@@ -0,0 +1,378 @@
+package com.newgameplus;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+// Append-only record of when and how each item was unlocked, under new-game-plus/history. Records have a fixed size,
+// so an append is a single write at the end of the file and loading is one pass over a mapped file into column
+// arrays; years of unlocks are a few hundred kilobytes. In memory, records are ordered by time (timestamps never go
+// backwards, see append), so time ranges are binary searches. Appended records are written by the next flush.
+//
+// Layout (little endian):
+//   header   magic, version (short), record size (short), history start (epoch millis)
+//   records  time (epoch millis), item id, NPC id (-1 if none), kill count (-1 if unknown), source ordinal,
+//            name length, name (UTF-8, truncated to NAME_BYTES)
+@Slf4j
+final class UnlockHistory {
+    enum Source {
+        // Dropped by an NPC
+        NPC_LOOT("npc"),
+        // Chest, raid or other reward
+        EVENT_LOOT("reward"),
+        // Appeared in the inventory (picked up, crafted, bought, ...)
+        INVENTORY("inventory"),
+        // Added in the panel
+        MANUAL("manual"),
+        // Imported from the collection log; the name is the collection log page
+        COLLECTION_LOG("collection log"),
+        // Merged from an unlock code
+        IMPORT("import");
+
+        private final String label;
+
+        Source(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    // One unlock; name is the NPC or reward name, or null
+    static final class Entry {
+        final long time;
+        final int itemId;
+        final Source source;
+        final String name;
+        final int npcId;
+        final int killCount;
+
+        Entry(long time, int itemId, Source source, String name, int npcId, int killCount) {
+            this.time = time;
+            this.itemId = itemId;
+            this.source = source;
+            this.name = name;
+            this.npcId = npcId;
+            this.killCount = killCount;
+        }
+    }
+
+    private static final int MAGIC = 0x4E475048; // "NGPH"
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_BYTES = 64;
+    private static final int NAME_OFFSET = 22;
+    private static final int NAME_BYTES = RECORD_BYTES - NAME_OFFSET;
+    private static final String FILE_NAME = "unlocks.bin";
+
+    private final Path file;
+
+    // Guarded by this; column arrays, size entries used
+    private long start;
+    private long[] times = new long[64];
+    private int[] itemIds = new int[64];
+    private int[] npcIds = new int[64];
+    private int[] killCounts = new int[64];
+    private byte[] sources = new byte[64];
+    private String[] names = new String[64];
+    private int size;
+    // The last this many records are not in the file yet
+    private int unwritten;
+    // NPC and reward names repeat a lot; one String per distinct name
+    private final Map<String, String> nameCache = new HashMap<>();
+
+    // Writer side; IO lane only
+    private FileChannel channel;
+
+    UnlockHistory(Path dir) {
+        this.file = dir.resolve(FILE_NAME);
+    }
+
+    // Read the whole history; a partial record at the end (a write cut short) is ignored. Unlocks appended before
+    // the load finished are kept after the loaded ones (their writes are queued behind the load). Returns the record
+    // count.
+    int load() {
+        List<Entry> loaded = new ArrayList<>();
+        long loadedStart = 0;
+        if (Files.isRegularFile(file)) {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (ch.size() >= HEADER_BYTES && ch.size() <= Integer.MAX_VALUE) {
+                    loadedStart = read(ch, loaded);
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("NG+: failed reading unlock history {}", file, e);
+            }
+        }
+        synchronized (this) {
+            List<Entry> pending = range(Long.MIN_VALUE, Long.MAX_VALUE);
+            clearColumns();
+            start = loadedStart != 0 ? loadedStart : pending.isEmpty() ? 0 : pending.get(0).time;
+            ensureCapacity(loaded.size() + pending.size());
+            for (Entry e : loaded) {
+                add(e.time, e.itemId, e.source, e.name, e.npcId, e.killCount);
+            }
+            for (Entry e : pending) {
+                add(Math.max(e.time, size > 0 ? times[size - 1] : e.time), e.itemId, e.source, e.name, e.npcId,
+                        e.killCount);
+            }
+            return size;
+        }
+    }
+
+    // Returns the history start from the header, or 0 if the file is not an unlock history
+    private long read(FileChannel ch, List<Entry> out) throws IOException {
+        MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        if (buf.getInt() != MAGIC || buf.getShort() != VERSION || buf.getShort() != RECORD_BYTES) {
+            log.warn("NG+: unlock history {} has an unknown format, not loading it", file);
+            return 0;
+        }
+        long historyStart = buf.getLong();
+        int count = (int) ((ch.size() - HEADER_BYTES) / RECORD_BYTES);
+        byte[] name = new byte[NAME_BYTES];
+        Source[] sourceValues = Source.values();
+        for (int i = 0; i < count; i++) {
+            buf.position(HEADER_BYTES + i * RECORD_BYTES);
+            long time = buf.getLong();
+            int itemId = buf.getInt();
+            int npcId = buf.getInt();
+            int killCount = buf.getInt();
+            int source = buf.get();
+            int nameLength = Math.min(buf.get() & 0xFF, NAME_BYTES);
+            buf.get(name, 0, nameLength);
+            // Padding after a cut-short write reads as an all-zero record
+            if (source < 0 || source >= sourceValues.length || itemId <= 0) {
+                continue;
+            }
+            out.add(new Entry(time, itemId, sourceValues[source],
+                    nameLength > 0 ? new String(name, 0, nameLength, StandardCharsets.UTF_8) : null, npcId,
+                    killCount));
+        }
+        return historyStart;
+    }
+
+    // Add an unlock in memory, to be written by the next flush(). O(1) amortized. The time is clamped so it never
+    // precedes the previous record (clock adjustments), which keeps the records sorted.
+    synchronized Entry append(long time, int itemId, Source source, String name, int npcId, int killCount) {
+        if (start == 0) {
+            start = time;
+        }
+        if (size > 0 && time < times[size - 1]) {
+            time = times[size - 1];
+        }
+        add(time, itemId, source, name, npcId, killCount);
+        unwritten++;
+        return entry(size - 1);
+    }
+
+    // Write every record appended since the last flush in one write; IO lane only. Records appended before load()
+    // finished are written after it, with their clamped times.
+    void flush() {
+        List<Entry> entries;
+        synchronized (this) {
+            entries = new ArrayList<>(unwritten);
+            for (int i = size - unwritten; i < size; i++) {
+                entries.add(entry(i));
+            }
+            unwritten = 0;
+        }
+        if (!entries.isEmpty()) {
+            write(entries);
+        }
+    }
+
+    // Append records to the file in one write, creating it with its header first
+    private void write(List<Entry> entries) {
+        try {
+            if (channel == null) {
+                Files.createDirectories(file.getParent());
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+                if (channel.size() == 0) {
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                    header.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_BYTES).putLong(getStart());
+                    header.flip();
+                    writeFully(header);
+                } else if ((channel.size() - HEADER_BYTES) % RECORD_BYTES != 0) {
+                    // A cut-short record would misalign everything after it; pad it out, load() skips it
+                    long pad = RECORD_BYTES - (channel.size() - HEADER_BYTES) % RECORD_BYTES;
+                    writeFully(ByteBuffer.allocate((int) pad));
+                }
+            }
+            ByteBuffer records = ByteBuffer.allocate(RECORD_BYTES * entries.size()).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < entries.size(); i++) {
+                Entry e = entries.get(i);
+                records.position(i * RECORD_BYTES);
+                records.putLong(e.time).putInt(e.itemId).putInt(e.npcId).putInt(e.killCount)
+                        .put((byte) e.source.ordinal());
+                byte[] name = e.name != null ? truncate(e.name) : new byte[0];
+                records.put((byte) name.length).put(name);
+            }
+            records.clear();
+            writeFully(records);
+        } catch (IOException ex) {
+            log.warn("NG+: failed writing unlock history {}", file, ex);
+        }
+    }
+
+    // IO lane only
+    void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+            channel = null;
+        }
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    // When the history began (its first record), or 0 if it is empty
+    synchronized long getStart() {
+        return start;
+    }
+
+    synchronized Entry get(int index) {
+        return entry(index);
+    }
+
+    // Index of the first record at or after time
+    synchronized int lowerBound(long time) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (times[mid] < time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Records with from <= time < to, oldest first
+    synchronized List<Entry> range(long from, long to) {
+        int end = lowerBound(to);
+        List<Entry> out = new ArrayList<>();
+        for (int i = lowerBound(from); i < end; i++) {
+            out.add(entry(i));
+        }
+        return out;
+    }
+
+    // The last count records, newest first
+    synchronized List<Entry> latest(int count) {
+        List<Entry> out = new ArrayList<>(Math.min(count, size));
+        for (int i = size - 1; i >= 0 && out.size() < count; i--) {
+            out.add(entry(i));
+        }
+        return out;
+    }
+
+    // Oldest first: time (ISO-8601 UTC), item id, item name, source, NPC or reward name, NPC id, kill count
+    void exportCsv(Writer out, IntFunction<String> itemNames) throws IOException {
+        List<Entry> entries = range(Long.MIN_VALUE, Long.MAX_VALUE);
+        out.write("time,item_id,item,source,from,npc_id,kill_count\n");
+        for (Entry e : entries) {
+            out.write(Instant.ofEpochMilli(e.time) + "," + e.itemId + "," + csv(itemNames.apply(e.itemId)) + ","
+                    + e.source + "," + csv(e.name) + "," + (e.npcId >= 0 ? e.npcId : "") + ","
+                    + (e.killCount >= 0 ? e.killCount : "") + "\n");
+        }
+    }
+
+    synchronized long footprintBytes() {
+        return MemoryFootprint.of(times) + MemoryFootprint.of(itemIds) + MemoryFootprint.of(npcIds)
+                + MemoryFootprint.of(killCounts) + MemoryFootprint.align(MemoryFootprint.ARRAY_HEADER + sources.length)
+                + MemoryFootprint.referenceArray(names.length);
+    }
+
+    private void add(long time, int itemId, Source source, String name, int npcId, int killCount) {
+        ensureCapacity(size + 1);
+        times[size] = time;
+        itemIds[size] = itemId;
+        npcIds[size] = npcId;
+        killCounts[size] = killCount;
+        sources[size] = (byte) source.ordinal();
+        names[size] = name != null ? nameCache.computeIfAbsent(name, n -> n) : null;
+        size++;
+    }
+
+    private Entry entry(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("record " + index + " of " + size);
+        }
+        return new Entry(times[index], itemIds[index], Source.values()[sources[index]], names[index], npcIds[index],
+                killCounts[index]);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= times.length) {
+            return;
+        }
+        int n = Math.max(capacity, times.length * 2);
+        times = Arrays.copyOf(times, n);
+        itemIds = Arrays.copyOf(itemIds, n);
+        npcIds = Arrays.copyOf(npcIds, n);
+        killCounts = Arrays.copyOf(killCounts, n);
+        sources = Arrays.copyOf(sources, n);
+        names = Arrays.copyOf(names, n);
+    }
+
+    private void clearColumns() {
+        Arrays.fill(names, 0, size, null);
+        size = 0;
+        nameCache.clear();
+    }
+
+    private void writeFully(ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+
+    // At most NAME_BYTES of UTF-8, cut on a character boundary
+    private static byte[] truncate(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= NAME_BYTES) {
+            return bytes;
+        }
+        int end = NAME_BYTES;
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) {
+            end--;
+        }
+        return Arrays.copyOf(bytes, end);
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
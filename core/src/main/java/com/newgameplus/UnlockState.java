@@ -0,0 +1,112 @@
+package com.newgameplus;
+
+// Unlocked item ids and the item families they unlock. Unlocking an item marks its family in the family graph;
+// marks are counts so removing one of several unlocked variants keeps the family unlocked. Ids are stored and looked
+// up by their canonical id, so a noted or placeholder form unlocks (and is unlocked with) its base item.
+// Not thread-safe: the owner (the plugin's client thread) makes every change and every read.
+final class UnlockState {
+    private final IntHashSet itemIds = new IntHashSet();
+    private ItemFamilyGraph graph = ItemFamilyGraph.EMPTY;
+    private CanonicalItemIds canonical = CanonicalItemIds.IDENTITY;
+    // Family root -> number of unlocked item ids in that family
+    private int[] familyUnlocks = new int[0];
+    // Bumped whenever the unlocked ids change, so views derived from them can tell they are stale
+    private int version;
+
+    // Swap in a (re)built family graph and recount the family marks from the unlocked ids
+    void setFamilyGraph(ItemFamilyGraph graph) {
+        this.graph = graph;
+        this.familyUnlocks = new int[graph.nodeCount()];
+        itemIds.forEach(id -> mark(id, 1));
+    }
+
+    // Swap in a new canonical id table and move unlocked variant ids onto their base ids. Returns true if the
+    // unlocked ids changed (the caller persists and publishes the difference).
+    boolean setCanonicalIds(CanonicalItemIds canonical) {
+        this.canonical = canonical;
+        int[] variants = itemIds.toSortedArray();
+        boolean changed = false;
+        for (int id : variants) {
+            int base = canonical.of(id);
+            if (base != id) {
+                itemIds.remove(id);
+                itemIds.add(base);
+                changed = true;
+            }
+        }
+        if (changed) {
+            version++;
+            familyUnlocks = new int[graph.nodeCount()];
+            itemIds.forEach(id -> mark(id, 1));
+        }
+        return changed;
+    }
+
+    boolean add(int itemId) {
+        itemId = canonical.of(itemId);
+        if (!itemIds.add(itemId)) {
+            return false;
+        }
+        version++;
+        mark(itemId, 1);
+        return true;
+    }
+
+    boolean remove(int itemId) {
+        itemId = canonical.of(itemId);
+        if (!itemIds.remove(itemId)) {
+            return false;
+        }
+        version++;
+        mark(itemId, -1);
+        return true;
+    }
+
+    void clear() {
+        version++;
+        itemIds.clear();
+        familyUnlocks = new int[graph.nodeCount()];
+    }
+
+    boolean contains(int itemId) {
+        return itemIds.contains(canonical.of(itemId));
+    }
+
+    boolean isEmpty() {
+        return itemIds.isEmpty();
+    }
+
+    int size() {
+        return itemIds.size();
+    }
+
+    int version() {
+        return version;
+    }
+
+    // True if the item itself or any member of its family has been unlocked
+    boolean isUnlocked(int itemId) {
+        itemId = canonical.of(itemId);
+        if (itemIds.contains(itemId)) {
+            return true;
+        }
+        int family = graph.familyOf(itemId);
+        return family != ItemFamilyGraph.NO_FAMILY && familyUnlocks[family] > 0;
+    }
+
+    // Unlocked ids in ascending order (a copy)
+    int[] itemIds() {
+        return itemIds.toSortedArray();
+    }
+
+    long footprintBytes() {
+        return itemIds.footprintBytes() + MemoryFootprint.of(familyUnlocks);
+    }
+
+    private void mark(int itemId, int delta) {
+        int family = graph.familyOf(itemId);
+        if (family != ItemFamilyGraph.NO_FAMILY) {
+            familyUnlocks[family] += delta;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.newgameplus;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// All background threads of the plugin, grouped into lanes with a fixed thread budget and a bounded number of
+// pending tasks each, so a burst of unlock side effects queues up (or is dropped and counted) instead of spawning
+// threads. Persistence goes through Flushers (or submitAndWait), which are never dropped. Delayed and periodic work
+// waits on a single timer thread that only hands tasks to their lane. The client thread counterpart is
+// ClientThreadScheduler.
+@Slf4j
+final class WorkerScheduler {
+    enum Lane {
+        // Disk writes and reads: audit flushes, the lock table cache, persistence. Queued work still runs on shutdown
+        // so nothing that was about to be written is lost.
+        IO("io", 1, 64, true),
+        // Parallel computation such as the lock table build; a ForkJoinPool, so tasks can fork into it
+        CPU("cpu", Math.max(1, Runtime.getRuntime().availableProcessors() - 1), 8, false),
+        // Unlock sounds and screenshot encoding; cheap to drop under a burst
+        MEDIA("media", 1, 8, false);
+
+        private final String name;
+        private final int threads;
+        // Tasks accepted but not yet finished (queued or running)
+        private final int capacity;
+        private final boolean drainOnShutdown;
+
+        Lane(String name, int threads, int capacity, boolean drainOnShutdown) {
+            this.name = name;
+            this.threads = threads;
+            this.capacity = capacity;
+            this.drainOnShutdown = drainOnShutdown;
+        }
+    }
+
+    private static final class LaneState {
+        final Lane lane;
+        final ExecutorService executor;
+        final AtomicInteger pending = new AtomicInteger();
+        final AtomicInteger maxPending = new AtomicInteger();
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+
+        LaneState(Lane lane, ExecutorService executor) {
+            this.lane = lane;
+            this.executor = executor;
+        }
+    }
+
+    // How often a flush that found its lane full tries again, and how long submitAndWait waits for room
+    private static final long FLUSH_RETRY_MILLIS = 200;
+    private static final long WAIT_LIMIT_MILLIS = 5000;
+
+    // A persistence task that is queued at most once at a time and is never dropped for a full lane: requests made
+    // while it is queued fold into that run, and a request that finds the lane full is retried from the timer. The
+    // task writes whatever has accumulated since its last run (one per file), so folding requests loses nothing.
+    final class Flusher {
+        private final Lane lane;
+        private final String name;
+        private final Runnable task;
+        private final AtomicBoolean queued = new AtomicBoolean();
+
+        private Flusher(Lane lane, String name, Runnable task) {
+            this.lane = lane;
+            this.name = name;
+            this.task = task;
+        }
+
+        // Have the task run soon; safe from any thread
+        void request() {
+            if (queued.compareAndSet(false, true)) {
+                enqueue(false);
+            }
+        }
+
+        private void enqueue(boolean retry) {
+            LaneState state = lanes.get(lane);
+            if (!shutdown && offer(state, name, () -> {
+                // Cleared before running, so a request made during the write queues another run
+                queued.set(false);
+                task.run();
+            })) {
+                return;
+            }
+            if (shutdown) {
+                queued.set(false);
+                state.rejected.incrementAndGet();
+                log.warn("NG+: {} lane shut down, dropped {}", lane.name, name);
+                return;
+            }
+            if (!retry) {
+                log.warn("NG+: {} lane full, retrying {}", lane.name, name);
+            }
+            try {
+                timer.schedule(() -> enqueue(true), FLUSH_RETRY_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                queued.set(false);
+            }
+        }
+    }
+
+    private final Map<Lane, LaneState> lanes = new EnumMap<>(Lane.class);
+    private final ScheduledThreadPoolExecutor timer;
+    private volatile boolean shutdown;
+
+    WorkerScheduler() {
+        for (Lane lane : Lane.values()) {
+            lanes.put(lane, new LaneState(lane, lane == Lane.CPU ? forkJoinPool(lane) : threadPool(lane)));
+        }
+        timer = new ScheduledThreadPoolExecutor(1, r -> daemon(r, "ngp-timer"));
+        // Cancelled delayed tasks are dropped from the queue right away rather than when they come due
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    // Run a task on a lane; safe from any thread. Returns false if the lane is full or shut down (counted as
+    // rejected) so the caller can skip the side effect. Persistence should use a Flusher or submitAndWait instead.
+    boolean submit(Lane lane, String name, Runnable task) {
+        LaneState state = lanes.get(lane);
+        if (shutdown || !offer(state, name, task)) {
+            state.rejected.incrementAndGet();
+            log.warn("NG+: {} lane rejected {}", lane.name, name);
+            return false;
+        }
+        return true;
+    }
+
+    // Like submit, but waits (up to a few seconds) for room on a full lane instead of rejecting the task. For writes
+    // that must not be lost, from a thread that may block: never the client thread or a worker.
+    boolean submitAndWait(Lane lane, String name, Runnable task) {
+        LaneState state = lanes.get(lane);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(WAIT_LIMIT_MILLIS);
+        while (!shutdown) {
+            if (offer(state, name, task)) {
+                return true;
+            }
+            if (System.nanoTime() > deadline) {
+                break;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        state.rejected.incrementAndGet();
+        log.warn("NG+: {} lane rejected {}", lane.name, name);
+        return false;
+    }
+
+    // A coalescing, retrying handle for a persistence task on a lane
+    Flusher flusher(Lane lane, String name, Runnable task) {
+        return new Flusher(lane, name, task);
+    }
+
+    // Run a task on a lane after a delay; the lane's bound applies when it comes due
+    void schedule(Lane lane, String name, Runnable task, long delay, TimeUnit unit) {
+        if (!shutdown) {
+            timer.schedule(() -> submit(lane, name, task), delay, unit);
+        }
+    }
+
+    // Run a task on a lane repeatedly until shutdown, period after each hand-off
+    void scheduleWithFixedDelay(Lane lane, String name, Runnable task, long period, TimeUnit unit) {
+        if (!shutdown) {
+            timer.scheduleWithFixedDelay(() -> submit(lane, name, task), period, period, unit);
+        }
+    }
+
+    // Request a flush repeatedly until shutdown
+    void scheduleWithFixedDelay(Flusher flusher, long period, TimeUnit unit) {
+        if (!shutdown) {
+            timer.scheduleWithFixedDelay(flusher::request, period, period, unit);
+        }
+    }
+
+    // The CPU lane's pool, for computations that split themselves across its threads
+    ForkJoinPool cpuPool() {
+        return (ForkJoinPool) lanes.get(Lane.CPU).executor;
+    }
+
+    // Cancel all timers and every lane's queued and running work, except IO, which finishes what it has queued.
+    // Does not wait for anything.
+    void shutdown() {
+        shutdown = true;
+        timer.shutdownNow();
+        for (LaneState state : lanes.values()) {
+            if (state.lane.drainOnShutdown) {
+                state.executor.shutdown();
+            } else {
+                state.executor.shutdownNow();
+            }
+        }
+    }
+
+    int pending(Lane lane) {
+        return lanes.get(lane).pending.get();
+    }
+
+    long rejected(Lane lane) {
+        return lanes.get(lane).rejected.get();
+    }
+
+    String summary() {
+        StringBuilder sb = new StringBuilder("workers");
+        for (LaneState state : lanes.values()) {
+            sb.append(String.format(" %s %d/%d pending (max %d), %d done, %d failed, %d rejected;",
+                    state.lane.name, state.pending.get(), state.lane.capacity, state.maxPending.get(),
+                    state.completed.get(), state.failed.get(), state.rejected.get()));
+        }
+        sb.setLength(sb.length() - 1);
+        return sb.toString();
+    }
+
+    // Hand a task to the lane if it has room; the caller counts and logs a rejection
+    private static boolean offer(LaneState state, String name, Runnable task) {
+        if (!admit(state)) {
+            return false;
+        }
+        try {
+            state.executor.execute(() -> run(state, name, task));
+            return true;
+        } catch (RejectedExecutionException e) {
+            state.pending.decrementAndGet();
+            return false;
+        }
+    }
+
+    private static boolean admit(LaneState state) {
+        while (true) {
+            int n = state.pending.get();
+            if (n >= state.lane.capacity) {
+                return false;
+            }
+            if (state.pending.compareAndSet(n, n + 1)) {
+                state.maxPending.accumulateAndGet(n + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    private static void run(LaneState state, String name, Runnable task) {
+        try {
+            task.run();
+            state.completed.incrementAndGet();
+        } catch (Exception e) {
+            state.failed.incrementAndGet();
+            log.warn("NG+: {} task {} failed", state.lane.name, name, e);
+        } finally {
+            state.pending.decrementAndGet();
+        }
+    }
+
+    // Queue sized to the lane's capacity; admission already keeps it from filling
+    private static ExecutorService threadPool(Lane lane) {
+        return new ThreadPoolExecutor(lane.threads, lane.threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(lane.capacity), r -> daemon(r, "ngp-" + lane.name));
+    }
+
+    private static ForkJoinPool forkJoinPool(Lane lane) {
+        return new ForkJoinPool(lane.threads, pool -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            t.setName("ngp-" + lane.name + "-" + t.getPoolIndex());
+            t.setDaemon(true);
+            return t;
+        }, null, false);
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+}
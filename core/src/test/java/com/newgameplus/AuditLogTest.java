@@ -0,0 +1,113 @@
+package com.newgameplus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AuditLogTest {
+    private static final class Record {
+        final AuditLog.Kind kind;
+        final int itemId;
+        final BlockedVerb verb;
+        final int familyRoot;
+
+        Record(AuditLog.Kind kind, int itemId, BlockedVerb verb, int familyRoot) {
+            this.kind = kind;
+            this.itemId = itemId;
+            this.verb = verb;
+            this.familyRoot = familyRoot;
+        }
+    }
+
+    private final List<Record> drained = new ArrayList<>();
+    private final AuditLog.Sink sink = (time, kind, itemId, verb, familyRoot) ->
+            drained.add(new Record(kind, itemId, verb, familyRoot));
+
+    @Test
+    public void drainsRecordsOldestFirst() {
+        AuditLog audit = new AuditLog();
+        long before = System.currentTimeMillis();
+        audit.record(AuditLog.Kind.BLOCKED_CLICK, 4151, BlockedVerb.WIELD, 12);
+        audit.record(AuditLog.Kind.HIDDEN, 11840, null, ItemFamilyGraph.NO_FAMILY);
+        long[] times = new long[1];
+        audit.drain((time, kind, itemId, verb, familyRoot) -> times[0] = Math.max(times[0], time), 1);
+
+        assertTrue(times[0] >= before);
+        assertEquals(1, audit.drain(sink, 10));
+        Record hidden = drained.get(0);
+        assertEquals(AuditLog.Kind.HIDDEN, hidden.kind);
+        assertEquals(11840, hidden.itemId);
+        assertNull(hidden.verb);
+        assertEquals(ItemFamilyGraph.NO_FAMILY, hidden.familyRoot);
+        assertEquals(1, audit.count(AuditLog.Kind.BLOCKED_CLICK));
+        assertEquals(2, audit.total());
+    }
+
+    @Test
+    public void fieldsSurvivePacking() {
+        AuditLog audit = new AuditLog();
+        audit.record(AuditLog.Kind.DEPRIORITIZED, 0xFFFFFF, BlockedVerb.WITHDRAW, 0xFFFFFE);
+        audit.drain(sink, 1);
+
+        Record r = drained.get(0);
+        assertEquals(AuditLog.Kind.DEPRIORITIZED, r.kind);
+        assertEquals(0xFFFFFF, r.itemId);
+        assertEquals(BlockedVerb.WITHDRAW, r.verb);
+        assertEquals(0xFFFFFE, r.familyRoot);
+    }
+
+    @Test
+    public void drainStopsAtMaxAndResumes() {
+        AuditLog audit = new AuditLog();
+        for (int i = 1; i <= 10; i++) {
+            audit.record(AuditLog.Kind.BLOCKED_CLICK, i, BlockedVerb.WEAR, 0);
+        }
+
+        assertEquals(4, audit.drain(sink, 4));
+        assertEquals(6, audit.drain(sink, 100));
+        assertEquals(0, audit.drain(sink, 100));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i + 1, drained.get(i).itemId);
+        }
+    }
+
+    @Test
+    public void lappedRecordsAreCountedAsDropped() {
+        AuditLog audit = new AuditLog();
+        int extra = 100;
+        for (int i = 1; i <= AuditLog.CAPACITY + extra; i++) {
+            audit.record(AuditLog.Kind.BLOCKED_CLICK, i, BlockedVerb.USE, 0);
+        }
+
+        assertEquals(AuditLog.CAPACITY, audit.drain(sink, Integer.MAX_VALUE));
+        assertEquals(extra, audit.dropped());
+        assertEquals(extra + 1, drained.get(0).itemId);
+        assertEquals(AuditLog.CAPACITY + extra, drained.get(drained.size() - 1).itemId);
+    }
+
+    @Test
+    public void concurrentProducersLoseNothingWithinCapacity() throws InterruptedException {
+        AuditLog audit = new AuditLog();
+        Thread[] producers = new Thread[4];
+        for (int t = 0; t < producers.length; t++) {
+            final int base = t * 1000;
+            producers[t] = new Thread(() -> {
+                for (int i = 1; i <= 500; i++) {
+                    audit.record(AuditLog.Kind.BLOCKED_CLICK, base + i, BlockedVerb.WEAR, 0);
+                }
+            });
+            producers[t].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertEquals(2000, audit.drain(sink, Integer.MAX_VALUE));
+        assertEquals(0, audit.dropped());
+    }
+}
@@ -0,0 +1,78 @@
+package com.newgameplus;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CanonicalItemIdsTest {
+    @Test
+    public void chainsResolveToTheirEnd() {
+        CanonicalItemIds.Builder builder = new CanonicalItemIds.Builder(32);
+        // placeholder -> charged -> uncharged
+        assertTrue(builder.link(30, 20));
+        assertTrue(builder.link(20, 10));
+        CanonicalItemIds ids = builder.build();
+
+        assertEquals(10, ids.of(30));
+        assertEquals(10, ids.of(20));
+        assertEquals(10, ids.of(10));
+        assertTrue(ids.isVariant(30));
+        assertFalse(ids.isVariant(10));
+        assertEquals(2, ids.variantCount());
+    }
+
+    @Test
+    public void firstLinkWins() {
+        CanonicalItemIds.Builder builder = new CanonicalItemIds.Builder(32);
+        assertTrue(builder.link(5, 1));
+        assertFalse(builder.link(5, 2));
+
+        assertEquals(1, builder.build().of(5));
+    }
+
+    @Test
+    public void cyclesKeepTheirIds() {
+        CanonicalItemIds.Builder builder = new CanonicalItemIds.Builder(32);
+        builder.link(1, 2);
+        builder.link(2, 3);
+        builder.link(3, 1);
+        builder.link(4, 1);
+        CanonicalItemIds ids = builder.build();
+
+        assertEquals(1, ids.of(1));
+        assertEquals(2, ids.of(2));
+        assertEquals(3, ids.of(3));
+        assertEquals(4, ids.of(4));
+        assertEquals(0, ids.variantCount());
+    }
+
+    @Test
+    public void chainsLongerThanTheLimitKeepTheirIds() {
+        CanonicalItemIds.Builder builder = new CanonicalItemIds.Builder(32);
+        for (int id = 1; id < 20; id++) {
+            builder.link(id + 1, id);
+        }
+        CanonicalItemIds ids = builder.build();
+
+        assertEquals(1, ids.of(9));
+        assertEquals(20, ids.of(20));
+    }
+
+    @Test
+    public void outOfRangeLinksAreRejected() {
+        CanonicalItemIds.Builder builder = new CanonicalItemIds.Builder(8);
+        assertFalse(builder.link(8, 1));
+        assertFalse(builder.link(1, 8));
+        assertFalse(builder.link(0, 1));
+        assertFalse(builder.link(1, -1));
+        assertFalse(builder.link(3, 3));
+        CanonicalItemIds ids = builder.build();
+
+        assertEquals(0, ids.variantCount());
+        assertEquals(100, ids.of(100));
+        assertEquals(-1, ids.of(-1));
+        assertEquals(100, CanonicalItemIds.IDENTITY.of(100));
+    }
+}
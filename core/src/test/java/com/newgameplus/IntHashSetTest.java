@@ -0,0 +1,86 @@
+package com.newgameplus;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IntHashSetTest {
+    @Test
+    public void growsPastItsInitialCapacity() {
+        IntHashSet set = new IntHashSet(2);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(set.add(i * 7));
+        }
+        assertEquals(1000, set.size());
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(set.contains(i * 7));
+            assertFalse(set.contains(i * 7 + 1));
+        }
+    }
+
+    @Test
+    public void removalKeepsProbeRunsReachable() {
+        IntHashSet set = new IntHashSet(64);
+        // Multiples of the capacity collide in one probe run
+        for (int i = 1; i <= 20; i++) {
+            set.add(i * 128);
+        }
+        for (int i = 1; i <= 20; i += 2) {
+            assertTrue(set.remove(i * 128));
+        }
+        for (int i = 1; i <= 20; i++) {
+            assertEquals(i % 2 == 0, set.contains(i * 128));
+        }
+        assertEquals(10, set.size());
+    }
+
+    @Test
+    public void matchesHashSetUnderRandomChurn() {
+        IntHashSet set = new IntHashSet();
+        Set<Integer> expected = new HashSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(2000) - 1000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), set.remove(key));
+            } else {
+                assertEquals(expected.add(key), set.add(key));
+            }
+        }
+        assertEquals(expected.size(), set.size());
+        int[] sorted = expected.stream().mapToInt(Integer::intValue).sorted().toArray();
+        assertArrayEquals(sorted, set.toSortedArray());
+        int[] sum = {0};
+        set.forEach(k -> sum[0] += k);
+        assertEquals(expected.stream().mapToInt(Integer::intValue).sum(), sum[0]);
+    }
+
+    @Test
+    public void clearEmptiesTheSet() {
+        IntHashSet set = new IntHashSet();
+        set.add(1);
+        set.add(2);
+        set.clear();
+
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(1));
+        assertTrue(set.add(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyMarkerCannotBeAdded() {
+        new IntHashSet().add(Integer.MIN_VALUE);
+    }
+
+    @Test
+    public void emptyMarkerIsNeverContained() {
+        assertFalse(new IntHashSet().contains(Integer.MIN_VALUE));
+    }
+}
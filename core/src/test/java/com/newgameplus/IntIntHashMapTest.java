@@ -0,0 +1,83 @@
+package com.newgameplus;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IntIntHashMapTest {
+    @Test
+    public void putGetAndAddTo() {
+        IntIntHashMap map = new IntIntHashMap();
+        map.put(3, 30);
+        assertEquals(30, map.get(3, -1));
+        assertEquals(-1, map.get(4, -1));
+        assertEquals(5, map.addTo(4, 5));
+        assertEquals(7, map.addTo(4, 2));
+        map.put(3, 31);
+        assertEquals(31, map.get(3, -1));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void valuesSurviveRehash() {
+        IntIntHashMap map = new IntIntHashMap(2);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i * 2);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i * 2, map.get(i, -1));
+        }
+    }
+
+    @Test
+    public void removalMovesValuesWithTheirKeys() {
+        IntIntHashMap map = new IntIntHashMap(64);
+        for (int i = 1; i <= 20; i++) {
+            map.put(i * 128, i);
+        }
+        for (int i = 1; i <= 20; i += 2) {
+            assertTrue(map.remove(i * 128));
+        }
+        assertFalse(map.remove(128));
+        for (int i = 1; i <= 20; i++) {
+            assertEquals(i % 2 == 0 ? i : -1, map.get(i * 128, -1));
+        }
+        assertEquals(10, map.size());
+    }
+
+    @Test
+    public void matchesHashMapUnderRandomChurn() {
+        IntIntHashMap map = new IntIntHashMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(2000);
+            int op = random.nextInt(3);
+            if (op == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            } else if (op == 1) {
+                expected.merge(key, 1, Integer::sum);
+                map.addTo(key, 1);
+            } else {
+                expected.put(key, i);
+                map.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        int[] seen = {0};
+        map.forEach((key, value) -> {
+            assertEquals(expected.get(key).intValue(), value);
+            seen[0]++;
+        });
+        assertEquals(expected.size(), seen[0]);
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(1));
+    }
+}
@@ -0,0 +1,91 @@
+package com.newgameplus;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ItemFamilyGraphTest {
+    private final TokenDictionary tokens = new TokenDictionary();
+    private final List<LockFamily> families = Arrays.asList(
+            family(0, "trident of the seas"),
+            family(1, "trident of the swamp"),
+            family(2, "uncharged trident"),
+            family(3, "abyssal whip"));
+
+    @Test
+    public void sharedItemKeepsTheMostSpecificNode() {
+        ItemFamilyGraph.Builder builder = new ItemFamilyGraph.Builder(families, 10);
+        builder.addMatch(1, 0);
+        builder.addMatch(2, 1);
+        builder.addMatch(3, 3);
+        builder.addMatch(3, 1);
+        builder.addMatch(4, 3);
+        builder.addMatch(5, 1);
+        builder.addMatch(5, 0);
+        ItemFamilyGraph graph = builder.build();
+
+        assertFalse(graph.sameFamily(1, 2));
+        assertTrue(graph.sameFamily(2, 3));
+        assertFalse(graph.sameFamily(3, 4));
+        // Equally specific: the earlier line
+        assertTrue(graph.sameFamily(1, 5));
+        assertEquals(Arrays.asList("trident of the swamp"), graph.familyMembers(graph.familyOf(2)));
+        assertEquals(Arrays.asList("abyssal whip"), graph.familyMembers(graph.familyOf(4)));
+    }
+
+    @Test
+    public void unionJoinsNodesWithoutSharedItems() {
+        ItemFamilyGraph.Builder builder = new ItemFamilyGraph.Builder(families, 10);
+        builder.addMatch(1, 0);
+        builder.addMatch(5, 2);
+        builder.union(2, 0);
+        ItemFamilyGraph graph = builder.build();
+
+        assertTrue(graph.sameFamily(1, 5));
+        assertEquals(2, graph.familyMembers(graph.familyOf(5)).size());
+        assertEquals(graph.familyName(graph.familyOf(1)), graph.familyName(graph.familyOf(5)));
+    }
+
+    @Test
+    public void unmatchedItemsHaveNoFamily() {
+        ItemFamilyGraph.Builder builder = new ItemFamilyGraph.Builder(families, 10);
+        builder.addMatch(1, 0);
+        ItemFamilyGraph graph = builder.build();
+
+        assertEquals(ItemFamilyGraph.NO_FAMILY, graph.familyOf(2));
+        assertEquals(ItemFamilyGraph.NO_FAMILY, graph.familyOf(-1));
+        assertEquals(ItemFamilyGraph.NO_FAMILY, graph.familyOf(10));
+        // Two items without a family are not in the same one
+        assertFalse(graph.sameFamily(2, 6));
+        assertFalse(graph.sameFamily(1, 2));
+        assertTrue(graph.familyMembers(ItemFamilyGraph.NO_FAMILY).isEmpty());
+        assertNull(graph.familyName(ItemFamilyGraph.NO_FAMILY));
+        assertEquals(4, graph.nodeCount());
+    }
+
+    @Test
+    public void restoredGraphAnswersTheSame() {
+        ItemFamilyGraph.Builder builder = new ItemFamilyGraph.Builder(families, 10);
+        builder.addMatch(1, 0);
+        builder.addMatch(2, 2);
+        builder.union(0, 2);
+        ItemFamilyGraph graph = builder.build();
+        ItemFamilyGraph restored = ItemFamilyGraph.restore(graph.itemFamilies(), graph.nodeRoots(),
+                graph.nodeNames());
+
+        assertTrue(restored.sameFamily(1, 2));
+        assertEquals(graph.familyMembers(graph.familyOf(1)), restored.familyMembers(restored.familyOf(1)));
+        assertTrue(ItemFamilyGraph.EMPTY.familyMembers(0).isEmpty());
+        assertFalse(ItemFamilyGraph.EMPTY.sameFamily(1, 1));
+    }
+
+    private LockFamily family(int id, String name) {
+        return new LockFamily(id, name, LockCategory.BOSSES, null, tokens);
+    }
+}
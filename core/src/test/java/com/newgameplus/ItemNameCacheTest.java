@@ -0,0 +1,65 @@
+package com.newgameplus;
+
+import org.junit.Test;
+
+import java.util.function.IntFunction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ItemNameCacheTest {
+    private static final int ITEM_COUNT = 30000;
+
+    private static final IntFunction<String> NAMES = id -> "Item " + id;
+
+    @Test
+    public void fingerprintIsStableForTheSameNames() {
+        assertEquals(ItemNameCache.fingerprint(230, ITEM_COUNT, NAMES),
+                ItemNameCache.fingerprint(230, ITEM_COUNT, id -> "Item " + id));
+    }
+
+    @Test
+    public void fingerprintFollowsRevisionCountAndNames() {
+        long fingerprint = ItemNameCache.fingerprint(230, ITEM_COUNT, NAMES);
+
+        assertNotEquals(fingerprint, ItemNameCache.fingerprint(231, ITEM_COUNT, NAMES));
+        assertNotEquals(fingerprint, ItemNameCache.fingerprint(230, ITEM_COUNT + 1, NAMES));
+        // The first and the newest item are always sampled
+        assertNotEquals(fingerprint, ItemNameCache.fingerprint(230, ITEM_COUNT, renamed(0)));
+        assertNotEquals(fingerprint, ItemNameCache.fingerprint(230, ITEM_COUNT, renamed(ITEM_COUNT - 1)));
+        assertNotEquals(fingerprint, ItemNameCache.fingerprint(230, ITEM_COUNT, id -> null));
+    }
+
+    @Test
+    public void fingerprintHandlesTinyItemCounts() {
+        assertNotEquals(ItemNameCache.fingerprint(230, 0, NAMES), ItemNameCache.fingerprint(230, 1, NAMES));
+        assertNotEquals(ItemNameCache.fingerprint(230, 2, NAMES), ItemNameCache.fingerprint(230, 2, renamed(1)));
+    }
+
+    @Test
+    public void newFingerprintDropsCachedNames() {
+        ItemNameCache names = new ItemNameCache(new TokenDictionary());
+        long fingerprint = ItemNameCache.fingerprint(230, 8, NAMES);
+
+        assertFalse(names.validate(fingerprint, 8));
+        names.put(4, "Item 4", "item 4");
+        assertFalse(names.validate(fingerprint, 16));
+        assertNotNull(names.get(4));
+        assertEquals(16, names.capacity());
+
+        // Same client revision and item count, other names
+        assertTrue(names.validate(ItemNameCache.fingerprint(230, 8, renamed(7)), 8));
+        assertNull(names.get(4));
+
+        names.clear();
+        assertFalse(names.validate(fingerprint, 8));
+    }
+
+    private static IntFunction<String> renamed(int itemId) {
+        return id -> id == itemId ? "Renamed" : NAMES.apply(id);
+    }
+}
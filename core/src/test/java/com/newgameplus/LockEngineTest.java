@@ -0,0 +1,156 @@
+package com.newgameplus;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LockEngineTest {
+    private static final int WHIP = 1;
+    private static final int WHIP_NOTED = 2;
+    private static final int SWORD = 3;
+    private static final int UNNAMED = 4;
+
+    private final TokenDictionary tokens = new TokenDictionary();
+    private final ItemNameCache names = new ItemNameCache(tokens);
+    private final List<LockFamily> families = new ArrayList<>();
+    private final UnlockState unlocks = new UnlockState();
+    private final LockEngine engine = new LockEngine(unlocks);
+    private final ForkJoinPool pool = new ForkJoinPool(1);
+
+    @After
+    public void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void locksByNameBeforeTheTableIsPublished() throws IOException {
+        setUp();
+
+        assertFalse(engine.isReady());
+        assertTrue(engine.isLocked(WHIP));
+        assertTrue(engine.wouldUnlock(WHIP));
+        assertFalse(engine.isLocked(SWORD));
+        assertEquals(LockCategory.BOSSES, engine.categoryOf(WHIP));
+
+        unlocks.add(WHIP);
+        assertFalse(engine.isLocked(WHIP));
+        assertTrue(engine.isLockable(WHIP));
+    }
+
+    @Test
+    public void unreadableItemsFailClosedButAreNotUnlocked() throws IOException {
+        setUp();
+
+        assertTrue(engine.isLocked(UNNAMED));
+        assertFalse(engine.wouldUnlock(UNNAMED));
+        assertFalse(engine.isLockable(UNNAMED));
+    }
+
+    @Test
+    public void publishedTableTakesOver() throws IOException {
+        setUp();
+        engine.publish(table(), EnumSet.of(LockCategory.BOSSES));
+
+        assertTrue(engine.isReady());
+        assertTrue(engine.isLocked(WHIP));
+        assertFalse(engine.isLocked(UNNAMED));
+        assertFalse(engine.wouldUnlock(UNNAMED));
+
+        engine.enable(Collections.emptyList());
+        assertFalse(engine.isLocked(WHIP));
+        assertEquals(LockCategory.BOSSES, engine.categoryOf(WHIP));
+    }
+
+    @Test
+    public void invalidatedTableFallsBackToNames() throws IOException {
+        setUp();
+        engine.publish(table(), EnumSet.of(LockCategory.BOSSES));
+        engine.invalidate();
+
+        assertFalse(engine.isReady());
+        assertTrue(engine.isLocked(UNNAMED));
+        assertTrue(engine.isLocked(WHIP));
+    }
+
+    @Test
+    public void variantsShareTheirBaseVerdict() throws IOException {
+        setUp();
+        engine.publish(table(), EnumSet.of(LockCategory.BOSSES));
+        CanonicalItemIds.Builder builder = new CanonicalItemIds.Builder(8);
+        builder.link(WHIP_NOTED, WHIP);
+        engine.setCanonicalIds(builder.build());
+
+        assertTrue(engine.isLocked(WHIP_NOTED));
+        unlocks.add(WHIP_NOTED);
+        assertFalse(engine.isLocked(WHIP));
+        assertEquals(WHIP, engine.canonicalId(WHIP_NOTED));
+    }
+
+    @Test
+    public void resetLocksNothing() throws IOException {
+        setUp();
+        engine.reset();
+
+        assertFalse(engine.isLocked(WHIP));
+        assertFalse(engine.isLocked(UNNAMED));
+        assertNull(engine.categoryOf(WHIP));
+    }
+
+    @Test
+    public void bundledListsKeepDistinctUniquesApart() {
+        LockLists lists = LockLists.load(tokens);
+        int[] shields = {12817, 12821, 12825, 12829, 12831};
+        String[] shieldNames = {"Elysian spirit shield", "Spectral spirit shield", "Arcane spirit shield",
+                "Spirit shield", "Blessed spirit shield"};
+        for (int i = 0; i < shields.length; i++) {
+            names.put(shields[i], shieldNames[i], LockLists.normalizeName(shieldNames[i]));
+        }
+        engine.setProvisional(new ProvisionalLocks(lists.families, lists.links, names::get));
+        engine.enable(EnumSet.of(LockCategory.BOSSES));
+        LockTable table = LockTable.build(lists.families, lists.links, 13000, names::get, pool);
+
+        ItemFamilyGraph graph = table.getFamilyGraph();
+        for (int i = 0; i < shields.length; i++) {
+            for (int j = i + 1; j < shields.length; j++) {
+                assertFalse(shieldNames[i] + " / " + shieldNames[j], graph.sameFamily(shields[i], shields[j]));
+            }
+        }
+
+        // Provisional verdicts and the published table agree
+        unlocks.add(12825);
+        for (int pass = 0; pass < 2; pass++) {
+            assertFalse(engine.isLocked(12825));
+            assertTrue(engine.isLocked(12817));
+            assertTrue(engine.isLocked(12821));
+            assertTrue(engine.isLocked(12829));
+            engine.publish(table, EnumSet.of(LockCategory.BOSSES));
+        }
+    }
+
+    private void setUp() throws IOException {
+        LockListParser.read(new BufferedReader(new StringReader("Abyssal whip")), "test", LockCategory.BOSSES,
+                tokens, LockLists::normalizeName, families);
+        names.put(WHIP, "Abyssal whip", "abyssal whip");
+        names.put(WHIP_NOTED, "Abyssal whip", "abyssal whip");
+        names.put(SWORD, "Bronze sword", "bronze sword");
+        engine.setProvisional(new ProvisionalLocks(families, Collections.emptyList(), names::get));
+        engine.enable(EnumSet.of(LockCategory.BOSSES));
+    }
+
+    private LockTable table() {
+        return LockTable.build(families, Collections.emptyList(), 8, names::get, pool);
+    }
+}
@@ -0,0 +1,141 @@
+package com.newgameplus;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LockListParserTest {
+    private final TokenDictionary tokens = new TokenDictionary();
+
+    @Test
+    public void plainListIsOneTokenFamilyPerLine() throws IOException {
+        List<LockFamily> families = parse(LockCategory.BOSSES,
+                "# comment",
+                "",
+                "Abyssal <col=ff0000>Whip</col>",
+                "Dragon boots");
+
+        assertEquals(2, families.size());
+        LockFamily whip = families.get(0);
+        assertEquals(0, whip.getId());
+        assertEquals("abyssal whip", whip.getName());
+        assertEquals(LockCategory.BOSSES, whip.getCategory());
+        assertEquals(LockFamily.MatchMode.TOKENS, whip.getMode());
+        assertTrue(whip.matches(tokens("frozen abyssal whip")));
+        assertTrue(whip.matches(tokens("abyssal tentacle whip")));
+        assertFalse(whip.matches(tokens("whip abyssal")));
+        assertEquals(1, families.get(1).getId());
+    }
+
+    @Test
+    public void pipesAreNamesInAPlainList() throws IOException {
+        List<LockFamily> families = parse(LockCategory.BOSSES, "Black boots | match=exact");
+
+        assertEquals(1, families.size());
+        assertEquals(LockFamily.MatchMode.TOKENS, families.get(0).getMode());
+    }
+
+    @Test
+    public void exactMatchAcceptsNameAliasesAndSuffixes() throws IOException {
+        List<LockFamily> families = parse(LockCategory.BOSSES,
+                "#!format 2",
+                "Black boots | match=exact",
+                "Abyssal whip | match=exact | alias=Frozen abyssal whip | suffix=(or)");
+
+        LockFamily boots = families.get(0);
+        assertEquals(LockFamily.MatchMode.EXACT, boots.getMode());
+        assertArrayEquals(new String[]{"black boots"}, boots.getExactNames());
+        assertEquals(0, boots.getAnchorTokenIds().length);
+
+        List<String> whip = Arrays.asList(families.get(1).getExactNames());
+        assertEquals(4, whip.size());
+        assertTrue(whip.contains("abyssal whip"));
+        assertTrue(whip.contains("abyssal whip (or)"));
+        assertTrue(whip.contains("frozen abyssal whip"));
+        assertTrue(whip.contains("frozen abyssal whip (or)"));
+    }
+
+    @Test
+    public void excludeTakesNamesAndIds() throws IOException {
+        List<LockFamily> families = parse(LockCategory.SLAYER,
+                "#!format 2",
+                "Dragon boots | exclude=ornament kit, 22951");
+
+        LockFamily boots = families.get(0);
+        assertEquals(LockCategory.SLAYER, boots.getCategory());
+        assertTrue(boots.matches(tokens("dragon boots (g)")));
+        assertFalse(boots.matches(tokens("dragon boots ornament kit")));
+        assertTrue(boots.excludesName(tokens("dragon boots ornament kit")));
+        assertTrue(boots.excludesId(22951));
+        assertFalse(boots.excludesId(11840));
+    }
+
+    @Test
+    public void idsAreSortedAndBadOnesSkipped() throws IOException {
+        List<LockFamily> families = parse(LockCategory.RAIDS,
+                "#!format 2",
+                "Twisted bow | ids=20997, 20000, x, -5 | match=ids");
+
+        LockFamily bow = families.get(0);
+        assertEquals(LockFamily.MatchMode.IDS, bow.getMode());
+        assertArrayEquals(new int[]{20000, 20997}, bow.getItemIds());
+        assertFalse(bow.matches(tokens("twisted bow")));
+    }
+
+    @Test
+    public void directivesSetModeAndGroupForFollowingLines() throws IOException {
+        List<LockFamily> families = parse(LockCategory.BOSSES,
+                "#!format 2",
+                "#!group Vorkath",
+                "#!match exact",
+                "Vorkath's head",
+                "Dragonbone necklace | match=tokens | group=Other",
+                "#!group",
+                "#!match tokens",
+                "Skeletal visage");
+
+        assertEquals(LockFamily.MatchMode.EXACT, families.get(0).getMode());
+        assertEquals("Vorkath", families.get(0).getGroup());
+        assertEquals(LockFamily.MatchMode.TOKENS, families.get(1).getMode());
+        assertEquals("Other", families.get(1).getGroup());
+        assertEquals(LockFamily.MatchMode.TOKENS, families.get(2).getMode());
+        assertNull(families.get(2).getGroup());
+    }
+
+    @Test
+    public void familyIdsContinueAcrossLists() throws IOException {
+        List<LockFamily> out = new ArrayList<>();
+        read(out, LockCategory.BOSSES, "Abyssal whip");
+        read(out, LockCategory.RAIDS, "#!format 2", "Twisted bow | match=exact");
+
+        assertEquals(2, out.size());
+        assertEquals(1, out.get(1).getId());
+        assertEquals(LockCategory.RAIDS, out.get(1).getCategory());
+    }
+
+    private List<LockFamily> parse(LockCategory category, String... lines) throws IOException {
+        List<LockFamily> out = new ArrayList<>();
+        read(out, category, lines);
+        return out;
+    }
+
+    private void read(List<LockFamily> out, LockCategory category, String... lines) throws IOException {
+        BufferedReader br = new BufferedReader(new StringReader(String.join("\n", lines)));
+        LockListParser.read(br, "test", category, tokens, LockLists::normalizeName, out);
+    }
+
+    private int[] tokens(String name) {
+        return tokens.tokenize(LockLists.normalizeName(name));
+    }
+}
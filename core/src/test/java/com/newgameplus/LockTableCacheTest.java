@@ -0,0 +1,138 @@
+package com.newgameplus;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class LockTableCacheTest {
+    private static final long FINGERPRINT = 0x1234_5678_9abcL;
+    private static final long NAMES_HASH = 0x5555_0000_1111L;
+    private static final int ITEM_COUNT = 8;
+    private static final long LIST_HASH = 99;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final TokenDictionary tokens = new TokenDictionary();
+    private final ItemNameCache names = new ItemNameCache(tokens);
+    private final ForkJoinPool pool = new ForkJoinPool(1);
+    private LockTable table;
+    private LockTableCache cache;
+
+    @Before
+    public void buildTable() throws IOException {
+        List<LockFamily> families = new ArrayList<>();
+        LockListParser.read(new BufferedReader(new StringReader("Abyssal whip\nAbyssal dagger")), "test",
+                LockCategory.BOSSES, tokens, LockLists::normalizeName, families);
+        LockListParser.read(new BufferedReader(new StringReader("#!format 2\nTwisted bow | ids=6 | match=ids")),
+                "test", LockCategory.RAIDS, tokens, LockLists::normalizeName, families);
+        names.put(1, "Abyssal whip", "abyssal whip");
+        names.put(2, "Abyssal dagger", "abyssal dagger");
+        names.put(3, "Abyssal whip dagger", "abyssal whip dagger");
+        names.put(4, "Bronze sword", "bronze sword");
+        names.put(6, "Twisted bow", "twisted bow");
+        table = LockTable.build(families, Collections.emptyList(), ITEM_COUNT, names::get, pool);
+        cache = new LockTableCache(folder.getRoot().toPath());
+    }
+
+    @After
+    public void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void savedTableLoadsBack() {
+        cache.save(FINGERPRINT, NAMES_HASH, ITEM_COUNT, LIST_HASH, table, names::get);
+        LockTableCache.Entry entry = cache.load(FINGERPRINT, ITEM_COUNT, LIST_HASH);
+
+        assertNotNull(entry);
+        assertEquals(NAMES_HASH, entry.namesHash);
+        for (LockCategory c : LockCategory.values()) {
+            assertEquals(table.categoryItems(c), entry.table.categoryItems(c));
+        }
+        ItemFamilyGraph graph = entry.table.getFamilyGraph();
+        assertArrayEquals(table.getFamilyGraph().itemFamilies(), graph.itemFamilies());
+        assertArrayEquals(table.getFamilyGraph().nodeRoots(), graph.nodeRoots());
+        assertArrayEquals(table.getFamilyGraph().nodeNames(), graph.nodeNames());
+        // Names of the lockable items only
+        assertArrayEquals(new int[]{1, 2, 3, 6}, entry.nameIds);
+        assertEquals("Abyssal whip dagger", entry.displayNames[2]);
+        assertEquals("twisted bow", entry.normalizedNames[3]);
+    }
+
+    @Test
+    public void otherKeysMiss() {
+        cache.save(FINGERPRINT, NAMES_HASH, ITEM_COUNT, LIST_HASH, table, names::get);
+
+        assertNull(cache.load(FINGERPRINT + 1, ITEM_COUNT, LIST_HASH));
+        assertNull(cache.load(FINGERPRINT, ITEM_COUNT + 1, LIST_HASH));
+        assertNull(cache.load(FINGERPRINT, ITEM_COUNT, LIST_HASH + 1));
+    }
+
+    @Test
+    public void renameOutsideTheFingerprintSampleFailsTheNamesHash() {
+        int itemCount = 30000;
+        IntFunction<String> before = id -> id == 7 ? "null" : "Item " + id;
+        // A pre-seeded placeholder gets its real name; the item count stays the same
+        IntFunction<String> after = id -> id == 7 ? "Item 7" : before.apply(id);
+        long fingerprint = ItemNameCache.fingerprint(230, itemCount, before);
+        LockTable empty = LockTable.build(Collections.emptyList(), Collections.emptyList(), itemCount, id -> null,
+                pool);
+        cache.save(fingerprint, ItemNameCache.namesHash(itemCount, before), itemCount, LIST_HASH, empty,
+                names::get);
+
+        // The sampled fingerprint still picks the file...
+        assertEquals(fingerprint, ItemNameCache.fingerprint(230, itemCount, after));
+        LockTableCache.Entry entry = cache.load(fingerprint, itemCount, LIST_HASH);
+        assertNotNull(entry);
+        // ...but the full name pass after the hit rejects it
+        assertEquals(ItemNameCache.namesHash(itemCount, before), entry.namesHash);
+        assertNotEquals(ItemNameCache.namesHash(itemCount, after), entry.namesHash);
+    }
+
+    @Test
+    public void missingFileMisses() {
+        assertNull(cache.load(FINGERPRINT, ITEM_COUNT, LIST_HASH));
+    }
+
+    @Test
+    public void damagedPayloadFailsTheChecksum() throws IOException {
+        cache.save(FINGERPRINT, NAMES_HASH, ITEM_COUNT, LIST_HASH, table, names::get);
+        Path file = folder.getRoot().toPath().resolve("locktable.bin");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 3] ^= 1;
+        Files.write(file, bytes);
+
+        assertNull(cache.load(FINGERPRINT, ITEM_COUNT, LIST_HASH));
+    }
+
+    @Test
+    public void truncatedFileMisses() throws IOException {
+        cache.save(FINGERPRINT, NAMES_HASH, ITEM_COUNT, LIST_HASH, table, names::get);
+        Path file = folder.getRoot().toPath().resolve("locktable.bin");
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertNull(cache.load(FINGERPRINT, ITEM_COUNT, LIST_HASH));
+    }
+}
@@ -0,0 +1,142 @@
+package com.newgameplus;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LockTableTest {
+    private final TokenDictionary tokens = new TokenDictionary();
+    private final ItemNameCache names = new ItemNameCache(tokens);
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+    private final List<LockFamily> families = new ArrayList<>();
+
+    @After
+    public void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void categoriesLockMatchingNamesAndListedIds() throws IOException {
+        list(LockCategory.BOSSES, "Abyssal whip", "#!format 2", "Black boots | match=exact");
+        list(LockCategory.RAIDS, "#!format 2", "Twisted bow | ids=7 | match=ids");
+        name(1, "Abyssal whip");
+        name(2, "Abyssal whip (or)");
+        name(3, "Black boots");
+        name(4, "Black boots (g)");
+        name(5, "Bronze sword");
+        name(6, "Twisted bow");
+
+        LockTable table = build(8, Collections.emptyList());
+
+        assertEquals(LockCategory.BOSSES, table.categoryOf(1));
+        assertEquals(LockCategory.BOSSES, table.categoryOf(2));
+        assertEquals(LockCategory.BOSSES, table.categoryOf(3));
+        assertNull(table.categoryOf(4));
+        assertNull(table.categoryOf(5));
+        assertNull(table.categoryOf(6));
+        assertEquals(LockCategory.RAIDS, table.categoryOf(7));
+        assertFalse(table.isLockable(-1));
+        assertEquals(3, table.count(LockCategory.BOSSES));
+        assertEquals(1, table.count(LockCategory.RAIDS));
+
+        assertTrue(table.lockedItems(EnumSet.of(LockCategory.RAIDS)).get(7));
+        assertFalse(table.lockedItems(EnumSet.of(LockCategory.RAIDS)).get(1));
+        assertEquals(4, table.lockedItems(EnumSet.allOf(LockCategory.class)).cardinality());
+        assertTrue(table.lockedItems(Collections.emptyList()).isEmpty());
+    }
+
+    @Test
+    public void itemMatchingSeveralLinesBelongsToTheMostSpecific() throws IOException {
+        list(LockCategory.BOSSES, "Spirit shield", "Arcane spirit shield", "Abyssal whip");
+        name(1, "Spirit shield");
+        name(2, "Arcane spirit shield");
+        name(3, "Blessed spirit shield");
+        name(4, "Abyssal whip");
+
+        LockTable table = build(5, Collections.emptyList());
+        ItemFamilyGraph graph = table.getFamilyGraph();
+
+        assertNotEquals(graph.familyOf(1), graph.familyOf(2));
+        assertEquals(graph.rootOfNode(1), graph.familyOf(2));
+        assertEquals(graph.familyOf(1), graph.familyOf(3));
+        assertNotEquals(graph.familyOf(1), graph.familyOf(4));
+        assertTrue(table.isLockable(2));
+        assertEquals(ItemFamilyGraph.NO_FAMILY, graph.familyOf(0));
+        assertEquals(3, graph.nodeCount());
+    }
+
+    @Test
+    public void familyLinksJoinFamiliesWithoutSharedTokens() throws IOException {
+        list(LockCategory.BOSSES, "Trident of the seas", "Uncharged trident", "Abyssal whip");
+        name(1, "Trident of the seas (full)");
+        name(2, "Uncharged trident");
+        name(3, "Abyssal whip");
+
+        List<String[]> links = Collections.singletonList(new String[]{"trident of the seas", "uncharged trident",
+                "no such line"});
+        ItemFamilyGraph graph = build(4, links).getFamilyGraph();
+
+        assertEquals(graph.familyOf(1), graph.familyOf(2));
+        assertNotEquals(graph.familyOf(1), graph.familyOf(3));
+        assertEquals(graph.familyOf(1), graph.rootOfNode(1));
+    }
+
+    @Test
+    public void excludedIdsAndNamesStayUnlocked() throws IOException {
+        list(LockCategory.SLAYER, "#!format 2", "Dragon boots | exclude=ornament kit, 2 | ids=2, 3");
+        name(1, "Dragon boots (g)");
+        name(2, "Dragon boots");
+        name(4, "Dragon boots ornament kit");
+
+        LockTable table = build(5, Collections.emptyList());
+
+        assertTrue(table.isLockable(1));
+        assertFalse(table.isLockable(2));
+        assertTrue(table.isLockable(3));
+        assertFalse(table.isLockable(4));
+    }
+
+    @Test
+    public void matchSkipsUnnamedItemsAndSpansChunks() throws IOException {
+        list(LockCategory.BOSSES, "Abyssal whip");
+        int itemCount = 5000;
+        name(10, "null");
+        name(4999, "Abyssal whip");
+        name(1500, "Abyssal whip");
+
+        int[][] matches = LockTable.match(families, itemCount, names::get, pool);
+
+        assertEquals(itemCount, matches.length);
+        assertNull(matches[10]);
+        assertTrue(Arrays.equals(new int[]{0}, matches[1500]));
+        assertTrue(Arrays.equals(new int[]{0}, matches[4999]));
+    }
+
+    private LockTable build(int itemCount, List<String[]> links) {
+        return LockTable.build(families, links, itemCount, names::get, pool);
+    }
+
+    private void list(LockCategory category, String... lines) throws IOException {
+        BufferedReader br = new BufferedReader(new StringReader(String.join("\n", lines)));
+        LockListParser.read(br, "test", category, tokens, LockLists::normalizeName, families);
+    }
+
+    private void name(int itemId, String name) {
+        names.put(itemId, name, LockLists.normalizeName(name));
+    }
+}
@@ -0,0 +1,92 @@
+package com.newgameplus;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ProgressionCountersTest {
+    private static final Set<LockCategory> ALL = EnumSet.allOf(LockCategory.class);
+
+    private final TokenDictionary tokens = new TokenDictionary();
+    private final ProgressionCounters progress = new ProgressionCounters();
+
+    // Bosses: whip (items 1, 2) and tentacle (3); raids: twisted bow (4) in the "Chambers" group, which also has a
+    // bosses line (5). The slayer line matched nothing.
+    @Before
+    public void layOut() {
+        List<LockFamily> families = Arrays.asList(
+                new LockFamily(0, "abyssal whip", LockCategory.BOSSES, null, tokens),
+                new LockFamily(1, "kraken tentacle", LockCategory.BOSSES, null, tokens),
+                new LockFamily(2, "twisted bow", LockCategory.RAIDS, "Chambers", tokens),
+                new LockFamily(3, "olmlet", LockCategory.BOSSES, "Chambers", tokens),
+                new LockFamily(4, "unmatched", LockCategory.SLAYER, null, tokens));
+        ItemFamilyGraph.Builder builder = new ItemFamilyGraph.Builder(families, 8);
+        builder.addMatch(1, 0);
+        builder.addMatch(2, 0);
+        builder.addMatch(3, 1);
+        builder.addMatch(4, 2);
+        builder.addMatch(5, 3);
+        progress.rebuild(builder.build(), families, new int[]{1});
+    }
+
+    @Test
+    public void familiesCountOnceWhicheverItemIsUnlocked() {
+        progress.onUnlockChange(UnlockChange.added(2, 3));
+
+        ProgressionCounters.Progress bosses = progress.categories(ALL).get(0);
+        assertEquals("Bosses", bosses.name);
+        assertEquals(2, bosses.unlocked);
+        assertEquals(3, bosses.total);
+
+        progress.onUnlockChange(UnlockChange.removed(1));
+        assertEquals(2, progress.categories(ALL).get(0).unlocked);
+        progress.onUnlockChange(UnlockChange.removed(2));
+        assertEquals(1, progress.categories(ALL).get(0).unlocked);
+        progress.onUnlockChange(UnlockChange.cleared());
+        assertEquals(0, progress.categories(ALL).get(0).unlocked);
+    }
+
+    @Test
+    public void emptyCategoriesAreOmitted() {
+        List<ProgressionCounters.Progress> categories = progress.categories(ALL);
+
+        assertEquals(2, categories.size());
+        assertEquals("Raids", categories.get(1).name);
+        assertEquals(1, categories.get(1).total);
+    }
+
+    @Test
+    public void disabledCategoriesAreLeftOut() {
+        progress.onUnlockChange(UnlockChange.added(4));
+
+        List<ProgressionCounters.Progress> categories = progress.categories(EnumSet.of(LockCategory.RAIDS));
+        assertEquals(1, categories.size());
+        assertEquals("Raids", categories.get(0).name);
+
+        ProgressionCounters.Progress chambers = progress.groups(ALL).get(0);
+        assertEquals(1, chambers.unlocked);
+        assertEquals(2, chambers.total);
+        chambers = progress.groups(EnumSet.of(LockCategory.BOSSES)).get(0);
+        assertEquals(0, chambers.unlocked);
+        assertEquals(1, chambers.total);
+        assertTrue(progress.groups(EnumSet.of(LockCategory.SLAYER)).isEmpty());
+    }
+
+    @Test
+    public void groupMembershipFollowsTheFamily() {
+        String key = ProgressionCounters.groupKey("Chambers");
+
+        assertTrue(progress.inGroup(4, key));
+        assertTrue(progress.inGroup(5, key));
+        assertFalse(progress.inGroup(1, key));
+        assertFalse(progress.inGroup(4, "tombs"));
+    }
+}
@@ -0,0 +1,128 @@
+package com.newgameplus;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ProvisionalLocksTest {
+    private static final Set<LockCategory> ALL = EnumSet.allOf(LockCategory.class);
+
+    private final TokenDictionary tokens = new TokenDictionary();
+    private final ItemNameCache names = new ItemNameCache(tokens);
+    private final List<LockFamily> families = new ArrayList<>();
+    private final List<String[]> links = new ArrayList<>();
+    private final UnlockState unlocks = new UnlockState();
+
+    @Test
+    public void namesAndListedIdsAreLocked() throws IOException {
+        list(LockCategory.BOSSES, "Abyssal whip");
+        list(LockCategory.RAIDS, "#!format 2", "Twisted bow | ids=20997 | match=ids");
+        name(4151, "Abyssal whip");
+        name(1277, "Bronze sword");
+        name(20997, "Twisted bow");
+        ProvisionalLocks locks = locks();
+
+        assertEquals(ProvisionalLocks.Verdict.LOCKED, locks.verdict(4151, ALL, unlocks));
+        assertEquals(ProvisionalLocks.Verdict.NOT_LOCKED, locks.verdict(1277, ALL, unlocks));
+        assertEquals(ProvisionalLocks.Verdict.LOCKED, locks.verdict(20997, ALL, unlocks));
+        assertEquals(LockCategory.RAIDS, locks.categoryOf(20997));
+        assertNull(locks.categoryOf(1277));
+        assertEquals(ProvisionalLocks.Verdict.NOT_LOCKED,
+                locks.verdict(4151, EnumSet.of(LockCategory.RAIDS), unlocks));
+        assertFalse(locks.isLockable(4151, EnumSet.of(LockCategory.SLAYER)));
+        assertTrue(locks.isLockable(4151, ALL));
+    }
+
+    @Test
+    public void unreadableNamesAreUnknown() throws IOException {
+        list(LockCategory.BOSSES, "Abyssal whip");
+        ProvisionalLocks locks = locks();
+
+        assertEquals(ProvisionalLocks.Verdict.UNKNOWN, locks.verdict(4151, ALL, unlocks));
+        assertFalse(locks.isLockable(4151, ALL));
+        assertNull(locks.categoryOf(4151));
+        assertEquals(ProvisionalLocks.Verdict.NOT_LOCKED, locks.verdict(0, ALL, unlocks));
+    }
+
+    @Test
+    public void unlockedItemUnlocksItsLinkedFamily() throws IOException {
+        list(LockCategory.BOSSES, "Trident of the seas", "Uncharged trident", "Abyssal whip");
+        links.add(new String[]{"trident of the seas", "uncharged trident"});
+        name(11905, "Trident of the seas (full)");
+        name(11908, "Uncharged trident");
+        name(11907, "Trident of the seas");
+        name(4151, "Abyssal whip");
+        ProvisionalLocks locks = locks();
+
+        unlocks.add(11908);
+        assertEquals(ProvisionalLocks.Verdict.NOT_LOCKED, locks.verdict(11905, ALL, unlocks));
+        assertEquals(ProvisionalLocks.Verdict.NOT_LOCKED, locks.verdict(11907, ALL, unlocks));
+        assertEquals(ProvisionalLocks.Verdict.LOCKED, locks.verdict(4151, ALL, unlocks));
+
+        // The unlocked families follow the unlock state
+        unlocks.remove(11908);
+        assertEquals(ProvisionalLocks.Verdict.LOCKED, locks.verdict(11905, ALL, unlocks));
+        unlocks.add(4151);
+        assertEquals(ProvisionalLocks.Verdict.NOT_LOCKED, locks.verdict(4151, ALL, unlocks));
+    }
+
+    @Test
+    public void idListedOnTwoLinesBelongsToTheMostSpecific() throws IOException {
+        list(LockCategory.BOSSES, "#!format 2", "Dragon hunter lance | ids=22978", "Hydra leather | ids=22978, 22983");
+        name(22978, "Dragon hunter lance");
+        name(22983, "Hydra leather");
+        name(22966, "Dragon hunter lance (broken)");
+        ProvisionalLocks locks = locks();
+
+        unlocks.add(22983);
+        assertEquals(ProvisionalLocks.Verdict.LOCKED, locks.verdict(22966, ALL, unlocks));
+        assertEquals(ProvisionalLocks.Verdict.LOCKED, locks.verdict(22978, ALL, unlocks));
+        unlocks.add(22978);
+        assertEquals(ProvisionalLocks.Verdict.NOT_LOCKED, locks.verdict(22966, ALL, unlocks));
+    }
+
+    @Test
+    public void verdictsMatchTheBuiltTable() throws IOException {
+        list(LockCategory.BOSSES, "Abyssal whip", "#!format 2", "Black boots | match=exact | suffix=(g)");
+        list(LockCategory.SLAYER, "#!format 2", "Dragon boots | exclude=ornament kit, 3");
+        String[] itemNames = {"", "Abyssal whip", "Black boots (g)", "Dragon boots", "Dragon boots ornament kit",
+                "Black boots (t)", "Frozen abyssal whip", "null"};
+        for (int id = 1; id < itemNames.length; id++) {
+            name(id, itemNames[id]);
+        }
+        ProvisionalLocks locks = locks();
+        ForkJoinPool pool = new ForkJoinPool(1);
+        LockTable table = LockTable.build(families, links, itemNames.length, names::get, pool);
+        pool.shutdown();
+
+        for (int id = 1; id < itemNames.length; id++) {
+            assertEquals(itemNames[id], table.isLockable(id), locks.isLockable(id, ALL));
+            assertEquals(itemNames[id], table.categoryOf(id), locks.categoryOf(id));
+        }
+    }
+
+    private ProvisionalLocks locks() {
+        return new ProvisionalLocks(families, links, names::get);
+    }
+
+    private void list(LockCategory category, String... lines) throws IOException {
+        BufferedReader br = new BufferedReader(new StringReader(String.join("\n", lines)));
+        LockListParser.read(br, "test", category, tokens, LockLists::normalizeName, families);
+    }
+
+    private void name(int itemId, String name) {
+        names.put(itemId, name, LockLists.normalizeName(name));
+    }
+}
@@ -0,0 +1,112 @@
+package com.newgameplus;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SharedUnlockStoreTest {
+    private static final int[] NONE = new int[0];
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private SharedUnlockStore first;
+    private SharedUnlockStore second;
+
+    @Before
+    public void open() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        first = SharedUnlockStore.open(dir, "group");
+        second = SharedUnlockStore.open(dir, "group");
+    }
+
+    @After
+    public void close() {
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void joinMergesBothSets() throws IOException {
+        assertTrue(first.join(new int[]{4151}).isEmpty());
+        SharedUnlockStore.Delta delta = second.join(new int[]{11802});
+        assertArrayEquals(new int[]{4151}, delta.added.toSortedArray());
+
+        delta = first.poll(() -> new int[]{4151});
+        assertNotNull(delta);
+        assertArrayEquals(new int[]{11802}, delta.added.toSortedArray());
+    }
+
+    @Test
+    public void pollSeesOtherClientsChangesOnly() throws IOException {
+        first.join(NONE);
+        second.join(NONE);
+
+        second.write(UnlockChange.added(4151, 11802));
+        first.write(UnlockChange.added(1277));
+        SharedUnlockStore.Delta delta = second.poll(() -> new int[]{4151, 11802});
+        assertArrayEquals(new int[]{1277}, delta.added.toSortedArray());
+
+        delta = first.poll(() -> new int[]{1277});
+        assertNotNull(delta);
+        assertArrayEquals(new int[]{4151, 11802}, delta.added.toSortedArray());
+        assertNull(first.poll(() -> new int[]{1277, 4151, 11802}));
+
+        second.write(UnlockChange.removed(4151));
+        delta = first.poll(() -> new int[]{1277, 4151, 11802});
+        assertArrayEquals(new int[]{4151}, delta.removed.toSortedArray());
+
+        second.write(UnlockChange.cleared());
+        delta = first.poll(() -> new int[]{1277, 11802});
+        assertTrue(delta.cleared);
+    }
+
+    @Test
+    public void compactionKeepsUnpolledRecords() throws IOException {
+        first.join(NONE);
+        second.join(NONE);
+        second.write(UnlockChange.added(4151));
+
+        // Enough records to push the log past its limit, written before the first client polled
+        int[] bulk = new int[70000];
+        for (int i = 0; i < bulk.length; i++) {
+            bulk[i] = 20000 + i;
+        }
+        first.write(UnlockChange.added(bulk));
+
+        int[] local = bulk.clone();
+        SharedUnlockStore.Delta delta = first.poll(() -> local);
+        assertNotNull(delta);
+        assertArrayEquals(new int[]{4151}, delta.added.toSortedArray());
+        assertFalse(delta.removed.contains(20000));
+
+        delta = second.poll(() -> new int[]{4151});
+        assertNotNull(delta);
+        assertTrue(delta.added.contains(20000));
+        assertTrue(delta.added.contains(89999));
+    }
+
+    @Test
+    public void compactionWhenCaughtUpNeedsNoResync() throws IOException {
+        first.join(NONE);
+        int[] bulk = new int[70000];
+        for (int i = 0; i < bulk.length; i++) {
+            bulk[i] = 20000 + i;
+        }
+        first.write(UnlockChange.added(bulk));
+        assertNull(first.poll(() -> {
+            throw new AssertionError("resynced from the bitmap");
+        }));
+    }
+}
@@ -0,0 +1,99 @@
+package com.newgameplus;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class UnlockCodecTest {
+    private static final long LIST_HASH = 0x1234_5678_9ABC_DEF0L;
+
+    @Test
+    public void csvRoundTripSkipsBadIds() {
+        assertEquals("3,17,4151", UnlockCodec.encode(new int[]{3, 17, 4151}));
+        assertArrayEquals(new int[]{3, 17, 4151}, UnlockCodec.decode("4151, 3,x,-2,0,17,3").toSortedArray());
+        assertTrue(UnlockCodec.decode((String) null).isEmpty());
+        assertEquals("", UnlockCodec.normalize(null));
+    }
+
+    @Test
+    public void sparseIdsRoundTrip() throws IOException {
+        int[] ids = {4151, 11840, 12006, 20997, 26374};
+        UnlockCodec.Decoded decoded = UnlockCodec.decodeText(UnlockCodec.exportText(ids, LIST_HASH));
+
+        assertArrayEquals(ids, decoded.ids.toSortedArray());
+        assertEquals(LIST_HASH, decoded.listHash);
+    }
+
+    @Test
+    public void denseIdsRoundTripAsBitmap() throws IOException {
+        int[] ids = new int[1000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 20_000 + i * 3;
+        }
+        byte[] code = UnlockCodec.export(ids, LIST_HASH);
+        UnlockCodec.Decoded decoded = UnlockCodec.decode(new ByteArrayInputStream(code));
+
+        assertArrayEquals(ids, decoded.ids.toSortedArray());
+        // A bitmap of 3000 ids is 375 bytes; deltas would take at least one byte per id
+        assertTrue(code.length < 500);
+    }
+
+    @Test
+    public void emptySetRoundTrips() throws IOException {
+        assertTrue(UnlockCodec.decodeText(UnlockCodec.exportText(new int[0], 0)).ids.isEmpty());
+    }
+
+    @Test
+    public void lineBreaksInPastedCodesAreIgnored() throws IOException {
+        String code = UnlockCodec.exportText(new int[]{1, 2, 3, 500, 90_000}, LIST_HASH);
+        String wrapped = "  " + code.substring(0, 10) + "\r\n" + code.substring(10) + "\n";
+
+        assertArrayEquals(new int[]{1, 2, 3, 500, 90_000}, UnlockCodec.decodeText(wrapped).ids.toSortedArray());
+    }
+
+    @Test
+    public void everyFlippedByteIsRejected() {
+        byte[] code = UnlockCodec.export(new int[]{4151, 11840, 12006}, LIST_HASH);
+        for (int i = 0; i < code.length; i++) {
+            byte[] damaged = code.clone();
+            damaged[i] ^= 0x40;
+            assertRejected(damaged);
+        }
+    }
+
+    @Test
+    public void truncatedCodesAreRejected() {
+        byte[] code = UnlockCodec.export(new int[]{4151, 11840, 12006}, LIST_HASH);
+        for (int length = 0; length < code.length; length++) {
+            assertRejected(Arrays.copyOf(code, length));
+        }
+    }
+
+    @Test
+    public void textWithoutThePrefixIsRejected() {
+        String code = UnlockCodec.exportText(new int[]{4151}, LIST_HASH);
+        for (String text : new String[]{null, "", code.substring(UnlockCodec.TEXT_PREFIX.length()), "NGP:***"}) {
+            try {
+                UnlockCodec.decodeText(text);
+                fail("decoded " + text);
+            } catch (IOException expected) {
+            }
+        }
+    }
+
+    private static void assertRejected(byte[] code) {
+        try {
+            UnlockCodec.decodeText(UnlockCodec.TEXT_PREFIX + Base64.getEncoder().encodeToString(code));
+            fail("decoded a damaged code of " + code.length + " bytes");
+        } catch (IOException expected) {
+        }
+    }
+}
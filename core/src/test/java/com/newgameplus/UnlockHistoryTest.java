@@ -0,0 +1,141 @@
+package com.newgameplus;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class UnlockHistoryTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writtenRecordsLoadBack() {
+        Path dir = folder.getRoot().toPath();
+        UnlockHistory history = new UnlockHistory(dir);
+        history.append(1000, 4151, UnlockHistory.Source.NPC_LOOT, "Abyssal demon", 415, 12);
+        history.flush();
+        history.append(2000, 20997, UnlockHistory.Source.EVENT_LOOT, "Chambers of Xeric", -1, -1);
+        history.flush();
+        history.flush();
+        history.close();
+
+        UnlockHistory loaded = new UnlockHistory(dir);
+        assertEquals(2, loaded.load());
+        assertEquals(1000, loaded.getStart());
+        UnlockHistory.Entry e = loaded.get(0);
+        assertEquals(4151, e.itemId);
+        assertEquals(UnlockHistory.Source.NPC_LOOT, e.source);
+        assertEquals("Abyssal demon", e.name);
+        assertEquals(415, e.npcId);
+        assertEquals(12, e.killCount);
+        assertEquals("Chambers of Xeric", loaded.get(1).name);
+    }
+
+    @Test
+    public void appendsBeforeLoadFinishesAreKept() {
+        Path dir = folder.getRoot().toPath();
+        UnlockHistory first = new UnlockHistory(dir);
+        first.append(1000, 1, UnlockHistory.Source.MANUAL, null, -1, -1);
+        first.append(2000, 2, UnlockHistory.Source.MANUAL, null, -1, -1);
+        first.flush();
+        first.close();
+
+        UnlockHistory history = new UnlockHistory(dir);
+        // An unlock recorded while the file is still loading, with a clock behind the file's last record
+        history.append(1500, 3, UnlockHistory.Source.INVENTORY, null, -1, -1);
+        assertEquals(3, history.load());
+
+        assertEquals(3, history.get(2).itemId);
+        assertEquals(2000, history.get(2).time);
+        assertEquals(1000, history.getStart());
+
+        // Only the new record is written, with its clamped time
+        history.flush();
+        history.close();
+        UnlockHistory loaded = new UnlockHistory(dir);
+        assertEquals(3, loaded.load());
+        assertEquals(3, loaded.get(2).itemId);
+        assertEquals(2000, loaded.get(2).time);
+    }
+
+    @Test
+    public void timesNeverGoBackwards() {
+        UnlockHistory history = new UnlockHistory(folder.getRoot().toPath());
+        history.append(5000, 1, UnlockHistory.Source.MANUAL, null, -1, -1);
+        UnlockHistory.Entry e = history.append(4000, 2, UnlockHistory.Source.MANUAL, null, -1, -1);
+
+        assertEquals(5000, e.time);
+    }
+
+    @Test
+    public void rangeAndLatest() {
+        UnlockHistory history = new UnlockHistory(folder.getRoot().toPath());
+        for (int i = 0; i < 10; i++) {
+            history.append(1000 * (i + 1), 100 + i % 4, UnlockHistory.Source.MANUAL, null, -1, -1);
+        }
+
+        List<UnlockHistory.Entry> range = history.range(3000, 6000);
+        assertEquals(3, range.size());
+        assertEquals(3000, range.get(0).time);
+        List<UnlockHistory.Entry> latest = history.latest(2);
+        assertEquals(10_000, latest.get(0).time);
+        assertEquals(9000, latest.get(1).time);
+    }
+
+    @Test
+    public void cutShortRecordIsSkippedAndPaddedOver() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        UnlockHistory history = new UnlockHistory(dir);
+        history.append(1000, 1, UnlockHistory.Source.MANUAL, null, -1, -1);
+        history.flush();
+        history.close();
+        Files.write(dir.resolve("unlocks.bin"), new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+
+        UnlockHistory reopened = new UnlockHistory(dir);
+        assertEquals(1, reopened.load());
+        reopened.append(2000, 2, UnlockHistory.Source.MANUAL, null, -1, -1);
+        reopened.flush();
+        reopened.close();
+
+        UnlockHistory loaded = new UnlockHistory(dir);
+        assertEquals(2, loaded.load());
+        assertEquals(2, loaded.get(1).itemId);
+    }
+
+    @Test
+    public void longNamesAreTruncatedOnDisk() {
+        Path dir = folder.getRoot().toPath();
+        UnlockHistory history = new UnlockHistory(dir);
+        String name = String.join("", Collections.nCopies(30, "\u00e9"));
+        history.append(1000, 1, UnlockHistory.Source.NPC_LOOT, name, -1, -1);
+        history.flush();
+        history.close();
+
+        UnlockHistory loaded = new UnlockHistory(dir);
+        loaded.load();
+        assertEquals(name.substring(0, 21), loaded.get(0).name);
+    }
+
+    @Test
+    public void csvQuotesNamesWithCommas() throws IOException {
+        UnlockHistory history = new UnlockHistory(folder.getRoot().toPath());
+        history.append(0, 4151, UnlockHistory.Source.EVENT_LOOT, "Barrows, chest", -1, 7);
+        StringWriter out = new StringWriter();
+        history.exportCsv(out, id -> "Abyssal whip");
+
+        String[] lines = out.toString().split("\n");
+        assertEquals("time,item_id,item,source,from,npc_id,kill_count", lines[0]);
+        assertEquals("1970-01-01T00:00:00Z,4151,Abyssal whip,reward,\"Barrows, chest\",,7", lines[1]);
+        assertEquals(2, lines.length);
+    }
+}
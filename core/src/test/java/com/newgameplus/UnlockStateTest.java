@@ -0,0 +1,98 @@
+package com.newgameplus;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class UnlockStateTest {
+    private final TokenDictionary tokens = new TokenDictionary();
+
+    @Test
+    public void addRemoveAndContains() {
+        UnlockState state = new UnlockState();
+
+        assertTrue(state.isEmpty());
+        assertTrue(state.add(5));
+        assertFalse(state.add(5));
+        assertTrue(state.add(3));
+        assertTrue(state.contains(5));
+        assertEquals(2, state.size());
+        assertArrayEquals(new int[]{3, 5}, state.itemIds());
+
+        assertTrue(state.remove(5));
+        assertFalse(state.remove(5));
+        assertFalse(state.contains(5));
+        state.clear();
+        assertTrue(state.isEmpty());
+    }
+
+    @Test
+    public void familyStaysUnlockedUntilItsLastMemberIsRemoved() {
+        UnlockState state = new UnlockState();
+        state.setFamilyGraph(graph());
+
+        state.add(1);
+        state.add(2);
+        assertTrue(state.isUnlocked(3));
+        assertFalse(state.isUnlocked(4));
+        assertFalse(state.contains(3));
+
+        state.remove(1);
+        assertTrue(state.isUnlocked(3));
+        state.remove(2);
+        assertFalse(state.isUnlocked(3));
+    }
+
+    @Test
+    public void newGraphRecountsFamilyMarks() {
+        UnlockState state = new UnlockState();
+        state.add(1);
+        assertFalse(state.isUnlocked(3));
+
+        state.setFamilyGraph(graph());
+        assertTrue(state.isUnlocked(3));
+
+        state.clear();
+        assertFalse(state.isUnlocked(3));
+    }
+
+    @Test
+    public void variantsAreStoredAsTheirBaseItem() {
+        UnlockState state = new UnlockState();
+        state.setFamilyGraph(graph());
+        state.add(10);
+        state.add(1);
+
+        CanonicalItemIds.Builder builder = new CanonicalItemIds.Builder(16);
+        builder.link(10, 4);
+        builder.link(11, 1);
+        assertTrue(state.setCanonicalIds(builder.build()));
+
+        assertArrayEquals(new int[]{1, 4}, state.itemIds());
+        assertTrue(state.contains(10));
+        assertTrue(state.isUnlocked(4));
+        assertFalse(state.add(11));
+        assertTrue(state.remove(11));
+        assertFalse(state.isUnlocked(3));
+        assertFalse(state.setCanonicalIds(CanonicalItemIds.IDENTITY));
+    }
+
+    // Items 1-3 in the whip family, 4 in the boots family
+    private ItemFamilyGraph graph() {
+        List<LockFamily> families = Arrays.asList(
+                new LockFamily(0, "abyssal whip", LockCategory.BOSSES, null, tokens),
+                new LockFamily(1, "dragon boots", LockCategory.SLAYER, null, tokens));
+        ItemFamilyGraph.Builder builder = new ItemFamilyGraph.Builder(families, 16);
+        builder.addMatch(1, 0);
+        builder.addMatch(2, 0);
+        builder.addMatch(3, 0);
+        builder.addMatch(4, 1);
+        return builder.build();
+    }
+}
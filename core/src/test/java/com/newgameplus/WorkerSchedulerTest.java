@@ -0,0 +1,95 @@
+package com.newgameplus;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WorkerSchedulerTest {
+    private final WorkerScheduler workers = new WorkerScheduler();
+
+    @After
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    @Test
+    public void fullLaneRejectsSubmit() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        fillIoLane(release);
+        long rejected = workers.rejected(WorkerScheduler.Lane.IO);
+
+        assertFalse(workers.submit(WorkerScheduler.Lane.IO, "extra", () -> {
+        }));
+        assertEquals(rejected + 1, workers.rejected(WorkerScheduler.Lane.IO));
+        release.countDown();
+    }
+
+    @Test
+    public void flusherRetriesUntilTheLaneHasRoom() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch flushed = new CountDownLatch(1);
+        WorkerScheduler.Flusher flusher = workers.flusher(WorkerScheduler.Lane.IO, "flush", flushed::countDown);
+        fillIoLane(release);
+
+        flusher.request();
+        assertFalse(flushed.await(300, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(flushed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void queuedRequestsFoldIntoOneRun() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        workers.submit(WorkerScheduler.Lane.IO, "block", () -> {
+            started.countDown();
+            await(release);
+        });
+        started.await();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch flushed = new CountDownLatch(1);
+        WorkerScheduler.Flusher flusher = workers.flusher(WorkerScheduler.Lane.IO, "flush", () -> {
+            runs.incrementAndGet();
+            flushed.countDown();
+        });
+
+        flusher.request();
+        flusher.request();
+        flusher.request();
+        release.countDown();
+        assertTrue(flushed.await(5, TimeUnit.SECONDS));
+        CountDownLatch drained = new CountDownLatch(1);
+        assertTrue(workers.submitAndWait(WorkerScheduler.Lane.IO, "drain", drained::countDown));
+        assertTrue(drained.await(5, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+    }
+
+    // Occupy the single IO thread and fill its queue; everything waits for release
+    private void fillIoLane(CountDownLatch release) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        assertTrue(workers.submit(WorkerScheduler.Lane.IO, "block", () -> {
+            started.countDown();
+            await(release);
+        }));
+        started.await();
+        while (workers.submit(WorkerScheduler.Lane.IO, "fill", () -> {
+        })) {
+            // until full
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.newgameplus;
+
+import net.runelite.api.Item;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Arrays;
+
+// Lock state of every bank slot, kept current from bank ItemContainerChanged events by diffing slots, so only the
+// slots whose item or quantity changed are evaluated again. The bank overlay reads a slot's flag instead of asking
+// the lock engine per widget, and the totals feed the panel's "locked in bank" line. Updated on the client thread;
+// the totals can be read from any thread.
+@Singleton
+class BankLockIndex {
+    private final NewGamePlusPlugin plugin;
+
+    // Per slot; size is the bank's current slot count
+    private int[] itemIds = new int[0];
+    private int[] quantities = new int[0];
+    private boolean[] locked = new boolean[0];
+    private int size;
+    // False until the first bank container after login; that one is a baseline, not arrivals
+    private boolean loaded;
+    // Scratch for update(): quantity change per item id across the changed slots
+    private final IntIntHashMap quantityDelta = new IntIntHashMap(16);
+
+    private volatile int lockedStacks;
+    private volatile long lockedItems;
+    // Locked items that came into the bank since login (deposits, loot sent to the bank)
+    private volatile int lockedArrivals;
+
+    @Inject
+    private BankLockIndex(NewGamePlusPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    // Apply a new bank container. Returns true if the totals changed (or this was the first container).
+    boolean update(Item[] items) {
+        int n = items.length;
+        if (n > itemIds.length) {
+            int capacity = Math.max(n, itemIds.length * 2);
+            itemIds = Arrays.copyOf(itemIds, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            locked = Arrays.copyOf(locked, capacity);
+        }
+        int stacks = lockedStacks;
+        long total = lockedItems;
+        quantityDelta.clear();
+        // Slots past the new end are gone
+        for (int slot = n; slot < size; slot++) {
+            if (locked[slot]) {
+                stacks--;
+                total -= quantities[slot];
+                quantityDelta.addTo(itemIds[slot], -quantities[slot]);
+            }
+            clearSlot(slot);
+        }
+        for (int slot = 0; slot < n; slot++) {
+            Item item = items[slot];
+            int id = item != null ? item.getId() : -1;
+            int quantity = item != null ? item.getQuantity() : 0;
+            boolean inRange = slot < size;
+            int oldId = inRange ? itemIds[slot] : -1;
+            int oldQuantity = inRange ? quantities[slot] : 0;
+            if (inRange && id == oldId && quantity == oldQuantity) {
+                continue;
+            }
+            if (inRange && locked[slot]) {
+                stacks--;
+                total -= oldQuantity;
+                quantityDelta.addTo(oldId, -oldQuantity);
+            }
+            boolean isLocked = id > 0 && quantity > 0 && plugin.isLocked(id);
+            itemIds[slot] = id;
+            quantities[slot] = quantity;
+            locked[slot] = isLocked;
+            if (isLocked) {
+                stacks++;
+                total += quantity;
+                quantityDelta.addTo(id, quantity);
+            }
+        }
+        size = n;
+        // Depositing into a tab shifts every later slot, so arrivals are counted per item id rather than per slot
+        int[] arrivals = {lockedArrivals};
+        if (loaded) {
+            quantityDelta.forEach((id, delta) -> {
+                if (delta > 0) {
+                    arrivals[0] += delta;
+                }
+            });
+        }
+        boolean first = !loaded;
+        loaded = true;
+        return publish(stacks, total, arrivals[0]) || first;
+    }
+
+    // Re-evaluate every slot after the unlock set or the enabled lock lists changed. Returns true if the totals
+    // changed.
+    boolean refresh() {
+        int stacks = 0;
+        long total = 0;
+        for (int slot = 0; slot < size; slot++) {
+            int id = itemIds[slot];
+            locked[slot] = id > 0 && quantities[slot] > 0 && plugin.isLocked(id);
+            if (locked[slot]) {
+                stacks++;
+                total += quantities[slot];
+            }
+        }
+        return publish(stacks, total, lockedArrivals);
+    }
+
+    // Logged out; the next bank container is a new baseline
+    void clear() {
+        for (int slot = 0; slot < size; slot++) {
+            clearSlot(slot);
+        }
+        size = 0;
+        loaded = false;
+        publish(0, 0, 0);
+    }
+
+    // Locked state of the item drawn in a bank slot; falls back to the lock engine if the slot is not (or no
+    // longer) holding that item, e.g. while the container and the widgets are out of step
+    boolean isLocked(int slot, int itemId) {
+        if (slot >= 0 && slot < size && itemIds[slot] == itemId) {
+            return locked[slot];
+        }
+        return plugin.isLocked(itemId);
+    }
+
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    int lockedStacks() {
+        return lockedStacks;
+    }
+
+    long lockedItems() {
+        return lockedItems;
+    }
+
+    int lockedArrivals() {
+        return lockedArrivals;
+    }
+
+    String summary() {
+        return loaded
+                ? "bank " + lockedItems + " locked items in " + lockedStacks + " stacks, " + lockedArrivals
+                        + " arrived since login (" + size + " slots)"
+                : "bank not opened yet";
+    }
+
+    long footprintBytes() {
+        return MemoryFootprint.of(itemIds) + MemoryFootprint.of(quantities) + quantityDelta.footprintBytes()
+                + MemoryFootprint.align(MemoryFootprint.ARRAY_HEADER + locked.length);
+    }
+
+    private void clearSlot(int slot) {
+        itemIds[slot] = -1;
+        quantities[slot] = 0;
+        locked[slot] = false;
+    }
+
+    private boolean publish(int stacks, long total, int arrivals) {
+        boolean changed = stacks != lockedStacks || total != lockedItems || arrivals != lockedArrivals;
+        lockedStacks = stacks;
+        lockedItems = total;
+        lockedArrivals = arrivals;
+        return changed;
+    }
+}
@@ -0,0 +1,18 @@
+package com.newgameplus;
+
+// How menu entries that are blocked on locked items are presented
+public enum BlockedEntryMode {
+    GREY_OUT("Grey out"),
+    HIDE("Hide");
+
+    private final String name;
+
+    BlockedEntryMode(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,179 @@
+package com.newgameplus;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.callback.ClientThread;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Cooperative scheduler for plugin work that must run on the client thread but can be split into chunks.
+// Tasks are stepped once per client frame within a shared time budget, highest priority first; an unfinished
+// task goes to the back of its queue so tasks of equal priority share the budget. Lock checks themselves are
+// plain lookups and never go through here; this only keeps maintenance work from stalling a frame.
+@Slf4j
+@Singleton
+class ClientThreadScheduler {
+    enum Priority {
+        // User-initiated work (e.g. the add-item search); always gets a step each frame, even over budget
+        HIGH,
+        // Panel and inventory bookkeeping
+        NORMAL,
+        // Bulk maintenance (e.g. the lock table name snapshot); only runs with budget left over
+        BULK
+    }
+
+    interface Task {
+        // Do at least one unit of work, continuing until done or System.nanoTime() passes the deadline.
+        // Return true once finished. Runs on the client thread.
+        boolean step(long deadlineNanos);
+    }
+
+    // Handle for a submitted task
+    static final class Job {
+        private final String name;
+        private final Priority priority;
+        private final Task task;
+        private final int epoch;
+        private volatile boolean cancelled;
+
+        private Job(String name, Priority priority, Task task, int epoch) {
+            this.name = name;
+            this.priority = priority;
+            this.task = task;
+            this.epoch = epoch;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final ClientThread clientThread;
+    private final NewGamePlusConfig config;
+
+    // Submissions from any thread; drained into the priority queues on the client thread
+    private final Queue<Job> incoming = new ConcurrentLinkedQueue<>();
+    // Client thread only
+    private final Map<Priority, ArrayDeque<Job>> queues = new EnumMap<>(Priority.class);
+    private boolean driving;
+    // Bumped by clear(); jobs submitted under an older epoch are dropped instead of run
+    private final AtomicInteger epoch = new AtomicInteger();
+
+    private volatile int slices;
+    private volatile long lastSliceNanos;
+    private volatile long maxSliceNanos;
+
+    @Inject
+    ClientThreadScheduler(ClientThread clientThread, NewGamePlusConfig config) {
+        this.clientThread = clientThread;
+        this.config = config;
+        for (Priority p : Priority.values()) {
+            queues.put(p, new ArrayDeque<>());
+        }
+    }
+
+    // Queue a task; safe from any thread
+    Job submit(String name, Priority priority, Task task) {
+        Job job = new Job(name, priority, task, epoch.get());
+        incoming.add(job);
+        clientThread.invoke(this::startDriving);
+        return job;
+    }
+
+    // Queue a task that finishes in a single step
+    Job submit(String name, Priority priority, Runnable runnable) {
+        return submit(name, priority, deadline -> {
+            runnable.run();
+            return true;
+        });
+    }
+
+    // Cancel every task submitted so far; safe from any thread. Queued jobs are discarded on the next frame.
+    void clear() {
+        epoch.incrementAndGet();
+    }
+
+    int pending() {
+        int n = incoming.size();
+        for (ArrayDeque<Job> q : queues.values()) {
+            n += q.size();
+        }
+        return n;
+    }
+
+    long budgetNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(1, config.clientThreadBudgetMs()));
+    }
+
+    String summary() {
+        return String.format("scheduler %d pending, %d slices, last %.2f ms, max %.2f ms (budget %d ms)",
+                pending(), slices, lastSliceNanos / 1e6, maxSliceNanos / 1e6, config.clientThreadBudgetMs());
+    }
+
+    private void startDriving() {
+        if (driving) {
+            return;
+        }
+        driving = true;
+        // Re-queued by the client thread every frame until runSlice reports nothing is left
+        clientThread.invoke(this::runSlice);
+    }
+
+    // One frame's worth of work; returns true when every queue is empty
+    private boolean runSlice() {
+        Job job;
+        while ((job = incoming.poll()) != null) {
+            queues.get(job.priority).add(job);
+        }
+
+        final long start = System.nanoTime();
+        final long deadline = start + budgetNanos();
+        for (Priority p : Priority.values()) {
+            ArrayDeque<Job> q = queues.get(p);
+            // Each task in the queue gets at most one step per frame
+            for (int n = q.size(); n > 0; n--) {
+                if (p != Priority.HIGH && System.nanoTime() >= deadline) {
+                    break;
+                }
+                job = q.poll();
+                if (job.isCancelled() || job.epoch != epoch.get()) {
+                    continue;
+                }
+                boolean done;
+                try {
+                    done = job.task.step(deadline);
+                } catch (Exception e) {
+                    log.warn("NG+: scheduled task {} failed", job.name, e);
+                    done = true;
+                }
+                if (!done) {
+                    q.add(job);
+                }
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        slices++;
+        lastSliceNanos = elapsed;
+        if (elapsed > maxSliceNanos) {
+            maxSliceNanos = elapsed;
+        }
+
+        if (incoming.isEmpty() && queues.values().stream().allMatch(ArrayDeque::isEmpty)) {
+            driving = false;
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,115 @@
+package com.newgameplus;
+
+import net.runelite.api.Client;
+import net.runelite.api.widgets.ComponentID;
+import net.runelite.api.widgets.Widget;
+import net.runelite.client.util.Text;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+// Obtained items read from collection log pages while an import is running. Each page the player opens adds its
+// obtained (not greyed out) items; nothing is unlocked until the plugin takes the whole import and applies it as one
+// change, with one config write and one index refresh. Client thread only, except the counts.
+@Singleton
+class CollectionLogImport {
+    // Collection log item widgets are drawn at this opacity when the item has not been obtained
+    private static final int OBTAINED_OPACITY = 0;
+
+    private final Client client;
+
+    private boolean active;
+    // Item id -> index in pages of the page it was first seen on
+    private final IntIntHashMap itemPages = new IntIntHashMap(64);
+    private final List<String> pages = new ArrayList<>();
+
+    private volatile int found;
+    private volatile int pageCount;
+
+    @Inject
+    private CollectionLogImport(Client client) {
+        this.client = client;
+    }
+
+    void start() {
+        clear();
+        active = true;
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    // The collection log drew a page. Reads its obtained items as canonical ids; wanted filters out items that would
+    // not change the unlock set. Returns true if the page added anything.
+    boolean pageDrawn(IntUnaryOperator canonicalId, IntPredicate wanted) {
+        if (!active) {
+            return false;
+        }
+        Widget itemsContainer = client.getWidget(ComponentID.COLLECTION_LOG_ENTRY_ITEMS);
+        Widget[] items = itemsContainer != null ? itemsContainer.getDynamicChildren() : null;
+        if (items == null || items.length == 0) {
+            return false;
+        }
+        int page = -1;
+        int before = itemPages.size();
+        for (Widget item : items) {
+            int id = canonicalId.applyAsInt(item.getItemId());
+            if (id <= 0 || item.getOpacity() != OBTAINED_OPACITY || itemPages.containsKey(id) || !wanted.test(id)) {
+                continue;
+            }
+            if (page < 0) {
+                page = pages.size();
+                pages.add(pageTitle());
+            }
+            itemPages.put(id, page);
+        }
+        found = itemPages.size();
+        pageCount = pages.size();
+        return itemPages.size() > before;
+    }
+
+    // Item ids found so far, ascending
+    int[] itemIds() {
+        IntHashSet ids = new IntHashSet(itemPages.size());
+        itemPages.forEach((id, page) -> ids.add(id));
+        return ids.toSortedArray();
+    }
+
+    // Title of the page the item was found on (e.g. "Vorkath"), or null
+    String pageOf(int itemId) {
+        int page = itemPages.get(itemId, -1);
+        return page >= 0 ? pages.get(page) : null;
+    }
+
+    // End the import, dropping what was found
+    void clear() {
+        active = false;
+        itemPages.clear();
+        pages.clear();
+        found = 0;
+        pageCount = 0;
+    }
+
+    int found() {
+        return found;
+    }
+
+    // Pages that added at least one item
+    int pageCount() {
+        return pageCount;
+    }
+
+    private String pageTitle() {
+        Widget header = client.getWidget(ComponentID.COLLECTION_LOG_ENTRY_HEADER);
+        Widget[] children = header != null ? header.getDynamicChildren() : null;
+        if (children == null || children.length == 0 || children[0].getText() == null) {
+            return null;
+        }
+        return Text.removeTags(children[0].getText()).trim();
+    }
+}
@@ -0,0 +1,107 @@
+package com.newgameplus;
+
+import net.runelite.api.Client;
+import net.runelite.api.Perspective;
+import net.runelite.api.Player;
+import net.runelite.api.Point;
+import net.runelite.api.WorldView;
+import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.OverlayLayer;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.OverlayUtil;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Polygon;
+
+// Outlines ground tiles holding items that would unlock something when picked up. Only the tiles the tracker has
+// already flagged are visited, and those out of draw range are skipped before any projection.
+@Singleton
+class GroundItemOverlay extends Overlay {
+    // Local units per tile
+    private static final int TILE_SIZE = 128;
+    // Tiles further than this from the player are not drawn
+    private static final int MAX_DISTANCE = 32 * TILE_SIZE;
+
+    private final Client client;
+    private final NewGamePlusPlugin plugin;
+    private final NewGamePlusConfig config;
+    private final GroundItemTracker tracker;
+
+    // Per-frame state for the tile visitor
+    private Graphics2D graphics;
+    private WorldView worldView;
+    private LocalPoint playerLocation;
+    private Color color;
+
+    @Inject
+    private GroundItemOverlay(Client client, NewGamePlusPlugin plugin, NewGamePlusConfig config,
+                              GroundItemTracker tracker) {
+        this.client = client;
+        this.plugin = plugin;
+        this.config = config;
+        this.tracker = tracker;
+        setPosition(OverlayPosition.DYNAMIC);
+        setLayer(OverlayLayer.ABOVE_SCENE);
+    }
+
+    @Override
+    public Dimension render(Graphics2D graphics) {
+        if (!config.highlightGroundItems() || tracker.highlightedTileCount() == 0) {
+            return null;
+        }
+        Player player = client.getLocalPlayer();
+        WorldView wv = client.getTopLevelWorldView();
+        if (player == null || wv == null) {
+            return null;
+        }
+        this.graphics = graphics;
+        this.worldView = wv;
+        this.playerLocation = player.getLocalLocation();
+        this.color = config.groundItemColor();
+        tracker.forEachHighlighted(this::renderTile);
+        this.graphics = null;
+        return null;
+    }
+
+    private void renderTile(GroundItemTracker.TileItems items) {
+        if (items.getPlane() != worldView.getPlane()) {
+            return;
+        }
+        LocalPoint lp = LocalPoint.fromWorld(worldView,
+                new WorldPoint(items.getWorldX(), items.getWorldY(), items.getPlane()));
+        if (lp == null || (playerLocation != null && lp.distanceTo(playerLocation) > MAX_DISTANCE)) {
+            return;
+        }
+        Polygon poly = Perspective.getCanvasTilePoly(client, lp);
+        if (poly != null) {
+            OverlayUtil.renderPolygon(graphics, poly, color);
+        }
+        if (items.label == null) {
+            items.label = label(items);
+        }
+        Point text = Perspective.getCanvasTextLocation(client, graphics, lp, items.label, 0);
+        if (text != null) {
+            OverlayUtil.renderTextLocation(graphics, text, items.label, color);
+        }
+    }
+
+    // First highlighted item's name, plus how many more highlighted items share the tile
+    private String label(GroundItemTracker.TileItems items) {
+        for (int i = 0; i < items.size; i++) {
+            if (items.unlocks[i]) {
+                String name = plugin.getItemName(items.itemIds[i]);
+                if (items.quantities[i] > 1) {
+                    name += " (" + items.quantities[i] + ")";
+                }
+                return items.highlighted > 1 ? name + " +" + (items.highlighted - 1) : name;
+            }
+        }
+        return "";
+    }
+}
@@ -0,0 +1,231 @@
+package com.newgameplus;
+
+import net.runelite.api.Tile;
+import net.runelite.api.TileItem;
+import net.runelite.api.coords.WorldPoint;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Arrays;
+
+// Ground items indexed by world tile. Spawns are checked against the lock engine once, when they happen (and again
+// when the unlock or lock set changes), so the overlay only walks the tiles that hold something worth picking up and
+// never evaluates items at render time. Client thread only.
+@Singleton
+class GroundItemTracker {
+    // Items on one tile; highlighted counts the entries that would unlock something
+    static final class TileItems {
+        final int tile;
+        int[] itemIds = new int[4];
+        int[] quantities = new int[4];
+        boolean[] unlocks = new boolean[4];
+        int size;
+        int highlighted;
+        // Overlay label, rebuilt lazily after a change
+        String label;
+
+        private TileItems(int tile) {
+            this.tile = tile;
+        }
+
+        int getPlane() {
+            return tile >>> 30;
+        }
+
+        int getWorldX() {
+            return (tile >>> 15) & 0x7FFF;
+        }
+
+        int getWorldY() {
+            return tile & 0x7FFF;
+        }
+
+        private void add(int itemId, int quantity, boolean unlock) {
+            if (size == itemIds.length) {
+                itemIds = Arrays.copyOf(itemIds, size * 2);
+                quantities = Arrays.copyOf(quantities, size * 2);
+                unlocks = Arrays.copyOf(unlocks, size * 2);
+            }
+            itemIds[size] = itemId;
+            quantities[size] = quantity;
+            unlocks[size] = unlock;
+            size++;
+            if (unlock) {
+                highlighted++;
+            }
+            label = null;
+        }
+
+        private void remove(int index) {
+            if (unlocks[index]) {
+                highlighted--;
+            }
+            size--;
+            itemIds[index] = itemIds[size];
+            quantities[index] = quantities[size];
+            unlocks[index] = unlocks[size];
+            label = null;
+        }
+
+        private int indexOf(int itemId, int quantity) {
+            int any = -1;
+            for (int i = 0; i < size; i++) {
+                if (itemIds[i] == itemId) {
+                    if (quantities[i] == quantity) {
+                        return i;
+                    }
+                    any = i;
+                }
+            }
+            return any;
+        }
+    }
+
+    interface TileVisitor {
+        void visit(TileItems items);
+    }
+
+    private final NewGamePlusPlugin plugin;
+
+    // Packed world tile -> slot in tiles
+    private final IntIntHashMap slotByTile = new IntIntHashMap(64);
+    private TileItems[] tiles = new TileItems[64];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int slotCount;
+    // Slots with at least one highlighted item; the only ones the overlay visits
+    private final IntHashSet highlightedSlots = new IntHashSet();
+
+    @Inject
+    private GroundItemTracker(NewGamePlusPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    void spawned(Tile tile, TileItem item) {
+        WorldPoint wp = tile.getWorldLocation();
+        int key = pack(wp);
+        int slot = slotByTile.get(key, -1);
+        if (slot < 0) {
+            slot = allocate(key);
+        }
+        TileItems items = tiles[slot];
+        items.add(item.getId(), item.getQuantity(), plugin.wouldUnlock(item.getId()));
+        if (items.highlighted > 0) {
+            highlightedSlots.add(slot);
+        }
+    }
+
+    void despawned(Tile tile, TileItem item) {
+        int key = pack(tile.getWorldLocation());
+        int slot = slotByTile.get(key, -1);
+        if (slot < 0) {
+            return;
+        }
+        TileItems items = tiles[slot];
+        int index = items.indexOf(item.getId(), item.getQuantity());
+        if (index < 0) {
+            return;
+        }
+        items.remove(index);
+        if (items.highlighted == 0) {
+            highlightedSlots.remove(slot);
+        }
+        if (items.size == 0) {
+            release(slot);
+        }
+    }
+
+    void quantityChanged(Tile tile, TileItem item, int oldQuantity) {
+        int slot = slotByTile.get(pack(tile.getWorldLocation()), -1);
+        if (slot < 0) {
+            return;
+        }
+        TileItems items = tiles[slot];
+        int index = items.indexOf(item.getId(), oldQuantity);
+        if (index >= 0) {
+            items.quantities[index] = item.getQuantity();
+            items.label = null;
+        }
+    }
+
+    // Re-evaluate every tracked item after the unlock set or the enabled lock lists changed
+    void refresh() {
+        highlightedSlots.clear();
+        for (int slot = 0; slot < slotCount; slot++) {
+            TileItems items = tiles[slot];
+            if (items == null) {
+                continue;
+            }
+            items.highlighted = 0;
+            for (int i = 0; i < items.size; i++) {
+                items.unlocks[i] = plugin.wouldUnlock(items.itemIds[i]);
+                if (items.unlocks[i]) {
+                    items.highlighted++;
+                }
+            }
+            items.label = null;
+            if (items.highlighted > 0) {
+                highlightedSlots.add(slot);
+            }
+        }
+    }
+
+    // The scene is being (re)loaded; the client sends fresh spawns for everything in the new scene
+    void clear() {
+        slotByTile.clear();
+        Arrays.fill(tiles, 0, slotCount, null);
+        slotCount = 0;
+        freeCount = 0;
+        highlightedSlots.clear();
+    }
+
+    int highlightedTileCount() {
+        return highlightedSlots.size();
+    }
+
+    void forEachHighlighted(TileVisitor visitor) {
+        highlightedSlots.forEach(slot -> visitor.visit(tiles[slot]));
+    }
+
+    long footprintBytes() {
+        long bytes = slotByTile.footprintBytes() + highlightedSlots.footprintBytes()
+                + MemoryFootprint.referenceArray(tiles.length) + MemoryFootprint.of(freeSlots);
+        for (int slot = 0; slot < slotCount; slot++) {
+            TileItems items = tiles[slot];
+            if (items != null) {
+                bytes += MemoryFootprint.of(items.itemIds) + MemoryFootprint.of(items.quantities)
+                        + MemoryFootprint.align(MemoryFootprint.ARRAY_HEADER + items.unlocks.length);
+            }
+        }
+        return bytes;
+    }
+
+    private int allocate(int key) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotCount == tiles.length) {
+                tiles = Arrays.copyOf(tiles, slotCount * 2);
+            }
+            slot = slotCount++;
+        }
+        tiles[slot] = new TileItems(key);
+        slotByTile.put(key, slot);
+        return slot;
+    }
+
+    private void release(int slot) {
+        slotByTile.remove(tiles[slot].tile);
+        tiles[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    // plane (2 bits) | x (15 bits) | y (15 bits)
+    private static int pack(WorldPoint wp) {
+        return (wp.getPlane() & 3) << 30 | (wp.getX() & 0x7FFF) << 15 | (wp.getY() & 0x7FFF);
+    }
+}
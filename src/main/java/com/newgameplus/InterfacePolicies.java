@@ -0,0 +1,77 @@
+package com.newgameplus;
+
+import net.runelite.api.MenuEntry;
+import net.runelite.api.widgets.InterfaceID;
+import net.runelite.api.widgets.Widget;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+// Binds interface policies to widget group ids. The table is resolved once into an array indexed by group id, so the
+// overlay and the menu code each pay a single array read per item.
+final class InterfacePolicies {
+    // Group id -> policy (null entries fall back to DEFAULT)
+    private static final InterfacePolicy[] BY_GROUP;
+    // Groups the overlay has to be registered for beyond the inventory, bank and equipment defaults
+    private static final int[] EXTRA_OVERLAY_GROUPS = {
+            InterfaceID.DEPOSIT_BOX, InterfaceID.LOOTING_BAG, InterfaceID.GRAND_EXCHANGE,
+            InterfaceID.GRAND_EXCHANGE_INVENTORY, InterfaceID.TRADE, InterfaceID.TRADE_INVENTORY
+    };
+
+    static {
+        Map<Integer, InterfacePolicy> policies = new HashMap<>();
+        policies.put(InterfaceID.BANK,
+                new InterfacePolicy("bank", InterfacePolicy.Dim.BANK, EnumSet.allOf(BlockedVerb.class)));
+        policies.put(InterfaceID.BANK_INVENTORY,
+                new InterfacePolicy("bank inventory", InterfacePolicy.Dim.INVENTORY, InterfacePolicy.ITEM_VERBS));
+        policies.put(InterfaceID.INVENTORY,
+                new InterfacePolicy("inventory", InterfacePolicy.Dim.INVENTORY, InterfacePolicy.ITEM_VERBS));
+        // Worn items can still be removed; only charge checks and reverts are blocked
+        policies.put(InterfaceID.EQUIPMENT, new InterfacePolicy("equipment", InterfacePolicy.Dim.INVENTORY,
+                EnumSet.of(BlockedVerb.CHECK, BlockedVerb.REVERT)));
+        policies.put(InterfaceID.EQUIPMENT_INVENTORY, new InterfacePolicy("equipment inventory",
+                InterfacePolicy.Dim.INVENTORY, InterfacePolicy.ITEM_VERBS));
+        // Depositing, offering and trading a locked item away is always allowed
+        policies.put(InterfaceID.DEPOSIT_BOX,
+                new InterfacePolicy("deposit box", InterfacePolicy.Dim.BANK, EnumSet.noneOf(BlockedVerb.class)));
+        policies.put(InterfaceID.LOOTING_BAG,
+                new InterfacePolicy("looting bag", InterfacePolicy.Dim.BANK, EnumSet.of(BlockedVerb.WITHDRAW)));
+        policies.put(InterfaceID.GRAND_EXCHANGE,
+                new InterfacePolicy("grand exchange", InterfacePolicy.Dim.BANK, EnumSet.noneOf(BlockedVerb.class)));
+        policies.put(InterfaceID.GRAND_EXCHANGE_INVENTORY, new InterfacePolicy("grand exchange inventory",
+                InterfacePolicy.Dim.INVENTORY, EnumSet.noneOf(BlockedVerb.class)));
+        policies.put(InterfaceID.TRADE,
+                new InterfacePolicy("trade", InterfacePolicy.Dim.BANK, EnumSet.noneOf(BlockedVerb.class)));
+        policies.put(InterfaceID.TRADE_INVENTORY, new InterfacePolicy("trade inventory",
+                InterfacePolicy.Dim.INVENTORY, EnumSet.noneOf(BlockedVerb.class)));
+        BY_GROUP = new InterfacePolicy[Collections.max(policies.keySet()) + 1];
+        policies.forEach((group, policy) -> BY_GROUP[group] = policy);
+    }
+
+    private InterfacePolicies() {
+    }
+
+    static InterfacePolicy forGroup(int groupId) {
+        InterfacePolicy p = groupId >= 0 && groupId < BY_GROUP.length ? BY_GROUP[groupId] : null;
+        return p != null ? p : InterfacePolicy.DEFAULT;
+    }
+
+    // Policy for a widget (component) id: the interface group is its top 16 bits
+    static InterfacePolicy forWidget(Widget widget) {
+        return widget == null ? InterfacePolicy.DEFAULT : forGroup(widget.getId() >>> 16);
+    }
+
+    static InterfacePolicy forMenuEntry(MenuEntry entry) {
+        return forWidget(entry.getWidget());
+    }
+
+    static int[] extraOverlayGroups() {
+        return EXTRA_OVERLAY_GROUPS.clone();
+    }
+
+    static int opacity(InterfacePolicy policy, NewGamePlusConfig config) {
+        return policy.getDim() == InterfacePolicy.Dim.BANK ? config.bankOpacity() : config.inventoryOpacity();
+    }
+}
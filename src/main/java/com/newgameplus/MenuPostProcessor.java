@@ -0,0 +1,177 @@
+package com.newgameplus;
+
+import net.runelite.api.Client;
+import net.runelite.api.MenuEntry;
+import net.runelite.client.util.ColorUtil;
+import net.runelite.client.util.Text;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.awt.Color;
+import java.util.Arrays;
+
+// Post-processes the menu once per build instead of rewriting the whole entry array for every blocked entry.
+// One sweep classifies every entry against the lock engine; blocked entries are then either greyed out and sunk
+// below the allowed ones (so they never become the left-click option) or removed, and the menu is written back once.
+// The blocked entries of the latest build are kept so they can be audited once when the player opens the menu.
+// Builds are flagged by MenuEntryAdded; entries that arrive without one (inserted by other plugins through
+// createMenuEntry) are caught by a cheap lock check over the item entries of an unflagged build.
+@Singleton
+class MenuPostProcessor {
+    private final Client client;
+    private final NewGamePlusPlugin plugin;
+    private final NewGamePlusConfig config;
+
+    // Set when the current menu build added an entry for a locked item
+    private boolean pending;
+
+    // Blocked entries of the latest processed build; reused between builds so auditing doesn't allocate
+    private int[] blockedItems = new int[16];
+    private BlockedVerb[] blockedVerbs = new BlockedVerb[16];
+    private int blockedEntries;
+
+    // Per-build scratch, grown to the largest menu seen: which entries are blocked, and the blocked entries being
+    // sunk (cleared after each build so it holds no entries)
+    private boolean[] blocked = new boolean[32];
+    private MenuEntry[] sunk = new MenuEntry[32];
+
+    @Inject
+    private MenuPostProcessor(Client client, NewGamePlusPlugin plugin, NewGamePlusConfig config) {
+        this.client = client;
+        this.plugin = plugin;
+        this.config = config;
+    }
+
+    void lockedEntryAdded() {
+        pending = true;
+    }
+
+    void reset() {
+        pending = false;
+        blockedEntries = 0;
+    }
+
+    // The player opened the menu built last: audit its blocked entries
+    void menuOpened() {
+        AuditLog.Kind kind = config.blockedEntryMode() == BlockedEntryMode.HIDE
+                ? AuditLog.Kind.HIDDEN : AuditLog.Kind.DEPRIORITIZED;
+        for (int i = 0; i < blockedEntries; i++) {
+            plugin.recordAudit(kind, blockedItems[i], blockedVerbs[i]);
+        }
+        blockedEntries = 0;
+    }
+
+    // Run after the client has built and sorted the menu
+    void process() {
+        boolean flagged = pending;
+        pending = false;
+        if (client.isMenuOpen()) {
+            // Not rebuilt while open; keep the blocked entries for the audit
+            return;
+        }
+        blockedEntries = 0;
+
+        MenuEntry[] entries = client.getMenuEntries();
+        if (entries == null || entries.length == 0 || !flagged && !hasLockedItem(entries)) {
+            return;
+        }
+
+        // Single sweep: classify each entry once
+        if (blocked.length < entries.length) {
+            blocked = new boolean[Math.max(entries.length, blocked.length * 2)];
+            sunk = new MenuEntry[blocked.length];
+        }
+        Arrays.fill(blocked, 0, entries.length, false);
+        int blockedCount = 0;
+        for (int i = 0; i < entries.length; i++) {
+            MenuEntry entry = entries[i];
+            int itemId = entry.getItemId();
+            if (itemId <= 0) {
+                continue;
+            }
+            BlockedVerb verb = plugin.blockedVerb(itemId, entry.getOption(), InterfacePolicies.forMenuEntry(entry));
+            if (verb != null) {
+                blocked[i] = true;
+                blockedCount++;
+                rememberBlocked(itemId, verb);
+            }
+        }
+        if (blockedCount == 0) {
+            return;
+        }
+
+        if (config.blockedEntryMode() == BlockedEntryMode.HIDE) {
+            // Compact the allowed entries in place and drop the tail
+            int n = 0;
+            for (int i = 0; i < entries.length; i++) {
+                if (!blocked[i]) {
+                    entries[n++] = entries[i];
+                }
+            }
+            client.setMenuEntries(Arrays.copyOf(entries, n));
+            return;
+        }
+
+        // Grey out blocked entries and stable-partition them to the bottom of the menu (the front of the array),
+        // keeping the bottom-most entry (Cancel) in place
+        int b = 0;
+        int write = entries.length - 1;
+        for (int i = entries.length - 1; i >= 1; i--) {
+            MenuEntry entry = entries[i];
+            if (blocked[i]) {
+                greyOut(entry);
+                sunk[blockedCount - 1 - b++] = entry;
+            } else {
+                entries[write--] = entry;
+            }
+        }
+        if (blocked[0]) {
+            // Nothing below to keep in place; the whole menu is blocked entries ending at index 0
+            greyOut(entries[0]);
+            sunk[blockedCount - 1 - b] = entries[0];
+            System.arraycopy(sunk, 0, entries, 0, blockedCount);
+        } else {
+            System.arraycopy(sunk, 0, entries, 1, blockedCount);
+        }
+        Arrays.fill(sunk, 0, blockedCount, null);
+        client.setMenuEntries(entries);
+    }
+
+    // Whether a build nobody flagged still has an entry for a locked item; a bitset read per item entry
+    private boolean hasLockedItem(MenuEntry[] entries) {
+        for (MenuEntry entry : entries) {
+            int itemId = entry.getItemId();
+            if (itemId > 0 && plugin.isLocked(itemId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void rememberBlocked(int itemId, BlockedVerb verb) {
+        if (blockedEntries == blockedItems.length) {
+            blockedItems = Arrays.copyOf(blockedItems, blockedEntries * 2);
+            blockedVerbs = Arrays.copyOf(blockedVerbs, blockedEntries * 2);
+        }
+        blockedItems[blockedEntries] = itemId;
+        blockedVerbs[blockedEntries] = verb;
+        blockedEntries++;
+    }
+
+    private static void greyOut(MenuEntry entry) {
+        entry.setDeprioritized(true);
+        String option = entry.getOption();
+        if (option != null && !isColored(option)) {
+            entry.setOption(ColorUtil.prependColorTag(option, Color.GRAY));
+        }
+        String target = entry.getTarget();
+        if (target != null) {
+            entry.setTarget(ColorUtil.prependColorTag(Text.removeTags(target), Color.GRAY));
+        }
+    }
+
+    private static boolean isColored(String s) {
+        String lower = s.toLowerCase();
+        return lower.contains("<col=") || lower.contains("</col>");
+    }
+}
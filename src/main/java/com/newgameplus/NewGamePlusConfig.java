@@ -1,13 +1,43 @@
 package com.newgameplus;
 
+import net.runelite.client.config.Alpha;
 import net.runelite.client.config.Config;
 import net.runelite.client.config.ConfigGroup;
 import net.runelite.client.config.ConfigItem;
 import net.runelite.client.config.Range;
 
+import java.awt.Color;
+
 @ConfigGroup("newgameplus")
 public interface NewGamePlusConfig extends Config {
 
+    @ConfigItem(
+            keyName = "lockBosses",
+            name = "Lock boss uniques",
+            description = "Lock item families from the bosses list"
+    )
+    default boolean lockBosses() {
+        return true;
+    }
+
+    @ConfigItem(
+            keyName = "lockRaids",
+            name = "Lock raids uniques",
+            description = "Lock item families from the raids list"
+    )
+    default boolean lockRaids() {
+        return true;
+    }
+
+    @ConfigItem(
+            keyName = "lockSlayer",
+            name = "Lock slayer uniques",
+            description = "Lock item families from the slayer list"
+    )
+    default boolean lockSlayer() {
+        return true;
+    }
+
     @ConfigItem(
             keyName = "inventoryOpacity",
             name = "Inventory dim opacity",
@@ -29,6 +59,44 @@ public interface NewGamePlusConfig extends Config {
     }
 
 
+    @ConfigItem(
+            keyName = "blockedEntryMode",
+            name = "Blocked menu entries",
+            description = "Grey out blocked options on locked items (kept at the bottom of the menu) or hide them entirely"
+    )
+    default BlockedEntryMode blockedEntryMode() {
+        return BlockedEntryMode.GREY_OUT;
+    }
+
+    @ConfigItem(
+            keyName = "highlightGroundItems",
+            name = "Highlight locked ground items",
+            description = "Outline ground items that would unlock something when picked up"
+    )
+    default boolean highlightGroundItems() {
+        return true;
+    }
+
+    @Alpha
+    @ConfigItem(
+            keyName = "groundItemColor",
+            name = "Ground item highlight color",
+            description = "Color of the outline and name drawn on locked ground items"
+    )
+    default Color groundItemColor() {
+        return new Color(197, 27, 138);
+    }
+
+    @ConfigItem(
+            keyName = "clientThreadBudgetMs",
+            name = "Background work budget (ms)",
+            description = "Client thread time per frame for chunked plugin work such as the login item scan"
+    )
+    @Range(min = 1, max = 16)
+    default int clientThreadBudgetMs() {
+        return 4;
+    }
+
     @ConfigItem(
             keyName = "showUnlockPopup",
             name = "Show unlock popup",
@@ -65,4 +133,13 @@ public interface NewGamePlusConfig extends Config {
     default boolean screenshotOnUnlock() {
         return false;
     }
+
+    @ConfigItem(
+            keyName = "sharedGroup",
+            name = "Shared unlock group",
+            description = "Share unlocks with other RuneLite clients on this computer that use the same group name. Leave empty to keep unlocks per client."
+    )
+    default String sharedGroup() {
+        return "";
+    }
 }
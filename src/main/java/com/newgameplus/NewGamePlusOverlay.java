@@ -1,9 +1,9 @@
 package com.newgameplus;
 
 import net.runelite.client.ui.overlay.WidgetItemOverlay;
-import net.runelite.api.widgets.WidgetItem;
+import net.runelite.api.widgets.InterfaceID;
 import net.runelite.api.widgets.Widget;
-import net.runelite.api.widgets.ComponentID;
+import net.runelite.api.widgets.WidgetItem;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -22,20 +22,30 @@ class NewGamePlusOverlay extends WidgetItemOverlay {
     private final NewGamePlusPlugin plugin;
     private final ItemManager itemManager;
     private final NewGamePlusConfig config;
+    private final BankLockIndex bankIndex;
 
     @Inject
-    private NewGamePlusOverlay(ItemManager itemManager, NewGamePlusPlugin plugin, NewGamePlusConfig config) {
+    private NewGamePlusOverlay(ItemManager itemManager, NewGamePlusPlugin plugin, NewGamePlusConfig config,
+                               BankLockIndex bankIndex) {
         this.itemManager = itemManager;
         this.plugin = plugin;
         this.config = config;
-        // Apply to inventory and bank
+        this.bankIndex = bankIndex;
+        // Apply to inventory, bank, worn equipment and the other item interfaces in the policy table
         showOnInventory();
         showOnBank();
+        showOnEquipment();
+        showOnInterfaces(InterfacePolicies.extraOverlayGroups());
     }
 
     @Override
     public void renderItemOverlay(Graphics2D graphics, int itemId, WidgetItem item) {
-        if (!plugin.isLocked(itemId)) {
+        final Widget widget = item.getWidget();
+        // Bank item widgets are indexed by container slot, so the bank index already has their verdict
+        final boolean locked = widget != null && widget.getId() >>> 16 == InterfaceID.BANK
+                ? bankIndex.isLocked(widget.getIndex(), itemId)
+                : plugin.isLocked(itemId);
+        if (!locked) {
             return;
         }
 
@@ -51,15 +61,8 @@ class NewGamePlusOverlay extends WidgetItemOverlay {
             return;
         }
 
-        // Choose opacity based on context: bank items vs inventory (including side inventory)
-        int groupId = 0;
-        Widget w = item.getWidget();
-        if (w != null) {
-            // Extract interface group id from component id (top 16 bits)
-            groupId = w.getId() >>> 16;
-        }
-        final boolean isBankItems = groupId == (ComponentID.BANK_ITEM_CONTAINER >>> 16); // bank main items container
-        final int alpha = isBankItems ? config.bankOpacity() : config.inventoryOpacity();
+        // Opacity comes from the interface the item is drawn in
+        final int alpha = InterfacePolicies.opacity(InterfacePolicies.forWidget(widget), config);
         final Color dimColor = ColorUtil.colorWithAlpha(Color.BLACK, alpha);
         final BufferedImage iconBi = ImageUtil.bufferedImageFromImage(icon);
         final BufferedImage dimmed = ImageUtil.fillImage(iconBi, dimColor);
@@ -2,39 +2,75 @@ package com.newgameplus;
 
 import net.runelite.api.Client;
 import net.runelite.client.game.ItemManager;
+import net.runelite.client.ui.ColorScheme;
 import net.runelite.client.ui.PluginPanel;
 
 import javax.swing.BorderFactory;
+import javax.swing.BoxLayout;
 import javax.swing.DefaultListModel;
 import javax.swing.JButton;
+import javax.swing.JFileChooser;
 import javax.swing.JLabel;
 import javax.swing.JList;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
+import javax.swing.JTabbedPane;
+import javax.swing.JTextArea;
 import javax.swing.ListSelectionModel;
 import javax.swing.SwingUtilities;
 import javax.swing.ListCellRenderer;
 import java.awt.BorderLayout;
+import java.awt.Color;
 import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
+import java.awt.GridLayout;
 import java.awt.Insets;
+import java.awt.Toolkit;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.StringSelection;
 import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 
-class NewGamePlusPanel extends PluginPanel {
+class NewGamePlusPanel extends PluginPanel implements UnlockChange.Listener {
     private final NewGamePlusPlugin plugin;
     private final ItemManager itemManager;
     private final Client client;
 
     private final DefaultListModel<UnlockEntry> model = new DefaultListModel<>();
     private final JList<UnlockEntry> list = new JList<>(model);
+    // Newest unlocks first, from the unlock history
+    private final DefaultListModel<TimelineEntry> timelineModel = new DefaultListModel<>();
+    private final JLabel timelineLabel = new JLabel();
+    private final JButton importBtn = new JButton();
+    // Whether a collection log import is running; Swing thread
+    private boolean importing;
+    private final JLabel auditLabel = new JLabel();
+    private final JLabel bankLabel = new JLabel();
+    // Category bars, then one bar per boss group
+    private final JPanel progressPanel = new JPanel();
+
+    private static final int PROGRESS_HEIGHT = 140;
+    // The timeline shows this many of the latest unlocks; the CSV export has all of them
+    private static final int TIMELINE_ROWS = 500;
+    private static final DateTimeFormatter TIMELINE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
+            .withZone(ZoneId.systemDefault());
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    // Keeps the model sorted by lower-cased name so deltas can be inserted in place
+    private static final Comparator<UnlockEntry> BY_NAME = Comparator.comparing(a -> a.name.toLowerCase());
 
     // No direct text input; we open a chatbox search in-game for adding items
 
@@ -49,14 +85,35 @@ class NewGamePlusPanel extends PluginPanel {
 
         // Header
         JLabel header = new JLabel("Unlocked Items");
-        header.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
-        add(header, BorderLayout.NORTH);
+        header.setBorder(BorderFactory.createEmptyBorder(8, 8, 4, 8));
+        // Aggregate audit counts for this session, below the title
+        auditLabel.setBorder(BorderFactory.createEmptyBorder(0, 8, 2, 8));
+        auditLabel.setForeground(ColorScheme.LIGHT_GRAY_COLOR);
+        setAuditText(0, 0, 0);
+        // Locked items in the bank, from the bank lock index
+        bankLabel.setBorder(BorderFactory.createEmptyBorder(0, 8, 8, 8));
+        bankLabel.setForeground(ColorScheme.LIGHT_GRAY_COLOR);
+        setBankText(false, 0, 0, 0);
+        progressPanel.setLayout(new BoxLayout(progressPanel, BoxLayout.Y_AXIS));
+        progressPanel.setBorder(BorderFactory.createEmptyBorder(0, 8, 8, 8));
+        JScrollPane progressScroll = new JScrollPane(progressPanel);
+        progressScroll.setBorder(BorderFactory.createEmptyBorder());
+        progressScroll.setPreferredSize(new Dimension(0, PROGRESS_HEIGHT));
+        JPanel top = new JPanel(new BorderLayout());
+        JPanel stats = new JPanel(new BorderLayout());
+        stats.add(auditLabel, BorderLayout.NORTH);
+        stats.add(bankLabel, BorderLayout.SOUTH);
+        top.add(header, BorderLayout.NORTH);
+        top.add(stats, BorderLayout.CENTER);
+        top.add(progressScroll, BorderLayout.SOUTH);
+        add(top, BorderLayout.NORTH);
 
         // Center list with custom renderer
         list.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         list.setCellRenderer(new UnlockRenderer());
         JScrollPane scroll = new JScrollPane(list);
-        add(scroll, BorderLayout.CENTER);
+        JPanel unlocksTab = new JPanel(new BorderLayout());
+        unlocksTab.add(scroll, BorderLayout.CENTER);
 
         // Footer controls
         JPanel controls = new JPanel(new GridBagLayout());
@@ -88,19 +145,223 @@ class NewGamePlusPanel extends PluginPanel {
         gc.fill = GridBagConstraints.HORIZONTAL;
         controls.add(clearBtn, gc);
 
-        add(controls, BorderLayout.SOUTH);
+        setImportText(false, 0, 0);
+        importBtn.setToolTipText("Unlock the items you have already obtained, read from the collection log pages you"
+                + " open");
+        gc.gridy = 3;
+        gc.gridx = 0;
+        gc.gridwidth = 1;
+        gc.weightx = 1;
+        gc.fill = GridBagConstraints.HORIZONTAL;
+        controls.add(importBtn, gc);
+
+        // Unlock codes: the whole unlock set as one line of text, for sharing and backups
+        JPanel codeRow = new JPanel(new GridLayout(1, 2, 4, 0));
+        JButton copyCodeBtn = new JButton("Copy Code");
+        copyCodeBtn.setToolTipText("Copy your unlocks to the clipboard as an unlock code");
+        JButton pasteCodeBtn = new JButton("Paste Code");
+        pasteCodeBtn.setToolTipText("Merge an unlock code into your unlocks, or replace them with it");
+        codeRow.add(copyCodeBtn);
+        codeRow.add(pasteCodeBtn);
+        gc.gridy = 4;
+        gc.gridx = 0;
+        gc.gridwidth = 1;
+        gc.weightx = 1;
+        gc.fill = GridBagConstraints.HORIZONTAL;
+        controls.add(codeRow, gc);
+
+        unlocksTab.add(controls, BorderLayout.SOUTH);
+
+        // Timeline of the unlock history, newest first
+        JList<TimelineEntry> timeline = new JList<>(timelineModel);
+        timeline.setCellRenderer(new TimelineRenderer());
+        timelineLabel.setBorder(BorderFactory.createEmptyBorder(8, 8, 4, 8));
+        timelineLabel.setForeground(ColorScheme.LIGHT_GRAY_COLOR);
+        JButton exportBtn = new JButton("Export CSV");
+        JPanel timelineControls = new JPanel(new BorderLayout());
+        timelineControls.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+        timelineControls.add(exportBtn, BorderLayout.CENTER);
+        JPanel timelineTab = new JPanel(new BorderLayout());
+        timelineTab.add(timelineLabel, BorderLayout.NORTH);
+        timelineTab.add(new JScrollPane(timeline), BorderLayout.CENTER);
+        timelineTab.add(timelineControls, BorderLayout.SOUTH);
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Unlocks", unlocksTab);
+        tabs.addTab("Timeline", timelineTab);
+        add(tabs, BorderLayout.CENTER);
 
         // Actions
         addBtn.addActionListener(e -> onAdd());
         removeBtn.addActionListener(e -> onRemove());
         clearBtn.addActionListener(e -> onClearAll());
+        importBtn.addActionListener(e -> onImport());
+        copyCodeBtn.addActionListener(e -> onCopyCode());
+        pasteCodeBtn.addActionListener(e -> onPasteCode());
+        exportBtn.addActionListener(e -> onExport());
 
         refreshFromPlugin();
     }
 
     void refreshFromPlugin() {
-        // Ask plugin to build entries on the client thread, then callback into setEntries()
+        // Full rebuild from the plugin's in-memory unlocks; setEntries() is called back with the result
         plugin.refreshPanelAsync(this);
+        refreshProgress();
+        refreshTimeline();
+    }
+
+    // Snapshot the latest history records and their item names on the calling thread, then redraw on the Swing
+    // thread
+    void refreshTimeline() {
+        UnlockHistory history = plugin.getHistory();
+        if (history == null) {
+            return;
+        }
+        List<UnlockHistory.Entry> latest = history.latest(TIMELINE_ROWS);
+        int total = history.size();
+        long start = history.getStart();
+        List<TimelineEntry> rows = new ArrayList<>(latest.size());
+        for (UnlockHistory.Entry e : latest) {
+            rows.add(new TimelineEntry(e, plugin.getItemName(e.itemId), (e.time - start) / DAY_MILLIS + 1));
+        }
+        SwingUtilities.invokeLater(() -> setTimeline(rows, total, start));
+    }
+
+    private void setTimeline(List<TimelineEntry> rows, int total, long start) {
+        timelineModel.clear();
+        for (TimelineEntry row : rows) {
+            timelineModel.addElement(row);
+        }
+        timelineLabel.setText(total == 0
+                ? "No unlocks recorded yet"
+                : total + " unlocks since " + TIMELINE_TIME.format(Instant.ofEpochMilli(start)));
+    }
+
+    // Snapshot the progress counters of the enabled lock lists on the calling thread and redraw the bars on the Swing
+    // thread
+    void refreshProgress() {
+        ProgressionCounters progress = plugin.getProgress();
+        List<LockCategory> enabled = plugin.enabledCategories();
+        List<ProgressionCounters.Progress> categories = progress.categories(enabled);
+        List<ProgressionCounters.Progress> groups = progress.groups(enabled);
+        SwingUtilities.invokeLater(() -> setProgress(categories, groups));
+    }
+
+    private void setProgress(List<ProgressionCounters.Progress> categories,
+                             List<ProgressionCounters.Progress> groups) {
+        progressPanel.removeAll();
+        for (ProgressionCounters.Progress p : categories) {
+            progressPanel.add(progressBar(p, ColorScheme.BRAND_ORANGE));
+        }
+        for (ProgressionCounters.Progress p : groups) {
+            progressPanel.add(progressBar(p, ColorScheme.PROGRESS_COMPLETE_COLOR));
+        }
+        progressPanel.revalidate();
+        progressPanel.repaint();
+    }
+
+    private static JProgressBar progressBar(ProgressionCounters.Progress p, Color color) {
+        JProgressBar bar = new JProgressBar(0, Math.max(1, p.total));
+        bar.setValue(p.unlocked);
+        bar.setStringPainted(true);
+        bar.setString(p.name + " " + p.unlocked + "/" + p.total);
+        bar.setForeground(color);
+        bar.setToolTipText(p.name + ": " + p.unlocked + " of " + p.total + " unlocked");
+        return bar;
+    }
+
+    // Called from the audit flush thread
+    void setAuditCounts(long blockedClicks, long greyed, long hidden) {
+        SwingUtilities.invokeLater(() -> setAuditText(blockedClicks, greyed, hidden));
+    }
+
+    private void setAuditText(long blockedClicks, long greyed, long hidden) {
+        auditLabel.setText("Blocked: " + blockedClicks + " clicks, " + greyed + " greyed, " + hidden + " hidden");
+    }
+
+    // Called from the client thread
+    void setBankCounts(boolean loaded, long lockedItems, int lockedStacks, int arrivals) {
+        SwingUtilities.invokeLater(() -> setBankText(loaded, lockedItems, lockedStacks, arrivals));
+    }
+
+    private void setBankText(boolean loaded, long lockedItems, int lockedStacks, int arrivals) {
+        bankLabel.setText(loaded
+                ? "Bank: " + lockedItems + " locked in " + lockedStacks + " stacks, " + arrivals + " new"
+                : "Bank: open it once to count locked items");
+    }
+
+    // Called from the client thread as collection log pages are read
+    void setImportState(boolean active, int found, int pages) {
+        SwingUtilities.invokeLater(() -> setImportText(active, found, pages));
+    }
+
+    private void setImportText(boolean active, int found, int pages) {
+        importing = active;
+        importBtn.setText(active
+                ? "Finish Import (" + found + " from " + pages + " pages)"
+                : "Import Collection Log");
+    }
+
+    // Apply a single unlock delta. Names are resolved on the calling client thread, where the name cache can be filled,
+    // then only the affected rows are touched on the Swing thread.
+    @Override
+    public void onUnlockChange(UnlockChange change) {
+        int[] addedIds = change.getAdded();
+        List<UnlockEntry> added = new ArrayList<>(addedIds.length);
+        for (int id : addedIds) {
+            added.add(new UnlockEntry(id, plugin.getItemName(id), plugin.getLockCategory(id)));
+        }
+        SwingUtilities.invokeLater(() -> applyChange(change, added));
+        refreshProgress();
+        if (addedIds.length > 0) {
+            refreshTimeline();
+        }
+    }
+
+    private void applyChange(UnlockChange change, List<UnlockEntry> added) {
+        if (change.isCleared()) {
+            model.clear();
+        }
+        int[] removedIds = change.getRemoved();
+        if (removedIds.length > 0) {
+            IntHashSet removed = new IntHashSet(removedIds.length);
+            for (int id : removedIds) {
+                removed.add(id);
+            }
+            for (int i = model.size() - 1; i >= 0; i--) {
+                if (removed.contains(model.get(i).id)) {
+                    model.remove(i);
+                }
+            }
+        }
+        for (UnlockEntry e : added) {
+            if (indexOf(e.id) < 0) {
+                model.add(insertionPoint(e), e);
+            }
+        }
+    }
+
+    private int indexOf(int id) {
+        for (int i = 0; i < model.size(); i++) {
+            if (model.get(i).id == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int insertionPoint(UnlockEntry e) {
+        int lo = 0;
+        int hi = model.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (BY_NAME.compare(model.get(mid), e) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
     }
 
     // Called by plugin on the Swing thread to update entries
@@ -112,9 +373,9 @@ class NewGamePlusPanel extends PluginPanel {
         model.clear();
         List<UnlockEntry> entries = new ArrayList<>();
         for (Map.Entry<Integer, String> e : idToName.entrySet()) {
-            entries.add(new UnlockEntry(e.getKey(), e.getValue()));
+            entries.add(new UnlockEntry(e.getKey(), e.getValue(), plugin.getLockCategory(e.getKey())));
         }
-        entries.sort(Comparator.comparing(a -> a.name.toLowerCase()));
+        entries.sort(BY_NAME);
         for (UnlockEntry e : entries) {
             model.addElement(e);
         }
@@ -133,7 +394,6 @@ class NewGamePlusPanel extends PluginPanel {
         for (UnlockEntry e : selected) {
             plugin.removeUnlock(e.id);
         }
-        refreshFromPlugin();
     }
 
     private void onClearAll() {
@@ -147,6 +407,76 @@ class NewGamePlusPanel extends PluginPanel {
         }
     }
 
+    private void onImport() {
+        if (importing) {
+            plugin.finishCollectionLogImport();
+        } else {
+            plugin.startCollectionLogImport();
+        }
+    }
+
+    private void onCopyCode() {
+        String code = plugin.exportUnlockCode();
+        Toolkit.getDefaultToolkit().getSystemClipboard().setContents(new StringSelection(code), null);
+        JOptionPane.showMessageDialog(this, "Copied " + plugin.getUnlockedItemIds().length
+                + " unlocks to the clipboard.", "Unlock code", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    private void onPasteCode() {
+        JTextArea text = new JTextArea(6, 24);
+        text.setLineWrap(true);
+        text.setText(clipboardUnlockCode());
+        Object[] options = {"Merge", "Replace", "Cancel"};
+        int choice = JOptionPane.showOptionDialog(this, new JScrollPane(text),
+                "Paste an unlock code. Merge adds its unlocks; Replace makes your unlocks exactly the code's.",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.PLAIN_MESSAGE, null, options, options[0]);
+        if (choice != 0 && choice != 1) {
+            return;
+        }
+        UnlockCodec.Decoded decoded;
+        try {
+            decoded = UnlockCodec.decodeText(text.getText());
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Could not read the unlock code: " + e.getMessage(),
+                    "Unlock code", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (decoded.listHash != plugin.getLockListHash() && JOptionPane.showConfirmDialog(this,
+                "This code was made with different lock lists (another plugin version). Import it anyway?",
+                "Unlock code", JOptionPane.OK_CANCEL_OPTION, JOptionPane.WARNING_MESSAGE) != JOptionPane.OK_OPTION) {
+            return;
+        }
+        plugin.importUnlocks(decoded.ids, choice == 1);
+    }
+
+    // Clipboard contents if they look like an unlock code, else empty
+    private static String clipboardUnlockCode() {
+        try {
+            Object data = Toolkit.getDefaultToolkit().getSystemClipboard().getData(DataFlavor.stringFlavor);
+            if (data instanceof String && ((String) data).trim().startsWith(UnlockCodec.TEXT_PREFIX)) {
+                return ((String) data).trim();
+            }
+        } catch (Exception ignored) {
+        }
+        return "";
+    }
+
+    private void onExport() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Export unlock history");
+        chooser.setSelectedFile(new File("new-game-plus-unlocks.csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        plugin.exportHistoryCsv(file, error -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Could not write " + file + ": " + error.getMessage(),
+                        "Export failed", JOptionPane.ERROR_MESSAGE);
+            }
+        }));
+    }
+
     private final class UnlockRenderer implements ListCellRenderer<UnlockEntry> {
         @Override
         public Component getListCellRendererComponent(JList<? extends UnlockEntry> jList, UnlockEntry value, int index, boolean isSelected, boolean cellHasFocus) {
@@ -165,17 +495,76 @@ class NewGamePlusPanel extends PluginPanel {
             JLabel textLabel = new JLabel(value.name);
             row.add(iconLabel);
             row.add(textLabel);
+            if (value.category != null) {
+                JLabel categoryLabel = new JLabel(value.category.getDisplayName());
+                categoryLabel.setForeground(ColorScheme.LIGHT_GRAY_COLOR);
+                row.add(categoryLabel);
+            }
+            return row;
+        }
+    }
+
+    private final class TimelineRenderer implements ListCellRenderer<TimelineEntry> {
+        @Override
+        public Component getListCellRendererComponent(JList<? extends TimelineEntry> jList, TimelineEntry value,
+                                                      int index, boolean isSelected, boolean cellHasFocus) {
+            JPanel row = new JPanel(new BorderLayout(8, 0));
+            row.setBorder(BorderFactory.createEmptyBorder(4, 8, 4, 8));
+            row.setBackground(isSelected ? jList.getSelectionBackground() : jList.getBackground());
+
+            BufferedImage icon = itemManager.getImage(value.entry.itemId, 1, false);
+            row.add(new JLabel(icon != null ? new javax.swing.ImageIcon(icon) : null), BorderLayout.WEST);
+            JPanel text = new JPanel(new BorderLayout());
+            text.setOpaque(false);
+            text.add(new JLabel(value.name), BorderLayout.NORTH);
+            JLabel detail = new JLabel(value.detail());
+            detail.setForeground(ColorScheme.LIGHT_GRAY_COLOR);
+            text.add(detail, BorderLayout.SOUTH);
+            row.add(text, BorderLayout.CENTER);
             return row;
         }
     }
 
+    private static final class TimelineEntry {
+        final UnlockHistory.Entry entry;
+        final String name;
+        // Day of the history the unlock happened on, from 1
+        final long day;
+
+        TimelineEntry(UnlockHistory.Entry entry, String name, long day) {
+            this.entry = entry;
+            this.name = name;
+            this.day = day;
+        }
+
+        // e.g. "Day 12, 2024-05-01 18:03, npc: Vorkath (kc 57)"
+        String detail() {
+            StringBuilder sb = new StringBuilder("Day ").append(day).append(", ")
+                    .append(TIMELINE_TIME.format(Instant.ofEpochMilli(entry.time))).append(", ").append(entry.source);
+            if (entry.name != null) {
+                sb.append(": ").append(entry.name);
+            }
+            if (entry.killCount >= 0) {
+                sb.append(" (kc ").append(entry.killCount).append(')');
+            }
+            return sb.toString();
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
     private static final class UnlockEntry {
         final int id;
         final String name;
+        final LockCategory category;
 
-        UnlockEntry(int id, String name) {
+        UnlockEntry(int id, String name, LockCategory category) {
             this.id = id;
             this.name = name;
+            this.category = category;
         }
 
         @Override
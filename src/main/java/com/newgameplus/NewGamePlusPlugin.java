@@ -10,13 +10,22 @@ import net.runelite.api.Client;
 import net.runelite.api.GameState;
 import net.runelite.api.InventoryID;
 import net.runelite.api.Item;
+import net.runelite.api.ItemComposition;
 import net.runelite.api.ItemContainer;
 import net.runelite.api.MenuEntry;
+import net.runelite.api.NPCComposition;
+import net.runelite.api.ScriptID;
 import net.runelite.api.events.GameStateChanged;
-import net.runelite.api.events.ClientTick;
 import net.runelite.api.events.ItemContainerChanged;
 import net.runelite.api.events.MenuOptionClicked;
 import net.runelite.api.events.MenuEntryAdded;
+import net.runelite.api.events.CommandExecuted;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.ItemDespawned;
+import net.runelite.api.events.ItemQuantityChanged;
+import net.runelite.api.events.ItemSpawned;
+import net.runelite.api.events.PostMenuSort;
+import net.runelite.api.events.MenuOpened;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.plugins.Plugin;
@@ -28,27 +37,31 @@ import net.runelite.client.ui.ClientUI;
 import net.runelite.client.ui.NavigationButton;
 import net.runelite.client.util.ImageUtil;
 import net.runelite.client.game.ItemManager;
+import net.runelite.client.game.ItemVariationMapping;
 import net.runelite.client.util.ColorUtil;
 import net.runelite.client.util.Text;
 import net.runelite.client.events.ConfigChanged;
 import net.runelite.api.events.ScriptCallbackEvent;
+import net.runelite.api.events.ScriptPostFired;
+import net.runelite.api.events.WidgetClosed;
+import net.runelite.api.widgets.InterfaceID;
 
 import java.awt.Color;
 import java.awt.image.BufferedImage;
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.regex.Pattern;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
 import net.runelite.client.game.chatbox.ChatboxItemSearch;
 import net.runelite.client.events.ServerNpcLoot;
@@ -58,10 +71,9 @@ import net.runelite.client.audio.AudioPlayer;
 import net.runelite.client.ui.DrawManager;
 import net.runelite.client.util.ImageCapture;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import net.runelite.client.RuneLite;
 
@@ -88,6 +100,24 @@ public class NewGamePlusPlugin extends Plugin {
     @Inject
     private NewGamePlusUnlockOverlay unlockOverlay;
 
+    @Inject
+    private MenuPostProcessor menuPostProcessor;
+
+    @Inject
+    private GroundItemTracker groundItems;
+
+    @Inject
+    private GroundItemOverlay groundItemOverlay;
+
+    @Inject
+    private BankLockIndex bankIndex;
+
+    @Inject
+    private CollectionLogImport collectionLogImport;
+
+    @Inject
+    private ClientThreadScheduler scheduler;
+
     @Inject
     private ConfigManager configManager;
 
@@ -110,40 +140,143 @@ public class NewGamePlusPlugin extends Plugin {
     private ImageCapture imageCapture;
 
     private NavigationButton navButton;
-    private NewGamePlusPanel panel;
+    // Read by the audit flush thread
+    private volatile NewGamePlusPanel panel;
+
+    // Background threads (audit and cache I/O, the lock table build, sounds and screenshots); null while stopped
+    private volatile WorkerScheduler workers;
+    // Persistence on the IO lane, one per file; created with workers
+    private volatile WorkerScheduler.Flusher auditFlusher;
+    private volatile WorkerScheduler.Flusher lockTableCacheFlusher;
+    private volatile WorkerScheduler.Flusher historyFlusher;
+    // Latest finished lock table save, taken by lockTableCacheFlusher; an older unsaved table is superseded
+    private final AtomicReference<Runnable> pendingLockTableSave = new AtomicReference<>();
 
-    // Background executor for playing custom unlock sounds
-    private ExecutorService audioExecutor;
+    // The audit ring is drained to the rolling audit file this often
+    private static final long AUDIT_FLUSH_SECONDS = 5;
 
-    // Background executor for saving screenshots (scheduled to allow delayed capture)
-    private ScheduledExecutorService screenshotExecutor;
+    // Bumped to abandon an in-flight precompute (shutdown, item names changed)
+    private final AtomicInteger precomputeGeneration = new AtomicInteger();
 
-    // In-memory set of unlocked item IDs. Initially empty -> everything is locked.
-    private final Set<Integer> unlockedItemIds = new HashSet<>();
+    // True while a precompute is snapshotting or evaluating; client thread only
+    private boolean precomputeRunning;
+
+    // Fingerprint of the item names (see ItemNameCache.fingerprint) and the item count it was taken for; client
+    // thread only
+    private long nameFingerprint;
+    private int nameFingerprintItemCount = -1;
+    // ItemNameCache.namesHash of the names the published table was built from, and whether every current name has
+    // been read and found to match since the fingerprint was last taken; client thread only
+    private long tableNamesHash;
+    private boolean namesVerified;
+
+    private final NewGamePlusMetrics metrics = new NewGamePlusMetrics();
+
+    // Unlocked item IDs and the item families they unlock. Initially empty -> everything is locked.
+    private final UnlockState unlockState = new UnlockState();
+
+    // Ascending copy of the unlocked ids for readers off the client thread (Swing); replaced after every change.
+    // unlockState itself is only touched on the client thread.
+    private volatile int[] unlockedSnapshot = new int[0];
+
+    // Last unlockedItemIds value written or applied by this plugin. ConfigManager posts ConfigChanged synchronously
+    // from setConfiguration, so an event carrying this value is an echo of our own write and is ignored.
+    private String syncedUnlockedCsv;
+
+    // Added/removed/cleared unlock deltas, published after unlockState changes
+    private final UnlockChangeStream unlockChanges = new UnlockChangeStream();
+
+    // Unlock progress per family, category and boss group; follows unlockChanges
+    private final ProgressionCounters progress = new ProgressionCounters();
+
+    // Blocked and deprioritized interactions, drained to new-game-plus/audit off-thread
+    private final AuditLog audit = new AuditLog();
+
+    private final AuditFile auditFile = new AuditFile(
+            RuneLite.RUNELITE_DIR.toPath().resolve("new-game-plus").resolve("audit"),
+            this::getItemName, this::getFamilyName);
+
+    // When, where from and at what kill count each item was unlocked, under new-game-plus/history; null while
+    // stopped
+    private volatile UnlockHistory history;
+
+    // Unlock set shared with other local clients in the same group; null unless a shared group is configured
+    private volatile SharedUnlockStore sharedStore;
+    private final UnlockChange.Listener sharedStoreWriter = this::writeSharedChange;
+
+    // Ground item highlights and the bank index follow the unlock set; both live on the client thread
+    private final UnlockChange.Listener lockViewRefresher = change -> refreshLockViews();
 
     // Snapshot of inventory counts used to detect newly added items (treated as picked up -> unlock)
-    private final Map<Integer, Integer> inventoryCounts = new HashMap<>();
+    private IntIntHashMap inventoryCounts = new IntIntHashMap(32);
 
     // Guard to avoid treating the initial inventory load as "picked up"
     private boolean inventorySnapshotInitialized = false;
 
-    // Compiled patterns representing unlocked name families (variants)
-    private final List<Pattern> unlockedNamePatterns = new ArrayList<>();
+    // Default-locked name families and family links loaded from resources, each family tagged with its category
+    private volatile LockLists lockLists = LockLists.EMPTY;
+
+    // Token ids shared by item names and lock families
+    private final TokenDictionary tokenDictionary = new TokenDictionary();
 
-    // Compiled patterns for default-locked name families loaded from resources
-    private final List<Pattern> defaultLockedPatterns = new ArrayList<>();
+    // Display/normalized names and token ids indexed by item id; readable from any thread
+    private final ItemNameCache itemNames = new ItemNameCache(tokenDictionary);
+
+    // Names and noted/placeholder links for lockable items, readable without the client thread
+    private final ItemMetadataService itemMetadata = new ItemMetadataService();
+
+    // Compiled lock tables from earlier sessions, keyed by a fingerprint of the item names and the lock list hash
+    private final LockTableCache lockTableCache = new LockTableCache(
+            RuneLite.RUNELITE_DIR.toPath().resolve("new-game-plus").resolve("cache"));
+
+    // Lock verdicts from the lock table (built once from the item corpus), the enabled categories and the unlocks
+    private final LockEngine engine = new LockEngine(unlockState);
+
+    // Last bank search string seen by the bankSearchFilter callback and its parsed form
+    private String lastBankSearch;
+    private BankSearch lastBankSearchParsed;
 
     @Override
     protected void startUp() throws Exception {
-        // Load persisted unlocks
-        loadUnlockedFromConfig();
-        rebuildUnlockedNames();
-        loadDefaultLockedNames();
-        inventorySnapshotInitialized = false;
-        // Defer inventory snapshot to when we are LOGGED_IN, on the client thread
+        unlockChanges.subscribe(progress);
+        unlockChanges.subscribe(sharedStoreWriter);
+        unlockChanges.subscribe(lockViewRefresher);
+        lockLists = LockLists.load(tokenDictionary);
+        workers = new WorkerScheduler();
+        auditFlusher = workers.flusher(WorkerScheduler.Lane.IO, "audit flush", this::flushAudit);
+        lockTableCacheFlusher = workers.flusher(WorkerScheduler.Lane.IO, "lock table cache save", () -> {
+            Runnable save = pendingLockTableSave.getAndSet(null);
+            if (save != null) {
+                save.run();
+            }
+        });
+        final UnlockHistory h = new UnlockHistory(RuneLite.RUNELITE_DIR.toPath().resolve("new-game-plus")
+                .resolve("history"));
+        history = h;
+        historyFlusher = workers.flusher(WorkerScheduler.Lane.IO, "unlock history", h::flush);
+        workers.submit(WorkerScheduler.Lane.IO, "unlock history load", () -> {
+            log.debug("NG+: loaded {} unlock history records", h.load());
+            NewGamePlusPanel p = panel;
+            if (p != null) {
+                p.refreshTimeline();
+            }
+        });
+        // The unlock and lock state belongs to the client thread, and a previous shutDown's reset may still be queued
+        // there; this runs after it. Load persisted unlocks, merge with the shared group (if any), judge items by name
+        // until the lock table is published, then start the precompute and inventory snapshot.
         clientThread.invoke(() -> {
+            loadUnlockedFromConfig();
+            openSharedStore();
+            engine.setProvisional(new ProvisionalLocks(lockLists.families, lockLists.links, this::resolveItemName));
+            engine.enable(enabledCategories());
+            inventorySnapshotInitialized = false;
+            if (panel != null) {
+                panel.refreshFromPlugin();
+            }
+            startLockTablePrecompute();
             if (client.getGameState() == GameState.LOGGED_IN) {
-                initializeInventorySnapshot();
+                scheduler.submit("inventory snapshot", ClientThreadScheduler.Priority.NORMAL,
+                        this::initializeInventorySnapshot);
             }
         });
 
@@ -151,28 +284,22 @@ public class NewGamePlusPlugin extends Plugin {
         overlayManager.add(overlay);
         // Register unlock popup overlay
         overlayManager.add(unlockOverlay);
+        // Register ground item highlights
+        overlayManager.add(groundItemOverlay);
 
-        // Prepare audio executor and ensure custom sound directory exists
-        audioExecutor = Executors.newSingleThreadExecutor(r -> {
-            Thread t = new Thread(r, "ngp-audio");
-            t.setDaemon(true);
-            return t;
-        });
+        // Ensure custom sound directory exists
         try {
             Path dir = RuneLite.RUNELITE_DIR.toPath().resolve("new-game-plus");
             Files.createDirectories(dir);
         } catch (IOException ignored) {
         }
 
-        // Prepare screenshot executor (scheduled) for delayed capture
-        screenshotExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "ngp-screenshot");
-            t.setDaemon(true);
-            return t;
-        });
+        // Drain the audit ring in batches rather than writing per interaction
+        workers.scheduleWithFixedDelay(auditFlusher, AUDIT_FLUSH_SECONDS, TimeUnit.SECONDS);
 
         // Create and add sidebar panel
         panel = new NewGamePlusPanel(this, itemManager, client);
+        unlockChanges.subscribe(panel);
         BufferedImage icon = null;
         try {
             icon = ImageUtil.loadImageResource(NewGamePlusPlugin.class, "/newgameplus-icon.png");
@@ -192,7 +319,7 @@ public class NewGamePlusPlugin extends Plugin {
                 .panel(panel)
                 .build();
         clientToolbar.addNavigation(navButton);
-        // Ensure the panel reflects any unlocks just loaded from config
+        // Ensure the panel reflects the unlocks if the client thread loaded them already
         if (panel != null) {
             panel.refreshFromPlugin();
         }
@@ -200,22 +327,54 @@ public class NewGamePlusPlugin extends Plugin {
 
     @Override
     protected void shutDown() throws Exception {
-        unlockedItemIds.clear();
-        inventoryCounts.clear();
-        inventorySnapshotInitialized = false;
+        // Abandon in-flight precompute and scheduler work right away
+        precomputeGeneration.incrementAndGet();
+        scheduler.clear();
+        unlockChanges.clear();
+        closeSharedStore();
         overlayManager.remove(overlay);
+        overlayManager.remove(groundItemOverlay);
+        // The rest is client thread state; a restart's startUp queues its setup behind this reset
+        final LockLists lists = lockLists;
+        clientThread.invoke(() -> {
+            unlockState.clear();
+            unlockedSnapshot = new int[0];
+            engine.reset();
+            progress.rebuild(ItemFamilyGraph.EMPTY, lists.families, new int[0]);
+            inventoryCounts.clear();
+            inventorySnapshotInitialized = false;
+            precomputeRunning = false;
+            nameFingerprintItemCount = -1;
+            namesVerified = false;
+            itemNames.clear();
+            itemMetadata.clear();
+            lastBankSearch = null;
+            lastBankSearchParsed = null;
+            menuPostProcessor.reset();
+            groundItems.clear();
+            bankIndex.clear();
+            collectionLogImport.clear();
+        });
         if (unlockOverlay != null) {
             overlayManager.remove(unlockOverlay);
             unlockOverlay.clear();
         }
-        if (audioExecutor != null) {
-            audioExecutor.shutdownNow();
-            audioExecutor = null;
-        }
-        if (screenshotExecutor != null) {
-            screenshotExecutor.shutdownNow();
-            screenshotExecutor = null;
-        }
+        if (workers != null) {
+            // Write out what is still buffered; the IO lane finishes its queue, everything else is cancelled
+            workers.submitAndWait(WorkerScheduler.Lane.IO, "audit flush", this::flushAudit);
+            final UnlockHistory h = history;
+            workers.submitAndWait(WorkerScheduler.Lane.IO, "unlock history close", () -> {
+                h.flush();
+                h.close();
+            });
+            workers.shutdown();
+            workers = null;
+            auditFlusher = null;
+            lockTableCacheFlusher = null;
+            historyFlusher = null;
+            pendingLockTableSave.set(null);
+        }
+        history = null;
         if (navButton != null) {
             clientToolbar.removeNavigation(navButton);
             navButton = null;
@@ -232,21 +391,26 @@ public class NewGamePlusPlugin extends Plugin {
             return;
         }
 
-        boolean changed = false;
+        final NPCComposition npc = event.getComposition();
+        final String npcName = npc != null ? npc.getName() : null;
+        final int npcId = npc != null ? npc.getId() : -1;
+        IntHashSet unlocked = new IntHashSet();
         for (net.runelite.client.game.ItemStack is : items) {
             if (is == null) {
                 continue;
             }
-            int id = is.getId();
+            // Noted drops unlock (and are announced as) their base item
+            int id = engine.canonicalId(is.getId());
             if (id <= 0) {
                 continue;
             }
-            // Only auto-unlock if the item is currently locked
-            if (isLocked(id) && unlockedItemIds.add(id)) {
-                changed = true;
+            // Only auto-unlock if the item is known to be locked
+            if (wouldUnlock(id) && unlockState.add(id)) {
+                unlocked.add(id);
+                recordUnlock(id, UnlockHistory.Source.NPC_LOOT, npcName, npcId);
                 // If the item was locked, unlock it and notify the user with selected configuration notifications
                 try {
-                    String name = itemManager.getItemComposition(id).getName();
+                    String name = getItemName(id);
                     postGameMessage(ColorUtil.prependColorTag("NG+: Unlocked " + name + "!", new Color(197, 27, 138)));
                     showUnlockPopup(id);
                     playUnlockSound();
@@ -256,12 +420,9 @@ public class NewGamePlusPlugin extends Plugin {
             }
         }
 
-        if (changed) {
+        if (!unlocked.isEmpty()) {
             saveUnlockedToConfig();
-            rebuildUnlockedNames();
-            if (panel != null) {
-                panel.refreshFromPlugin();
-            }
+            publishUnlockChange(UnlockChange.added(unlocked.toSortedArray()));
         }
     }
 
@@ -280,19 +441,20 @@ public class NewGamePlusPlugin extends Plugin {
             return;
         }
 
-        boolean changed = false;
+        IntHashSet unlocked = new IntHashSet();
         for (net.runelite.client.game.ItemStack is : items) {
             if (is == null) {
                 continue;
             }
-            final int id = is.getId();
+            final int id = engine.canonicalId(is.getId());
             if (id <= 0) {
                 continue;
             }
-            if (isLocked(id) && unlockedItemIds.add(id)) {
-                changed = true;
+            if (wouldUnlock(id) && unlockState.add(id)) {
+                unlocked.add(id);
+                recordUnlock(id, UnlockHistory.Source.EVENT_LOOT, event.getName(), -1);
                 try {
-                    String name = itemManager.getItemComposition(id).getName();
+                    String name = getItemName(id);
                     postGameMessage(ColorUtil.prependColorTag("NG+: Unlocked " + name + "!", new Color(197, 27, 138)));
                     showUnlockPopup(id);
                     playUnlockSound();
@@ -302,21 +464,38 @@ public class NewGamePlusPlugin extends Plugin {
             }
         }
 
-        if (changed) {
+        if (!unlocked.isEmpty()) {
             saveUnlockedToConfig();
-            rebuildUnlockedNames();
-            if (panel != null) {
-                panel.refreshFromPlugin();
-            }
+            publishUnlockChange(UnlockChange.added(unlocked.toSortedArray()));
         }
     }
 
     @Subscribe
     public void onGameStateChanged(GameStateChanged gameStateChanged) {
-        if (gameStateChanged.getGameState() == GameState.LOGGED_IN) {
+        final GameState state = gameStateChanged.getGameState();
+        if (state == GameState.LOGIN_SCREEN || state == GameState.LOGGED_IN) {
+            // Item definitions are available from the login screen onwards
+            clientThread.invoke(this::startLockTablePrecompute);
+        }
+        if (state == GameState.LOADING || state == GameState.LOGIN_SCREEN || state == GameState.HOPPING) {
+            // The scene is replaced; items in the new scene are spawned again
+            groundItems.clear();
+        }
+        if (state == GameState.LOGIN_SCREEN && bankIndex.isLoaded()) {
+            // Possibly another account next; its bank arrives as a fresh baseline
+            bankIndex.clear();
+            publishBankCounts();
+        }
+        if (state == GameState.LOGIN_SCREEN && collectionLogImport.isActive()) {
+            // The pages read so far may belong to the account that just logged out
+            collectionLogImport.clear();
+            publishImportState();
+        }
+        if (state == GameState.LOGGED_IN) {
             // Reset and initialize snapshot on the client thread after login
             inventorySnapshotInitialized = false;
-            clientThread.invoke(this::initializeInventorySnapshot);
+            scheduler.submit("inventory snapshot", ClientThreadScheduler.Priority.NORMAL,
+                    this::initializeInventorySnapshot);
         }
     }
 
@@ -326,71 +505,89 @@ public class NewGamePlusPlugin extends Plugin {
             return;
         }
         if ("unlockedItemIds".equals(event.getKey())) {
-            loadUnlockedFromConfig();
-            rebuildUnlockedNames();
-            if (panel != null) {
-                panel.refreshFromPlugin();
-            }
+            // Runs at once for our own (client thread) writes; the value is re-read when the change is applied
+            clientThread.invoke(this::applyExternalUnlocks);
+        } else if ("lockBosses".equals(event.getKey())
+                || "lockRaids".equals(event.getKey())
+                || "lockSlayer".equals(event.getKey())) {
+            // Category toggles only re-OR the precomputed bitsets; no pattern or item rescans
+            rebuildEnabledLocks();
+        } else if ("sharedGroup".equals(event.getKey())) {
+            clientThread.invoke(this::openSharedStore);
         }
     }
 
     @Subscribe
-    public void onClientTick(ClientTick tick) {
-        // Keep blocked entries visible but faded (deprioritized); leave allowed entries (e.g., Take/Examine/Cancel) as-is
-        MenuEntry[] entries = client.getMenuEntries();
-        if (entries == null || entries.length == 0) {
-            return;
-        }
+    public void onItemSpawned(ItemSpawned event) {
+        groundItems.spawned(event.getTile(), event.getItem());
+    }
 
-        boolean mutated = false;
-        for (MenuEntry entry : entries) {
-            if (!allowMenuEntry(entry)) {
-                // Fade out disallowed entries on locked items
-                entry.setDeprioritized(true);
-                String option = entry.getOption();
-                if (option != null && !isColored(option)) {
-                    entry.setOption(ColorUtil.prependColorTag(option, Color.GRAY));
-                }
-                String target = entry.getTarget();
-                if (target != null) {
-                    entry.setTarget(ColorUtil.prependColorTag(Text.removeTags(target), Color.GRAY));
-                }
-                mutated = true;
+    @Subscribe
+    public void onItemDespawned(ItemDespawned event) {
+        groundItems.despawned(event.getTile(), event.getItem());
+    }
+
+    @Subscribe
+    public void onItemQuantityChanged(ItemQuantityChanged event) {
+        groundItems.quantityChanged(event.getTile(), event.getItem(), event.getOldQuantity());
+    }
+
+    private void refreshLockViews() {
+        clientThread.invoke(() -> {
+            groundItems.refresh();
+            if (bankIndex.refresh()) {
+                publishBankCounts();
             }
+        });
+    }
+
+    private void publishBankCounts() {
+        NewGamePlusPanel p = panel;
+        if (p != null) {
+            p.setBankCounts(bankIndex.isLoaded(), bankIndex.lockedItems(), bankIndex.lockedStacks(),
+                    bankIndex.lockedArrivals());
         }
+    }
 
-        if (mutated) {
-            client.setMenuEntries(entries);
+    @Subscribe
+    public void onScriptPostFired(ScriptPostFired event) {
+        if (event.getScriptId() == ScriptID.COLLECTION_DRAW_LIST
+                && collectionLogImport.pageDrawn(engine::canonicalId, this::isImportable)) {
+            publishImportState();
         }
     }
 
+    @Subscribe
+    public void onWidgetClosed(WidgetClosed event) {
+        // Closing the collection log ends the import
+        if (event.getGroupId() == InterfaceID.COLLECTION_LOG) {
+            commitCollectionLogImport();
+        }
+    }
+
+    @Subscribe
+    public void onGameTick(GameTick event) {
+        pollSharedStore();
+    }
+
     @Subscribe
     public void onMenuEntryAdded(MenuEntryAdded event) {
+        // Only note that this menu build has a locked item entry; the whole menu is processed once after sorting
         final int itemId = event.getItemId();
-        final String option = event.getOption();
-        if (itemId <= 0 || option == null) {
-            return;
+        if (itemId > 0 && isLocked(itemId)) {
+            menuPostProcessor.lockedEntryAdded();
         }
+    }
 
-        if (allowOption(itemId, option)) {
-            return;
-        }
+    @Subscribe
+    public void onPostMenuSort(PostMenuSort event) {
+        menuPostProcessor.process();
+    }
 
-        MenuEntry[] entries = client.getMenuEntries();
-        if (entries == null || entries.length == 0) {
-            return;
-        }
-        MenuEntry last = entries[entries.length - 1];
-        last.setDeprioritized(true);
-        String lastOpt = last.getOption();
-        if (lastOpt != null && !isColored(lastOpt)) {
-            last.setOption(ColorUtil.prependColorTag(lastOpt, Color.GRAY));
-        }
-        String target = last.getTarget();
-        if (target != null) {
-            last.setTarget(ColorUtil.prependColorTag(Text.removeTags(target), Color.GRAY));
-        }
-        client.setMenuEntries(entries);
+    @Subscribe
+    public void onMenuOpened(MenuOpened event) {
+        // Audit the blocked entries of the menu the player actually opened, not every per-frame rebuild
+        menuPostProcessor.menuOpened();
     }
 
     @Subscribe
@@ -422,17 +619,35 @@ public class NewGamePlusPlugin extends Plugin {
             return;
         }
         final String searchRaw = (String) searchObj;
-        final String search = Text.removeTags(searchRaw).toLowerCase().trim();
+        // The callback fires once per bank item; only re-parse when the search text changes
+        if (!searchRaw.equals(lastBankSearch))
+        {
+            lastBankSearch = searchRaw;
+            lastBankSearchParsed = BankSearch.parse(Text.removeTags(searchRaw).toLowerCase().trim());
+        }
+        final BankSearch search = lastBankSearchParsed;
+        if (search == null)
+        {
+            return;
+        }
+        if (search.category != null && getLockCategory(itemId) != search.category)
+        {
+            return;
+        }
+        if (search.group != null && !progress.inGroup(engine.canonicalId(itemId), search.group))
+        {
+            return;
+        }
 
-        if (search.equals("is:unlocked"))
+        if (search.unlocked)
         {
             // Only include items that were default-locked by the plugin and are now unlocked
-            if (wasDefaultLocked(itemId) && !isLocked(itemId))
+            if (engine.isLockable(itemId) && !isLocked(itemId))
             {
                 intStack[intStackSize - 2] = 1; // match
             }
         }
-        else if (search.equals("is:locked"))
+        else
         {
             if (isLocked(itemId))
             {
@@ -441,6 +656,74 @@ public class NewGamePlusPlugin extends Plugin {
         }
     }
 
+    // Parsed "is:locked" / "is:unlocked" bank search, optionally narrowed to a category and/or a boss group
+    // (e.g. "is:locked raids", "is:locked boss:vorkath")
+    private static final class BankSearch
+    {
+        private static final String GROUP_PREFIX = "boss:";
+
+        final boolean unlocked;
+        final LockCategory category;
+        // ProgressionCounters group key, or null
+        final String group;
+
+        private BankSearch(boolean unlocked, LockCategory category, String group)
+        {
+            this.unlocked = unlocked;
+            this.category = category;
+            this.group = group;
+        }
+
+        // Returns null if the search is not one of ours
+        static BankSearch parse(String search)
+        {
+            String[] terms = search.split("\\s+");
+            if (terms.length == 0 || terms.length > 3)
+            {
+                return null;
+            }
+            final boolean unlocked;
+            if (terms[0].equals("is:unlocked"))
+            {
+                unlocked = true;
+            }
+            else if (terms[0].equals("is:locked"))
+            {
+                unlocked = false;
+            }
+            else
+            {
+                return null;
+            }
+            LockCategory category = null;
+            String group = null;
+            for (int i = 1; i < terms.length; i++)
+            {
+                if (terms[i].startsWith(GROUP_PREFIX) && group == null)
+                {
+                    group = ProgressionCounters.groupKey(terms[i].substring(GROUP_PREFIX.length()));
+                    if (group.isEmpty())
+                    {
+                        return null;
+                    }
+                }
+                else if (category == null)
+                {
+                    category = LockCategory.fromSearchTerm(terms[i]);
+                    if (category == null)
+                    {
+                        return null;
+                    }
+                }
+                else
+                {
+                    return null;
+                }
+            }
+            return new BankSearch(unlocked, category, group);
+        }
+    }
+
     @Subscribe
     public void onMenuOptionClicked(MenuOptionClicked event) {
         MenuEntry entry = event.getMenuEntry();
@@ -451,13 +734,24 @@ public class NewGamePlusPlugin extends Plugin {
         final String option = entry.getOption();
         final int itemId = entry.getItemId();
         // Only consume item interactions that are not allowed for locked items.
-        if (itemId > 0 && !allowOption(itemId, option)) {
-            event.consume();
+        if (itemId > 0) {
+            BlockedVerb verb = blockedVerb(itemId, option, InterfacePolicies.forMenuEntry(entry));
+            if (verb != null) {
+                event.consume();
+                recordAudit(AuditLog.Kind.BLOCKED_CLICK, itemId, verb);
+            }
         }
     }
 
     @Subscribe
     public void onItemContainerChanged(ItemContainerChanged event) {
+        if (event.getContainerId() == InventoryID.BANK.getId()) {
+            ItemContainer bank = event.getItemContainer();
+            if (bank != null && bankIndex.update(bank.getItems())) {
+                publishBankCounts();
+            }
+            return;
+        }
         if (event.getContainerId() != InventoryID.INVENTORY.getId()) {
             return;
         }
@@ -478,14 +772,14 @@ public class NewGamePlusPlugin extends Plugin {
                 if (id <= 0) {
                     continue;
                 }
-                inventoryCounts.merge(id, item.getQuantity(), Integer::sum);
+                inventoryCounts.addTo(id, item.getQuantity());
             }
             inventorySnapshotInitialized = true;
             return;
         }
 
         // Detect newly added items and unlock those item IDs
-        Map<Integer, Integer> newCounts = new HashMap<>();
+        IntIntHashMap newCounts = new IntIntHashMap(32);
         for (Item item : container.getItems()) {
             if (item == null) {
                 continue;
@@ -494,18 +788,19 @@ public class NewGamePlusPlugin extends Plugin {
             if (id <= 0) {
                 continue;
             }
-            newCounts.merge(id, item.getQuantity(), Integer::sum);
+            newCounts.addTo(id, item.getQuantity());
         }
 
-        for (Map.Entry<Integer, Integer> e : newCounts.entrySet()) {
-            int id = e.getKey();
-            int newQty = e.getValue();
-            int oldQty = inventoryCounts.getOrDefault(id, 0);
+        final IntIntHashMap oldCounts = inventoryCounts;
+        newCounts.forEach((itemId, newQty) -> {
+            int oldQty = oldCounts.get(itemId, 0);
             if (newQty > oldQty) {
-                if (isLocked(id) && unlockedItemIds.add(id)) {
+                final int id = engine.canonicalId(itemId);
+                if (wouldUnlock(id) && unlockState.add(id)) {
                     log.debug("Unlocked item id {} via inventory increase ({} -> {})", id, oldQty, newQty);
+                    recordUnlock(id, UnlockHistory.Source.INVENTORY, null, -1);
                     try {
-                        String name = itemManager.getItemComposition(id).getName();
+                        String name = getItemName(id);
                         postGameMessage(ColorUtil.prependColorTag("NG+: Unlocked " + name + "!", new Color(197, 27, 138)));
                         showUnlockPopup(id);
                         playUnlockSound();
@@ -513,17 +808,13 @@ public class NewGamePlusPlugin extends Plugin {
                     } catch (Exception ignored) {
                     }
                     saveUnlockedToConfig();
-                    rebuildUnlockedNames();
-                    if (panel != null) {
-                        panel.refreshFromPlugin();
-                    }
+                    publishUnlockChange(UnlockChange.added(id));
                 }
             }
-        }
+        });
 
         // Update snapshot
-        inventoryCounts.clear();
-        inventoryCounts.putAll(newCounts);
+        inventoryCounts = newCounts;
     }
 
     private void initializeInventorySnapshot() {
@@ -541,157 +832,492 @@ public class NewGamePlusPlugin extends Plugin {
             if (id <= 0) {
                 continue;
             }
-            inventoryCounts.merge(id, item.getQuantity(), Integer::sum);
+            inventoryCounts.addTo(id, item.getQuantity());
         }
         inventorySnapshotInitialized = true;
     }
 
-    private boolean allowMenuEntry(MenuEntry entry) {
-        // Only consider entries tied to an item id
-        int itemId = entry.getItemId();
-        if (itemId <= 0) {
-            return true; // not an item interaction
-        }
+    boolean allowOption(int itemId, String option) {
+        return blockedVerb(itemId, option) == null;
+    }
 
-        return allowOption(itemId, entry.getOption());
+    BlockedVerb blockedVerb(int itemId, String option) {
+        return blockedVerb(itemId, option, InterfacePolicy.DEFAULT);
     }
 
-    private boolean allowOption(int itemId, String option) {
-        // If item is unlocked, allow normal behavior
-        if (!isLocked(itemId)) {
-            return true;
-        }
+    // The verb that makes this option blocked in the given interface, or null if it is allowed
+    BlockedVerb blockedVerb(int itemId, String option, InterfacePolicy policy) {
+        return engine.blockedVerb(itemId, option, policy);
+    }
 
-        // Blacklist approach: disallow specific actions on locked items; allow everything else
-        if (option == null) {
-            return true; // not an actionable verb we recognize; allow
-        }
+    // Record a blocked interaction along with the family that locks the item; allocation-free. Noted, placeholder and
+    // charged forms are recorded as clicked but belong to their base item's family.
+    void recordAudit(AuditLog.Kind kind, int itemId, BlockedVerb verb) {
+        audit.record(kind, itemId, verb, engine.getFamilyGraph().familyOf(engine.canonicalId(itemId)));
+    }
+
+    private String getFamilyName(int root) {
+        String name = engine.getFamilyGraph().familyName(root);
+        return name != null ? name : "#" + root;
+    }
 
-        // Compare without any color tags, case-insensitive
-        String opt = Text.removeTags(option).toLowerCase();
+    private String auditSummary() {
+        return "audit blocked=" + audit.count(AuditLog.Kind.BLOCKED_CLICK)
+                + ", greyed=" + audit.count(AuditLog.Kind.DEPRIORITIZED)
+                + ", hidden=" + audit.count(AuditLog.Kind.HIDDEN)
+                + ", dropped=" + audit.dropped();
+    }
 
-        // Disallowed verbs for locked items
-        // - wear, wield, use, check, revert
-        // - withdraw and all variants (withdraw-1, withdraw-5, withdraw-all, withdraw-all but one, etc.)
-        if (opt.equals("wear")
-                || opt.equals("wield")
-                || opt.equals("use")
-                || opt.equals("check")
-                || opt.equals("revert")
-                || opt.startsWith("withdraw")) {
-            return false;
+    // IO lane only
+    private void flushAudit() {
+        try {
+            int written = auditFile.flush(audit);
+            if (written > 0) {
+                log.debug("NG+: wrote {} audit records ({} dropped so far)", written, audit.dropped());
+            }
+        } catch (IOException e) {
+            log.warn("NG+: failed to write the audit log", e);
+        }
+        NewGamePlusPanel p = panel;
+        if (p != null) {
+            p.setAuditCounts(audit.count(AuditLog.Kind.BLOCKED_CLICK), audit.count(AuditLog.Kind.DEPRIORITIZED),
+                    audit.count(AuditLog.Kind.HIDDEN));
         }
-
-        // Everything else is allowed (e.g. take, examine, cancel, view/select, deposit, etc.)
-        return true;
     }
 
-    // Determine if an item is locked considering user unlocks (by id and by name) and default-locked names
+    // Determine if an item is locked considering user unlocks (by id and by family) and the enabled lock lists
     public boolean isLocked(int itemId) {
-        if (itemId <= 0) {
-            return false;
-        }
-        // Explicit user unlocks by id
-        if (unlockedItemIds.contains(itemId)) {
-            return false;
+        return engine.isLocked(itemId);
+    }
+
+    // Obtaining this item unlocks it: it is known to be locked (an item the lock lists can't judge yet is left alone)
+    public boolean wouldUnlock(int itemId) {
+        return engine.wouldUnlock(itemId);
+    }
+
+    // Category whose list locks this item, or null if it is not lockable (or the item scan has not run yet)
+    public LockCategory getLockCategory(int itemId) {
+        return engine.categoryOf(itemId);
+    }
+
+    private boolean isCategoryEnabled(LockCategory category) {
+        switch (category) {
+            case BOSSES:
+                return config.lockBosses();
+            case RAIDS:
+                return config.lockRaids();
+            case SLAYER:
+                return config.lockSlayer();
+            default:
+                return false;
         }
-        // Resolve name for name-based checks
-        String normName;
-        try {
-            String name = itemManager.getItemComposition(itemId).getName();
-            normName = normalizeName(name);
-        } catch (Exception e) {
-            // If we cannot resolve the name, do not over-lock
-            return false;
+    }
+
+    // Recompute the enabled lock set from the precomputed category bitsets
+    private void rebuildEnabledLocks() {
+        engine.enable(enabledCategories());
+        refreshLockViews();
+        NewGamePlusPanel p = panel;
+        if (p != null) {
+            p.refreshProgress();
         }
+    }
 
-        // User unlocks by name families (variant unlocking via wildcard patterns)
-        for (Pattern p : unlockedNamePatterns) {
-            if (p.matcher(normName).matches()) {
-                return false;
+    List<LockCategory> enabledCategories() {
+        List<LockCategory> enabled = new ArrayList<>();
+        for (LockCategory c : LockCategory.values()) {
+            if (isCategoryEnabled(c)) {
+                enabled.add(c);
             }
         }
+        return enabled;
+    }
 
-        // Apply default locks (name families via wildcard patterns)
-        for (Pattern p : defaultLockedPatterns) {
-            if (p.matcher(normName).matches()) {
-                return true;
+    // Precompute lock verdicts for the whole item id space so the first bank open doesn't pay for cold lookups.
+    // The on-disk cache is tried first on the background pool; on a hit the table is published without waiting for
+    // item definitions. Phase 1 then snapshots every item name into the name cache on the client thread as bulk
+    // scheduler work. After a hit (or a new fingerprint with a table already published) the snapshot only verifies
+    // the table, since the sampled fingerprint can miss a rename; if the names differ, or on a miss, phase 2 matches
+    // all names against the lock lists in parallel on the background pool and the finished table is saved to the
+    // cache and published in one step on the client thread.
+    // Must be called on the client thread.
+    private void startLockTablePrecompute() {
+        if (lockLists.isEmpty() || workers == null) {
+            return;
+        }
+        final GameState state = client.getGameState();
+        if (state != GameState.LOGIN_SCREEN && state != GameState.LOGGED_IN) {
+            return;
+        }
+        final int itemCount = client.getItemCount();
+        if (itemCount <= 0) {
+            return;
+        }
+        // Item definitions only change in a game update, which goes back to the login screen, so the fingerprint is
+        // taken there rather than after every loading screen
+        if (state == GameState.LOGIN_SCREEN || itemCount != nameFingerprintItemCount) {
+            nameFingerprint = ItemNameCache.fingerprint(client.getRevision(), itemCount, this::definitionName);
+            nameFingerprintItemCount = itemCount;
+            namesVerified = false;
+        }
+        // A game update can rename items, so cached names and the table built from them are stale
+        if (itemNames.validate(nameFingerprint, itemCount)) {
+            log.debug("NG+: item names changed, rebuilding lock table");
+            precomputeGeneration.incrementAndGet();
+            precomputeRunning = false;
+            engine.invalidate();
+        }
+        if (precomputeRunning) {
+            return;
+        }
+        if (engine.getTable() != null) {
+            if (!namesVerified) {
+                precomputeRunning = true;
+                snapshotItemNames(precomputeGeneration.incrementAndGet(), itemCount, nameFingerprint, lockLists.hash,
+                        true);
             }
+            return;
         }
+        precomputeRunning = true;
+        final int generation = precomputeGeneration.incrementAndGet();
+        // The cached table is only reused for the same item names, not just the same client revision
+        final long nameFingerprint = this.nameFingerprint;
+        final long listHash = lockLists.hash;
+        metrics.precomputeStarted(itemCount);
 
-        // Otherwise unlocked by default
-        return false;
+        boolean queued = workers.submit(WorkerScheduler.Lane.IO, "lock table cache load", () ->
+        {
+            LockTableCache.Entry cached = lockTableCache.load(nameFingerprint, itemCount, listHash);
+            clientThread.invoke(() -> {
+                if (generation != precomputeGeneration.get()) {
+                    return;
+                }
+                if (cached != null) {
+                    for (int i = 0; i < cached.nameIds.length; i++) {
+                        if (itemNames.get(cached.nameIds[i]) == null) {
+                            itemNames.put(cached.nameIds[i], cached.displayNames[i], cached.normalizedNames[i]);
+                        }
+                    }
+                    metrics.cacheHit();
+                    publishLockTable(generation, cached.table, itemCount, cached.namesHash, false);
+                    // The fingerprint only samples the names, so the table stands until every name is read
+                    precomputeRunning = true;
+                    snapshotItemNames(generation, itemCount, nameFingerprint, listHash, true);
+                } else {
+                    metrics.cacheMissed();
+                    snapshotItemNames(generation, itemCount, nameFingerprint, listHash, false);
+                }
+            });
+        });
+        if (!queued) {
+            precomputeRunning = false;
+        }
     }
 
-    // Determine if an item would be considered default-locked based on name families
-    private boolean wasDefaultLocked(int itemId)
-    {
-        if (itemId <= 0)
+    // Reads every name from its item definition rather than through the name cache, so names cached before a rename
+    // the fingerprint missed are replaced. With verify set the published table is kept if the names hash to what it
+    // was built from; otherwise the table is (re)built from the fresh names.
+    private void snapshotItemNames(int generation, int itemCount, long nameFingerprint, long listHash,
+                                   boolean verify) {
+        final int[] cursor = {0};
+        final long[] namesHash = {ItemNameCache.namesHashStart(itemCount)};
+        scheduler.submit("lock table name snapshot", ClientThreadScheduler.Priority.BULK, deadline ->
         {
-            return false;
+            if (generation != precomputeGeneration.get()) {
+                return true; // abandoned
+            }
+            while (cursor[0] < itemCount) {
+                int itemId = cursor[0]++;
+                String name = definitionName(itemId);
+                namesHash[0] = ItemNameCache.mixName(namesHash[0], name);
+                ItemNameCache.Entry cached = itemNames.get(itemId);
+                if (name != null && (cached == null || !name.equals(cached.displayName))) {
+                    itemNames.put(itemId, name, LockLists.normalizeName(name));
+                }
+                if ((cursor[0] & 63) == 0 && System.nanoTime() > deadline) {
+                    break;
+                }
+            }
+            metrics.snapshotSlice(cursor[0]);
+            if (cursor[0] < itemCount) {
+                return false; // resume on a later frame
+            }
+            metrics.snapshotFinished();
+            if (verify && namesHash[0] == tableNamesHash && engine.getTable() != null) {
+                precomputeRunning = false;
+                namesVerified = true;
+                return true;
+            }
+            if (verify) {
+                // Renamed outside the fingerprint's sample: judge by the fresh names until the rebuild lands
+                log.debug("NG+: item names differ from the lock table's, rebuilding");
+                engine.invalidate();
+            }
+            evaluateLockTable(generation, itemCount, nameFingerprint, namesHash[0], listHash);
+            return true;
+        });
+    }
+
+    private void evaluateLockTable(int generation, int itemCount, long nameFingerprint, long namesHash,
+                                   long listHash) {
+        final WorkerScheduler w = workers;
+        if (w == null) {
+            precomputeRunning = false;
+            return;
         }
-        String normName;
-        try
+        final LockLists lists = lockLists;
+        // Names are all cached now, so the workers only read the name cache
+        boolean queued = w.submit(WorkerScheduler.Lane.CPU, "lock table build", () ->
         {
-            String name = itemManager.getItemComposition(itemId).getName();
-            normName = normalizeName(name);
+            LockTable table;
+            try {
+                table = LockTable.build(lists.families, lists.links, itemCount, itemNames::get, w.cpuPool());
+            } catch (Exception e) {
+                log.warn("NG+: lock table precompute failed", e);
+                metrics.precomputeFailed();
+                clientThread.invoke(() -> {
+                    if (generation == precomputeGeneration.get()) {
+                        precomputeRunning = false;
+                    }
+                });
+                return;
+            }
+            metrics.evaluationFinished();
+            clientThread.invoke(() -> publishLockTable(generation, table, itemCount, namesHash, true));
+            // Persist for the next start
+            WorkerScheduler.Flusher saver = lockTableCacheFlusher;
+            if (generation == precomputeGeneration.get() && saver != null) {
+                pendingLockTableSave.set(() -> lockTableCache.save(nameFingerprint, namesHash, itemCount, listHash,
+                        table, itemNames::get));
+                saver.request();
+            }
+        });
+        if (!queued) {
+            precomputeRunning = false;
         }
-        catch (Exception e)
-        {
-            return false;
+    }
+
+    // Swap in a finished lock table; namesHash covers the names it was built from, verified says whether those are
+    // known to be the current names. Client thread only.
+    private void publishLockTable(int generation, LockTable table, int itemCount, long namesHash, boolean verified) {
+        if (generation != precomputeGeneration.get()) {
+            return;
         }
-        for (Pattern p : defaultLockedPatterns)
-        {
-            if (p.matcher(normName).matches())
-            {
-                return true;
+        precomputeRunning = false;
+        tableNamesHash = namesHash;
+        namesVerified = verified;
+        engine.publish(table, enabledCategories());
+        publishItemMetadata(table, itemCount);
+        if (engine.setCanonicalIds(buildCanonicalIds(table, itemCount))) {
+            // Unlocks saved as a noted or placeholder id now stand for their base item; the panel refresh below
+            // picks up the moved ids
+            saveUnlockedToConfig();
+        }
+        progress.rebuild(table.getFamilyGraph(), lockLists.families, unlockState.itemIds());
+        refreshLockViews();
+        metrics.precomputePublished();
+        if (log.isDebugEnabled()) {
+            log.debug("NG+: lock table published (bosses={}, raids={}, slayer={}, metadata={}, variants={}): "
+                            + "{}; {}; {}",
+                    table.count(LockCategory.BOSSES), table.count(LockCategory.RAIDS),
+                    table.count(LockCategory.SLAYER), itemMetadata.size(),
+                    engine.getCanonicalIds().variantCount(), metrics.summary(), scheduler.summary(), footprint());
+        }
+        // Panel names can now be read without the client thread
+        if (panel != null) {
+            panel.refreshFromPlugin();
+        }
+    }
+
+    NewGamePlusMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Estimated bytes held by each lock-state structure
+    MemoryFootprint footprint() {
+        LockTable table = engine.getTable();
+        return new MemoryFootprint()
+                .add("unlocks", unlockState.footprintBytes())
+                .add("inventory", inventoryCounts.footprintBytes())
+                .add("categories", table != null ? table.categoryFootprintBytes() : 0)
+                .add("families", table != null ? table.getFamilyGraph().footprintBytes() : 0)
+                .add("enabled", engine.enabledFootprintBytes())
+                .add("names", itemNames.footprintBytes())
+                .add("tokens", tokenDictionary.footprintBytes())
+                .add("metadata", itemMetadata.footprintBytes())
+                .add("canonical", engine.getCanonicalIds().footprintBytes())
+                .add("ground", groundItems.footprintBytes())
+                .add("bank", bankIndex.footprintBytes())
+                .add("progress", progress.footprintBytes())
+                .add("history", history != null ? history.footprintBytes() : 0);
+    }
+
+    // ::ngpdebug prints the precompute, scheduler, worker, bank and memory reports to the chatbox and the log;
+    // ::ngpnames writes the item name dump for the lock list lint
+    @Subscribe
+    public void onCommandExecuted(CommandExecuted event) {
+        if ("ngpnames".equalsIgnoreCase(event.getCommand())) {
+            exportItemNames();
+            return;
+        }
+        if (!"ngpdebug".equalsIgnoreCase(event.getCommand())) {
+            return;
+        }
+        WorkerScheduler w = workers;
+        String[] lines = {metrics.summary(), scheduler.summary(), w != null ? w.summary() : "workers stopped",
+                bankIndex.summary(), footprint().toString(), auditSummary()};
+        for (String line : lines) {
+            log.debug("NG+: {}", line);
+            postGameMessage("NG+: " + line);
+        }
+    }
+
+    // Write "id<TAB>name" for every named item to new-game-plus/item-names.tsv, the input of the lintLockLists Gradle
+    // task. Names are resolved here on the client thread; the file is written on the IO lane.
+    private void exportItemNames() {
+        final WorkerScheduler w = workers;
+        if (w == null) {
+            return;
+        }
+        final int itemCount = client.getItemCount();
+        final StringBuilder sb = new StringBuilder(itemCount * 24);
+        for (int id = 0; id < itemCount; id++) {
+            ItemNameCache.Entry name = resolveItemName(id);
+            if (name != null && !name.normalizedName.isEmpty() && !name.normalizedName.equals("null")) {
+                sb.append(id).append('\t').append(name.displayName).append('\n');
             }
         }
-        return false;
+        final Path file = RuneLite.RUNELITE_DIR.toPath().resolve("new-game-plus").resolve("item-names.tsv");
+        w.submit(WorkerScheduler.Lane.IO, "item name export", () -> {
+            try {
+                Files.write(file, sb.toString().getBytes(StandardCharsets.UTF_8));
+                postGameMessage("NG+: Wrote item names to " + file);
+            } catch (IOException e) {
+                log.warn("NG+: failed writing {}", file, e);
+                postGameMessage("NG+: Could not write " + file);
+            }
+        });
     }
 
-    private boolean isColored(String s) {
-        if (s == null) {
-            return false;
+    // Snapshot names and noted/placeholder links for every lockable item (and the ids they link to).
+    // Must run on the client thread.
+    private void publishItemMetadata(LockTable table, int itemCount) {
+        ItemMetadataService.Builder builder = new ItemMetadataService.Builder(itemCount);
+        BitSet lockable = table.lockedItems(EnumSet.allOf(LockCategory.class));
+        for (int id = lockable.nextSetBit(0); id >= 0; id = lockable.nextSetBit(id + 1)) {
+            addItemMetadata(builder, id);
         }
-        String lower = s.toLowerCase();
-        return lower.contains("<col=") || lower.contains("</col>");
+        itemMetadata.publish(builder);
     }
 
-    private String normalizeName(String name) {
-        if (name == null) {
-            return "";
+    // Variant -> base links for the lockable items: noted forms and placeholders from the item metadata, then
+    // charged, degraded and ornamented forms from RuneLite's item variation mapping. A variation only joins a
+    // lockable base, and never one that the lists lock through a different family, so the lists still decide what
+    // is locked. Must run after publishItemMetadata, on the client thread.
+    private CanonicalItemIds buildCanonicalIds(LockTable table, int itemCount) {
+        CanonicalItemIds.Builder builder = new CanonicalItemIds.Builder(itemCount);
+        BitSet ids = itemMetadata.itemIds();
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            ItemMetadataService.ItemMetadata m = itemMetadata.get(id);
+            if (m.noted) {
+                builder.link(id, m.linkedNoteId);
+            } else if (m.placeholder) {
+                builder.link(id, m.placeholderId);
+            }
+        }
+        ItemFamilyGraph families = table.getFamilyGraph();
+        for (int id = 1; id < itemCount; id++) {
+            int base = ItemVariationMapping.map(id);
+            if (base != id && table.isLockable(base)
+                    && (!table.isLockable(id) || families.familyOf(id) == families.familyOf(base))) {
+                builder.link(id, base);
+            }
+        }
+        return builder.build();
+    }
+
+    private void addItemMetadata(ItemMetadataService.Builder builder, int itemId) {
+        if (itemId <= 0 || builder.contains(itemId)) {
+            return;
+        }
+        ItemComposition comp;
+        try {
+            comp = itemManager.getItemComposition(itemId);
+        } catch (Exception e) {
+            return;
+        }
+        final boolean noted = comp.getNote() != -1;
+        final boolean placeholder = comp.getPlaceholderTemplateId() != -1;
+        final int linkedNoteId = comp.getLinkedNoteId();
+        final int placeholderId = comp.getPlaceholderId();
+        builder.add(new ItemMetadataService.ItemMetadata(itemId, getItemName(itemId),
+                linkedNoteId, noted, placeholderId, placeholder));
+        // Pull in the linked forms too so callers can follow links from either side
+        addItemMetadata(builder, linkedNoteId);
+        addItemMetadata(builder, placeholderId);
+    }
+
+    // Name from the item definition, bypassing the name cache, or null if it can't be read; client thread only
+    private String definitionName(int itemId) {
+        try {
+            return itemManager.getItemComposition(itemId).getName();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Cached name for an item. On the client thread a missing entry is resolved from the item definition and
+    // cached; other threads only see names that were already cached (null otherwise).
+    private ItemNameCache.Entry resolveItemName(int itemId) {
+        ItemNameCache.Entry cached = itemNames.get(itemId);
+        if (cached != null || !client.isClientThread()) {
+            return cached;
+        }
+        try {
+            String name = itemManager.getItemComposition(itemId).getName();
+            return itemNames.put(itemId, name, LockLists.normalizeName(name));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Record an unlock made by this client in the history; the history flusher writes it on the IO lane, coalesced
+    // with any other unlocks recorded before it runs. Unlocks applied from the config or the shared group were recorded
+    // by the client that made them. The kill count is the one RuneLite's kill count tracking has stored for the NPC or
+    // reward name, if any.
+    private void recordUnlock(int itemId, UnlockHistory.Source source, String name, int npcId) {
+        final UnlockHistory h = history;
+        final WorkerScheduler.Flusher f = historyFlusher;
+        if (h == null || f == null) {
+            return;
         }
-        return Text.removeTags(name).toLowerCase().trim();
+        appendHistory(h, itemId, source, name, npcId);
+        f.request();
     }
 
-    private void rebuildUnlockedNames() {
-        // Ensure we run on the client thread since ItemManager access requires it
-        clientThread.invoke(this::rebuildUnlockedNamesUnsafe);
+    // Record a bulk unlock in the history with a single write; names gives each item's NPC, reward or page name
+    private void recordUnlocks(int[] itemIds, UnlockHistory.Source source, IntFunction<String> names) {
+        final UnlockHistory h = history;
+        final WorkerScheduler.Flusher f = historyFlusher;
+        if (itemIds.length == 0 || h == null || f == null) {
+            return;
+        }
+        for (int id : itemIds) {
+            appendHistory(h, id, source, names.apply(id), -1);
+        }
+        f.request();
     }
 
-    private void rebuildUnlockedNamesUnsafe() {
-        unlockedNamePatterns.clear();
-        for (int id : unlockedItemIds) {
+    private void appendHistory(UnlockHistory h, int itemId, UnlockHistory.Source source, String name,
+                               int npcId) {
+        Integer killCount = null;
+        if (name != null) {
             try {
-                String nm = itemManager.getItemComposition(id).getName();
-                String norm = normalizeName(nm);
-
-                boolean mapped = false;
-                // If this unlocked name falls under any default-locked family, unlock that family
-                for (Pattern p : defaultLockedPatterns) {
-                    if (p.matcher(norm).matches()) {
-                        unlockedNamePatterns.add(p);
-                        mapped = true;
-                    }
-                }
-                // Otherwise, unlock its own family compiled from the name
-                if (!mapped) {
-                    unlockedNamePatterns.add(compileNameFamilyPattern(norm));
-                }
-            } catch (Exception ignored) {
+                killCount = configManager.getRSProfileConfiguration("killcount", name.toLowerCase(), int.class);
+            } catch (RuntimeException ignored) {
             }
         }
+        h.append(System.currentTimeMillis(), itemId, source, name, npcId, killCount != null ? killCount : -1);
     }
 
     private void postGameMessage(String message) {
@@ -707,18 +1333,13 @@ public class NewGamePlusPlugin extends Plugin {
         }
         clientThread.invoke(() ->
         {
-            String nm;
-            try {
-                nm = client.getItemDefinition(itemId).getName();
-            } catch (Exception e) {
-                nm = "Unknown item";
-            }
-            unlockOverlay.enqueueUnlock(itemId, nm);
+            unlockOverlay.enqueueUnlock(itemId, getItemName(itemId), getLockCategory(itemId));
         });
     }
 
     private void playUnlockSound() {
-        if (audioExecutor == null || !config.playUnlockSound()) {
+        final WorkerScheduler w = workers;
+        if (w == null || !config.playUnlockSound()) {
             return;
         }
         final Path soundPath = RuneLite.RUNELITE_DIR.toPath()
@@ -728,7 +1349,7 @@ public class NewGamePlusPlugin extends Plugin {
             return;
         }
 
-        audioExecutor.submit(() ->
+        w.submit(WorkerScheduler.Lane.MEDIA, "unlock sound", () ->
         {
             try {
                 int vol = Math.max(0, Math.min(100, config.unlockSoundVolume()));
@@ -753,14 +1374,12 @@ public class NewGamePlusPlugin extends Plugin {
         final String fileName = sanitizeFilename(base);
 
         // Delay to allow the notification/popup to render before capture
-        if (screenshotExecutor != null) {
-            screenshotExecutor.schedule(() -> {
+        final WorkerScheduler w = workers;
+        if (w != null) {
+            w.schedule(WorkerScheduler.Lane.MEDIA, "unlock screenshot", () -> {
                 // Capture next frame and save asynchronously
                 drawManager.requestNextFrameListener(image -> {
-                    if (screenshotExecutor == null) {
-                        return;
-                    }
-                    screenshotExecutor.submit(() -> {
+                    w.submit(WorkerScheduler.Lane.MEDIA, "unlock screenshot save", () -> {
                         try {
                             BufferedImage bi = ImageUtil.bufferedImageFromImage(image);
                             imageCapture.saveScreenshot(bi, fileName, "New Game Plus", false, false);
@@ -781,176 +1400,380 @@ public class NewGamePlusPlugin extends Plugin {
         return s.replaceAll("[\\\\/:*?\"<>|]", "_");
     }
 
-    // Load default-locked name families (always enabled)
-    private void loadDefaultLockedNames() {
-        defaultLockedPatterns.clear();
-        readDefaultNamesResource("/default-locks/bosses.txt");
-        readDefaultNamesResource("/default-locks/raids.txt");
-        readDefaultNamesResource("/default-locks/slayer.txt");
-        // Rebuild unlocked name patterns to map unlocks to the current default families
-        rebuildUnlockedNames();
+    // Client thread only
+    private void loadUnlockedFromConfig() {
+        String csv = configManager.getConfiguration("newgameplus", "unlockedItemIds");
+        unlockState.clear();
+        UnlockCodec.decode(csv).forEach(unlockState::add);
+        unlockedSnapshot = unlockState.itemIds();
+        syncedUnlockedCsv = UnlockCodec.normalize(csv);
     }
 
-    private void readDefaultNamesResource(String resourcePath) {
-        try (InputStream is = NewGamePlusPlugin.class.getResourceAsStream(resourcePath)) {
-            if (is == null) {
-                log.debug("Default lock resource not found: {}", resourcePath);
-                return;
+    // Client thread only
+    private void saveUnlockedToConfig() {
+        String csv = UnlockCodec.encode(unlockState.itemIds());
+        if (csv.equals(syncedUnlockedCsv)) {
+            return;
+        }
+        // Record the value before writing so the synchronous ConfigChanged echo is recognised
+        syncedUnlockedCsv = csv;
+        configManager.setConfiguration("newgameplus", "unlockedItemIds", csv);
+    }
+
+    // Refresh the off-thread snapshot, then tell the listeners. Every unlock change goes through here, on the client
+    // thread.
+    private void publishUnlockChange(UnlockChange change) {
+        unlockedSnapshot = unlockState.itemIds();
+        unlockChanges.publish(change);
+    }
+
+    // A ConfigChanged for unlockedItemIds that we did not write (profile sync, another client, manual edit):
+    // diff against the in-memory set and apply only the ids that were added or removed. Client thread only; the
+    // current config value is read here, so changes queued behind each other apply the latest one.
+    private void applyExternalUnlocks() {
+        String csv = UnlockCodec.normalize(configManager.getConfiguration("newgameplus", "unlockedItemIds"));
+        if (csv.equals(syncedUnlockedCsv)) {
+            return;
+        }
+        syncedUnlockedCsv = csv;
+
+        IntHashSet added = new IntHashSet();
+        IntHashSet removed = new IntHashSet();
+        IntHashSet target = canonicalIds(UnlockCodec.decode(csv));
+        for (int id : unlockState.itemIds()) {
+            if (!target.contains(id) && unlockState.remove(id)) {
+                removed.add(id);
             }
-            try (BufferedReader br = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-                String line;
-                while ((line = br.readLine()) != null) {
-                    String trimmed = line.trim();
-                    if (trimmed.isEmpty() || trimmed.startsWith("#")) {
-                        continue;
-                    }
-                    String norm = normalizeName(trimmed);
-                    defaultLockedPatterns.add(compileNameFamilyPattern(norm));
-                }
+        }
+        target.forEach(id -> {
+            if (unlockState.add(id)) {
+                added.add(id);
             }
-        } catch (Exception e) {
-            log.warn("Failed reading default lock resource {}", resourcePath, e);
+        });
+        if (added.isEmpty() && removed.isEmpty()) {
+            return;
         }
+        log.debug("Applied external unlock change: {} added, {} removed", added.size(), removed.size());
+        publishUnlockChange(UnlockChange.of(added.toSortedArray(), removed.toSortedArray())
+                .from(UnlockChange.Origin.CONFIG));
     }
 
-    // Build a regex that matches any name containing the tokens (in order), allowing extra words/prefixes/suffixes
-    private Pattern compileNameFamilyPattern(String base) {
-        if (base == null) {
-            base = "";
+    // (Re)open the shared group store for the configured group and merge it with our unlocks. Our unlocks are added
+    // to the group, and the group's unlocks are applied here.
+    private void openSharedStore() {
+        closeSharedStore();
+        String group = sharedGroupFileName(config.sharedGroup());
+        if (group.isEmpty()) {
+            return;
         }
-        String[] tokens = base.toLowerCase().split("[^a-z0-9]+");
-        StringBuilder re = new StringBuilder();
-        re.append(".*");
-        for (String tk : tokens) {
-            if (tk.isEmpty()) {
-                continue;
-            }
-            re.append("\\b").append(java.util.regex.Pattern.quote(tk)).append("\\b").append(".*");
+        try {
+            SharedUnlockStore store = SharedUnlockStore.open(
+                    RuneLite.RUNELITE_DIR.toPath().resolve("new-game-plus").resolve("shared"), group);
+            SharedUnlockStore.Delta delta = store.join(unlockState.itemIds());
+            sharedStore = store;
+            applySharedDelta(delta);
+            log.debug("NG+: joined shared unlock group {}", group);
+        } catch (IOException e) {
+            log.warn("NG+: could not open shared unlock group {}", group, e);
         }
-        return java.util.regex.Pattern.compile(re.toString());
     }
 
-    private void loadUnlockedFromConfig() {
-        String csv = configManager.getConfiguration("newgameplus", "unlockedItemIds");
-        unlockedItemIds.clear();
-        if (csv == null || csv.isEmpty()) {
+    private void closeSharedStore() {
+        SharedUnlockStore store = sharedStore;
+        if (store == null) {
             return;
         }
-        String[] parts = csv.split(",");
-        for (String p : parts) {
-            try {
-                int id = Integer.parseInt(p.trim());
-                if (id > 0) {
-                    unlockedItemIds.add(id);
-                }
-            } catch (NumberFormatException ignored) {
-            }
+        sharedStore = null;
+        store.close();
+    }
+
+    // Group name as a safe file name: lower case letters, digits, '-' and '_'
+    private static String sharedGroupFileName(String group) {
+        if (group == null) {
+            return "";
         }
+        String name = group.trim().toLowerCase().replaceAll("[^a-z0-9_-]+", "_");
+        return name.length() > 32 ? name.substring(0, 32) : name;
     }
 
-    private void saveUnlockedToConfig() {
-        StringBuilder sb = new StringBuilder();
-        for (Integer id : unlockedItemIds) {
-            if (sb.length() > 0) {
-                sb.append(',');
-            }
-            sb.append(id);
+    // Unlock change stream sink: mirror this client's changes into the shared store
+    private void writeSharedChange(UnlockChange change) {
+        SharedUnlockStore store = sharedStore;
+        if (store == null || change.getOrigin() == UnlockChange.Origin.SHARED) {
+            return;
+        }
+        try {
+            store.write(change);
+        } catch (IOException e) {
+            log.warn("NG+: failed writing to shared unlock group {}", store.getGroup(), e);
         }
-        configManager.setConfiguration("newgameplus", "unlockedItemIds", sb.toString());
     }
 
-    // Read unlocked IDs directly from persisted config
-    public java.util.Set<Integer> getUnlockedItemIdsFromConfig() {
-        java.util.Set<Integer> ids = new java.util.HashSet<>();
-        String csv = configManager.getConfiguration("newgameplus", "unlockedItemIds");
-        if (csv == null || csv.isEmpty()) {
-            return ids;
+    // Pick up unlocks other clients wrote since the last tick; a single mapped read when nothing changed
+    private void pollSharedStore() {
+        SharedUnlockStore store = sharedStore;
+        if (store == null) {
+            return;
         }
-        String[] parts = csv.split(",");
-        for (String p : parts) {
-            try {
-                int id = Integer.parseInt(p.trim());
-                if (id > 0) {
-                    ids.add(id);
+        try {
+            SharedUnlockStore.Delta delta = store.poll(unlockState::itemIds);
+            if (delta != null) {
+                applySharedDelta(delta);
+            }
+        } catch (IOException e) {
+            log.warn("NG+: failed reading shared unlock group {}", store.getGroup(), e);
+        }
+    }
+
+    private void applySharedDelta(SharedUnlockStore.Delta delta) {
+        IntHashSet added = new IntHashSet();
+        IntHashSet removed = new IntHashSet();
+        IntHashSet deltaAdded = canonicalIds(delta.added);
+        if (delta.cleared) {
+            for (int id : unlockState.itemIds()) {
+                if (!deltaAdded.contains(id) && unlockState.remove(id)) {
+                    removed.add(id);
                 }
-            } catch (NumberFormatException ignored) {
             }
         }
-        return ids;
+        canonicalIds(delta.removed).forEach(id -> {
+            if (unlockState.remove(id)) {
+                removed.add(id);
+            }
+        });
+        deltaAdded.forEach(id -> {
+            if (unlockState.add(id)) {
+                added.add(id);
+            }
+        });
+        if (added.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        log.debug("NG+: applied shared unlock change: {} added, {} removed", added.size(), removed.size());
+        saveUnlockedToConfig();
+        publishUnlockChange(UnlockChange.of(added.toSortedArray(), removed.toSortedArray())
+                .from(UnlockChange.Origin.SHARED));
     }
 
-    // Expose helpers for panel
-    public java.util.Set<Integer> getUnlockedItemIds() {
-        return new java.util.HashSet<>(unlockedItemIds);
+    // The ids mapped to their canonical ids, as UnlockState stores them
+    private IntHashSet canonicalIds(IntHashSet ids) {
+        IntHashSet out = new IntHashSet(ids.size());
+        ids.forEach(id -> out.add(engine.canonicalId(id)));
+        return out;
     }
 
-    public void addUnlock(int id) {
+    // Expose helpers for panel: unlocked ids in ascending order, from any thread. The array is shared; don't modify it.
+    public int[] getUnlockedItemIds() {
+        return unlockedSnapshot;
+    }
+
+    public void addUnlock(int itemId) {
+        final int id = engine.canonicalId(itemId);
         if (id <= 0) {
             return;
         }
-        if (unlockedItemIds.add(id)) {
+        if (unlockState.add(id)) {
+            recordUnlock(id, UnlockHistory.Source.MANUAL, null, -1);
             saveUnlockedToConfig();
-            rebuildUnlockedNames();
-            if (panel != null) {
-                panel.refreshFromPlugin();
-            }
+            publishUnlockChange(UnlockChange.added(id));
         }
     }
 
-    public void removeUnlock(int id) {
-        if (unlockedItemIds.remove(id)) {
-            saveUnlockedToConfig();
-            rebuildUnlockedNames();
-            if (panel != null) {
-                panel.refreshFromPlugin();
-            }
+    // Unlock history for the panel's timeline; null while stopped
+    UnlockHistory getHistory() {
+        return history;
+    }
+
+    // Write the unlock history as CSV on the IO lane; done is called with the error, or null, on that thread
+    void exportHistoryCsv(File file, Consumer<IOException> done) {
+        final UnlockHistory h = history;
+        final WorkerScheduler w = workers;
+        if (h == null || w == null) {
+            return;
         }
+        w.submit(WorkerScheduler.Lane.IO, "unlock history export", () -> {
+            try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                h.exportCsv(out, this::getItemName);
+                done.accept(null);
+            } catch (IOException e) {
+                log.warn("NG+: failed exporting unlock history to {}", file, e);
+                done.accept(e);
+            }
+        });
     }
 
-    public void clearAllUnlocks() {
-        if (unlockedItemIds.isEmpty()) {
+    // Start reading obtained items from the collection log pages the player opens; applied when the collection log
+    // is closed or the import is finished from the panel
+    public void startCollectionLogImport() {
+        scheduler.submit("collection log import", ClientThreadScheduler.Priority.HIGH, () -> {
+            if (engine.getTable() == null) {
+                postGameMessage("NG+: The lock lists are still loading, try the import again in a moment");
+                return;
+            }
+            collectionLogImport.start();
+            publishImportState();
+            postGameMessage("NG+: Open the collection log pages to import, then close the collection log");
+        });
+    }
+
+    public void finishCollectionLogImport() {
+        scheduler.submit("collection log import", ClientThreadScheduler.Priority.HIGH,
+                this::commitCollectionLogImport);
+    }
+
+    // Any lockable item counts, not only the enabled categories, so enabling a category later keeps the import
+    private boolean isImportable(int itemId) {
+        return engine.categoryOf(itemId) != null && !unlockState.isUnlocked(itemId);
+    }
+
+    // Apply everything the import found as one unlock change: one config write, one index, progress and panel
+    // refresh and one history write, with no per-item popups or sounds. Client thread only.
+    private void commitCollectionLogImport() {
+        if (!collectionLogImport.isActive()) {
             return;
         }
-        unlockedItemIds.clear();
-        saveUnlockedToConfig();
-        rebuildUnlockedNames();
-        if (panel != null) {
-            panel.refreshFromPlugin();
+        final int pages = collectionLogImport.pageCount();
+        IntHashSet unlocked = new IntHashSet();
+        for (int id : collectionLogImport.itemIds()) {
+            if (unlockState.add(id)) {
+                unlocked.add(id);
+            }
         }
-        postGameMessage("NG+: Cleared all unlocks");
+        final int[] ids = unlocked.toSortedArray();
+        recordUnlocks(ids, UnlockHistory.Source.COLLECTION_LOG, collectionLogImport::pageOf);
+        collectionLogImport.clear();
+        if (ids.length > 0) {
+            saveUnlockedToConfig();
+            publishUnlockChange(UnlockChange.added(ids));
+        }
+        publishImportState();
+        postGameMessage("NG+: Imported " + ids.length + " unlocks from " + pages + " collection log pages");
+    }
+
+    // The unlock set as an unlock code for copy/paste (see UnlockCodec)
+    public String exportUnlockCode() {
+        return UnlockCodec.exportText(unlockedSnapshot, lockLists.hash);
+    }
+
+    // Hash of the bundled lock lists, stored in unlock codes so an import can tell they were made with other lists
+    long getLockListHash() {
+        return lockLists.hash;
+    }
+
+    // Merge a decoded unlock code into the unlock set, or replace the set with it, as one unlock change with one
+    // config write. Unlock codes from other lock lists are applied as they are; their ids just may not be lockable.
+    public void importUnlocks(IntHashSet imported, boolean replace) {
+        scheduler.submit("unlock import", ClientThreadScheduler.Priority.HIGH, () -> {
+            IntHashSet ids = canonicalIds(imported);
+            IntHashSet added = new IntHashSet();
+            IntHashSet removed = new IntHashSet();
+            if (replace) {
+                for (int id : unlockState.itemIds()) {
+                    if (!ids.contains(id) && unlockState.remove(id)) {
+                        removed.add(id);
+                    }
+                }
+            }
+            ids.forEach(id -> {
+                if (unlockState.add(id)) {
+                    added.add(id);
+                }
+            });
+            int[] addedIds = added.toSortedArray();
+            recordUnlocks(addedIds, UnlockHistory.Source.IMPORT, id -> null);
+            if (!added.isEmpty() || !removed.isEmpty()) {
+                saveUnlockedToConfig();
+                publishUnlockChange(UnlockChange.of(addedIds, removed.toSortedArray()));
+            }
+            postGameMessage("NG+: Imported unlock code: " + added.size() + " added, " + removed.size() + " removed");
+        });
+    }
+
+    private void publishImportState() {
+        NewGamePlusPanel p = panel;
+        if (p != null) {
+            p.setImportState(collectionLogImport.isActive(), collectionLogImport.found(),
+                    collectionLogImport.pageCount());
+        }
+    }
+
+    public void removeUnlock(int id) {
+        scheduler.submit("unlock remove", ClientThreadScheduler.Priority.HIGH, () -> {
+            if (unlockState.remove(id)) {
+                saveUnlockedToConfig();
+                publishUnlockChange(UnlockChange.removed(id));
+            }
+        });
     }
 
+    public void clearAllUnlocks() {
+        scheduler.submit("unlock clear", ClientThreadScheduler.Priority.HIGH, () -> {
+            if (unlockState.isEmpty()) {
+                return;
+            }
+            unlockState.clear();
+            saveUnlockedToConfig();
+            publishUnlockChange(UnlockChange.cleared());
+            postGameMessage("NG+: Cleared all unlocks");
+        });
+    }
+
+    // Display name for an item from any thread: the name cache first, then the metadata snapshot
     public String getItemName(int id) {
-        try {
-            return itemManager.getItemComposition(id).getName();
-        } catch (Exception e) {
-            return "Unknown item";
+        ItemNameCache.Entry name = resolveItemName(id);
+        if (name != null) {
+            return name.displayName;
         }
+        String snapshotName = itemMetadata.getName(id);
+        return snapshotName != null ? snapshotName : "Unknown item";
+    }
+
+    ProgressionCounters getProgress() {
+        return progress;
+    }
+
+    ItemMetadataService getItemMetadata() {
+        return itemMetadata;
     }
 
-    // Build the panel entries on the client thread to satisfy item definition access
+    // Rebuild the panel entries from the in-memory unlock set. Used for the initial fill and when names/categories
+    // become available; individual unlocks reach the panel as UnlockChange deltas instead. Once the metadata
+    // snapshot exists names are read directly on the calling thread; before that, names are resolved on the
+    // client thread in budgeted chunks.
     public void refreshPanelAsync(NewGamePlusPanel targetPanel) {
-        clientThread.invoke(() ->
+        if (targetPanel == null) {
+            return;
+        }
+        final int[] ids = getUnlockedItemIds();
+        final Map<Integer, String> idToName = new HashMap<>();
+        if (itemMetadata.isReady()) {
+            for (int id : ids) {
+                idToName.put(id, getItemName(id));
+            }
+            targetPanel.setEntries(idToName);
+            return;
+        }
+        final int[] cursor = {0};
+        scheduler.submit("panel names", ClientThreadScheduler.Priority.NORMAL, deadline ->
         {
-            Map<Integer, String> idToName = new HashMap<>();
-            for (int id : getUnlockedItemIdsFromConfig()) {
-                String name;
-                try {
-                    name = client.getItemDefinition(id).getName();
-                } catch (Exception e) {
-                    name = "Unknown item";
+            while (cursor[0] < ids.length) {
+                int id = ids[cursor[0]++];
+                idToName.put(id, getItemName(id));
+                if (System.nanoTime() > deadline) {
+                    break;
                 }
-                idToName.put(id, name);
             }
-            if (targetPanel != null) {
-                targetPanel.setEntries(idToName);
+            if (cursor[0] < ids.length) {
+                return false;
             }
+            targetPanel.setEntries(idToName);
+            return true;
         });
     }
 
     // Open an in-game chatbox search to add an unlocked item by name
     public void openAddItemSearch() {
-        clientThread.invoke(() ->
+        scheduler.submit("add item search", ClientThreadScheduler.Priority.HIGH, () ->
         {
             // Ensure the RuneLite client (and chatbox input) has keyboard focus after clicking the sidebar button
             if (clientUI != null) {
@@ -962,19 +1785,8 @@ public class NewGamePlusPlugin extends Plugin {
                     .onItemSelected(id ->
                     {
                         if (id != null && id > 0) {
-                            // Only accept items that belong to a default-locked family
-                            boolean lockable = false;
-                            try {
-                                String nm = client.getItemDefinition(id).getName();
-                                String norm = normalizeName(nm);
-                                for (java.util.regex.Pattern p : defaultLockedPatterns) {
-                                    if (p.matcher(norm).matches()) {
-                                        lockable = true;
-                                        break;
-                                    }
-                                }
-                            } catch (Exception ignored) {
-                            }
+                            // Only accept items that belong to an enabled default-locked family
+                            boolean lockable = engine.isLockable(id);
                             if (!lockable) {
                                 postGameMessage("NG+: That item is not in the lockable lists. Pick another.");
                                 // Reopen the restricted search to try again
@@ -983,13 +1795,7 @@ public class NewGamePlusPlugin extends Plugin {
                             }
 
                             addUnlock(id);
-                            String name;
-                            try {
-                                name = client.getItemDefinition(id).getName();
-                            } catch (Exception e) {
-                                name = "Unknown item";
-                            }
-                            postGameMessage("NG+: Added " + name + " to unlocks");
+                            postGameMessage("NG+: Added " + getItemName(id) + " to unlocks");
                         }
                     })
                     .prompt("Search lockable item to unlock")
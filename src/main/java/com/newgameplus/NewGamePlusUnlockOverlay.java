@@ -46,11 +46,11 @@ public class NewGamePlusUnlockOverlay extends Overlay {
         setPosition(OverlayPosition.TOP_CENTER);
     }
 
-    public void enqueueUnlock(int itemId, String itemName) {
+    public void enqueueUnlock(int itemId, String itemName, LockCategory category) {
         if (itemId <= 0) {
             return;
         }
-        queue.add(new Notification(itemId, itemName));
+        queue.add(new Notification(itemId, itemName, category));
     }
 
     public void clear() {
@@ -97,7 +97,9 @@ public class NewGamePlusUnlockOverlay extends Overlay {
         Font nameFont = FontManager.getRunescapeFont();
 
         // Strings
-        String title = "NG+: New unlock";
+        String title = current.category != null
+                ? "NG+: New unlock (" + current.category.getDisplayName() + ")"
+                : "NG+: New unlock";
         String name = current.itemName != null ? current.itemName : "Unknown item";
 
         // Measure
@@ -175,11 +177,13 @@ public class NewGamePlusUnlockOverlay extends Overlay {
     private static class Notification {
         final int itemId;
         final String itemName;
+        final LockCategory category;
         BufferedImage image;
 
-        Notification(int itemId, String itemName) {
+        Notification(int itemId, String itemName, LockCategory category) {
             this.itemId = itemId;
             this.itemName = itemName;
+            this.category = category;
         }
     }
 }